@@ -0,0 +1,64 @@
+package com.dnocturne.afflictions.storage.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding the data column as JSON against the binary format,
+ * for a typical vampirism row. The size difference is checked by {@code BinaryDataCodecTest}.
+ *
+ * <p>Run with {@code ./gradlew jmh}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataCodecBenchmark {
+
+    private final Map<String, String> data = Map.of(
+            "blood", "87.5",
+            "blood_hunger_active", "false",
+            "sun_exposure_start", "1700000000000",
+            "burning", "false",
+            "has_helmet", "true",
+            "last_feed_target", "Steve"
+    );
+
+    private String json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = InstanceDataCodec.toJson(data);
+        binary = BinaryDataCodec.encode(data);
+    }
+
+    @Benchmark
+    public String save_json() {
+        return InstanceDataCodec.toJson(data);
+    }
+
+    @Benchmark
+    public byte[] save_binary() {
+        return BinaryDataCodec.encode(data);
+    }
+
+    @Benchmark
+    public Map<String, String> load_json() throws IOException {
+        return InstanceDataCodec.fromJson(json);
+    }
+
+    @Benchmark
+    public Map<String, String> load_binary() throws IOException {
+        return BinaryDataCodec.decode(binary);
+    }
+}
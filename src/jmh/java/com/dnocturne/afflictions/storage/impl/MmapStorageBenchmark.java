@@ -0,0 +1,107 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Measures loads, saves and opening a populated data file with {@link MmapStorage}.
+ * Compare against {@link UuidKeyBenchmark} for the SQLite lookup.
+ *
+ * <p>Run with {@code ./gradlew jmh}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MmapStorageBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger("MmapStorageBenchmark");
+
+    @Param({"10000"})
+    public int players;
+
+    private Path directory;
+    private MmapStorage storage;
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException, ExecutionException, InterruptedException {
+        directory = Files.createTempDirectory("afflictions-mmap-bench");
+        storage = open();
+
+        uuids = new UUID[players];
+        List<PlayerAfflictionData> batch = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            uuids[i] = UUID.randomUUID();
+            batch.add(player(uuids[i], i));
+        }
+        storage.saveBatch(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, ExecutionException, InterruptedException {
+        storage.shutdown().get();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private MmapStorage open() throws ExecutionException, InterruptedException {
+        MmapStorage opened = new MmapStorage(directory, LOGGER, MmapStorage.FsyncPolicy.INTERVAL, 1000, 1024);
+        opened.init().get();
+        return opened;
+    }
+
+    private static PlayerAfflictionData player(UUID uuid, int index) {
+        return new PlayerAfflictionData(uuid, "Player" + index, List.of(new AfflictionData(
+                "vampirism", index % 5 + 1, -1, 1_700_000_000_000L, Map.of("blood", "87.5", "burning", "false"))));
+    }
+
+    @Benchmark
+    public Optional<PlayerAfflictionData> load() throws ExecutionException, InterruptedException {
+        return storage.load(uuids[next++ % players]).get();
+    }
+
+    @Benchmark
+    public void save() throws SQLException {
+        int index = next++ % players;
+        storage.saveBatch(List.of(player(uuids[index], index)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int startup() throws ExecutionException, InterruptedException {
+        MmapStorage reopened = open();
+        int count = reopened.getPlayerCount();
+        reopened.shutdown().get();
+        return count;
+    }
+}
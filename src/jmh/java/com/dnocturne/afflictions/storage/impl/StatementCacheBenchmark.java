@@ -0,0 +1,162 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares preparing statements on every call against reusing them from a
+ * {@link StatementCache}, for the queries run when a player joins and is saved.
+ *
+ * <p>Run with {@code ./gradlew jmh}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StatementCacheBenchmark {
+
+    private static final int PLAYERS = 1000;
+
+    private static final String SELECT_AFFLICTIONS_SQL = """
+            SELECT affliction_id, level, duration, contracted_at, data
+            FROM player_afflictions
+            WHERE player_uuid = ?
+            """;
+
+    private static final String UPSERT_AFFLICTION_SQL = """
+            INSERT INTO player_afflictions (player_uuid, affliction_id, level, duration, contracted_at, data)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT(player_uuid, affliction_id) DO UPDATE SET
+                level = excluded.level,
+                duration = excluded.duration,
+                contracted_at = excluded.contracted_at,
+                data = excluded.data
+            """;
+
+    private File dbFile;
+    private Connection connection;
+    private StatementCache cache;
+    private String[] playerUuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dbFile = Files.createTempFile("afflictions-bench", ".db").toFile();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try (var stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("""
+                    CREATE TABLE player_afflictions (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        player_uuid TEXT NOT NULL,
+                        affliction_id TEXT NOT NULL,
+                        level INTEGER NOT NULL DEFAULT 1,
+                        duration INTEGER NOT NULL DEFAULT -1,
+                        contracted_at INTEGER NOT NULL,
+                        data TEXT,
+                        UNIQUE(player_uuid, affliction_id)
+                    )
+                    """);
+            stmt.execute("CREATE INDEX idx_player_afflictions_uuid ON player_afflictions(player_uuid)");
+        }
+
+        playerUuids = new String[PLAYERS];
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(UPSERT_AFFLICTION_SQL)) {
+            for (int i = 0; i < PLAYERS; i++) {
+                playerUuids[i] = UUID.randomUUID().toString();
+                for (String afflictionId : new String[]{"vampirism", "lycanthropy", "curse"}) {
+                    bind(stmt, playerUuids[i], afflictionId, 1);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        cache = new StatementCache(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        cache.close();
+        connection.close();
+        dbFile.delete();
+    }
+
+    private String nextPlayer() {
+        next = (next + 1) % PLAYERS;
+        return playerUuids[next];
+    }
+
+    @Benchmark
+    public void loadAfflictions_prepareEachCall(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_AFFLICTIONS_SQL)) {
+            readAfflictions(stmt, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void loadAfflictions_cached(Blackhole blackhole) throws SQLException {
+        try (StatementCache.Lease lease = cache.lease(SELECT_AFFLICTIONS_SQL)) {
+            readAfflictions(lease.statement(), blackhole);
+        }
+    }
+
+    @Benchmark
+    public void saveAffliction_prepareEachCall() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(UPSERT_AFFLICTION_SQL)) {
+            bind(stmt, nextPlayer(), "vampirism", next % 5 + 1);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public void saveAffliction_cached() throws SQLException {
+        try (StatementCache.Lease lease = cache.lease(UPSERT_AFFLICTION_SQL)) {
+            bind(lease.statement(), nextPlayer(), "vampirism", next % 5 + 1);
+            lease.statement().executeUpdate();
+        }
+    }
+
+    private void readAfflictions(PreparedStatement stmt, Blackhole blackhole) throws SQLException {
+        stmt.setString(1, nextPlayer());
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString("affliction_id"));
+                blackhole.consume(rs.getInt("level"));
+                blackhole.consume(rs.getString("data"));
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, String playerUuid, String afflictionId, int level)
+            throws SQLException {
+        stmt.setString(1, playerUuid);
+        stmt.setString(2, afflictionId);
+        stmt.setInt(3, level);
+        stmt.setLong(4, -1L);
+        stmt.setLong(5, 1000L);
+        stmt.setString(6, "{\"blood\":\"50.0\"}");
+    }
+}
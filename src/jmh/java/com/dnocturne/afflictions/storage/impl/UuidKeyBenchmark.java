@@ -0,0 +1,140 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the joined player lookup with UUID keys stored as 36-character text
+ * (schema version 1) against 16-byte blobs (schema version 2).
+ *
+ * <p>Run with {@code ./gradlew jmh}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UuidKeyBenchmark {
+
+    private static final String LOAD_PLAYER_SQL = """
+            SELECT p.uuid, p.username, a.affliction_id, a.level, a.duration, a.contracted_at, a.data
+            FROM afflicted_players p
+            LEFT JOIN player_afflictions a ON a.player_uuid = p.uuid
+            WHERE p.uuid = ?
+            """;
+
+    @Param({"TEXT", "BLOB"})
+    public String keyType;
+
+    @Param({"10000"})
+    public int players;
+
+    private File dbFile;
+    private Connection connection;
+    private PreparedStatement load;
+    private UUID[] uuids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dbFile = Files.createTempFile("afflictions-bench", ".db").toFile();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try (var stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("""
+                    CREATE TABLE afflicted_players (
+                        uuid %s PRIMARY KEY,
+                        username TEXT NOT NULL,
+                        last_seen INTEGER NOT NULL
+                    )
+                    """.formatted(keyType));
+            stmt.execute("""
+                    CREATE TABLE player_afflictions (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        player_uuid %s NOT NULL,
+                        affliction_id TEXT NOT NULL,
+                        level INTEGER NOT NULL DEFAULT 1,
+                        duration INTEGER NOT NULL DEFAULT -1,
+                        contracted_at INTEGER NOT NULL,
+                        data TEXT,
+                        FOREIGN KEY (player_uuid) REFERENCES afflicted_players(uuid) ON DELETE CASCADE,
+                        UNIQUE(player_uuid, affliction_id)
+                    )
+                    """.formatted(keyType));
+            stmt.execute("CREATE INDEX idx_player_afflictions_uuid ON player_afflictions(player_uuid)");
+        }
+
+        uuids = new UUID[players];
+        connection.setAutoCommit(false);
+        try (PreparedStatement insertPlayer = connection.prepareStatement(
+                "INSERT INTO afflicted_players (uuid, username, last_seen) VALUES (?, ?, 0)");
+             PreparedStatement insertAffliction = connection.prepareStatement(
+                     "INSERT INTO player_afflictions (player_uuid, affliction_id, level, contracted_at, data)"
+                             + " VALUES (?, ?, 1, 1000, '{\"blood\":\"50.0\"}')")) {
+            for (int i = 0; i < players; i++) {
+                uuids[i] = UUID.randomUUID();
+                bindKey(insertPlayer, uuids[i]);
+                insertPlayer.setString(2, "Player" + i);
+                insertPlayer.addBatch();
+                for (String afflictionId : new String[]{"vampirism", "lycanthropy", "curse"}) {
+                    bindKey(insertAffliction, uuids[i]);
+                    insertAffliction.setString(2, afflictionId);
+                    insertAffliction.addBatch();
+                }
+            }
+            insertPlayer.executeBatch();
+            insertAffliction.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        load = connection.prepareStatement(LOAD_PLAYER_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        load.close();
+        connection.close();
+        dbFile.delete();
+    }
+
+    @Benchmark
+    public void loadPlayer(Blackhole blackhole) throws SQLException {
+        next = (next + 1) % players;
+        bindKey(load, uuids[next]);
+        try (ResultSet rs = load.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString("affliction_id"));
+                blackhole.consume(rs.getInt("level"));
+                blackhole.consume(rs.getString("data"));
+            }
+        }
+    }
+
+    private void bindKey(PreparedStatement stmt, UUID uuid) throws SQLException {
+        if ("BLOB".equals(keyType)) {
+            stmt.setBytes(1, UuidBytes.toBytes(uuid));
+        } else {
+            stmt.setString(1, uuid.toString());
+        }
+    }
+}
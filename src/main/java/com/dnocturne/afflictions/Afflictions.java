@@ -8,8 +8,11 @@ import com.dnocturne.afflictions.command.CommandManager;
 import com.dnocturne.afflictions.hook.HookManager;
 import com.dnocturne.afflictions.listener.BloodGainListener;
 import com.dnocturne.afflictions.listener.PlayerListener;
+import com.dnocturne.afflictions.listener.SkyExposureListener;
 import com.dnocturne.afflictions.listener.TimeListener;
 import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.afflictions.storage.AutoSaveTask;
+import com.dnocturne.afflictions.storage.journal.JournalTask;
 import com.dnocturne.afflictions.storage.StorageManager;
 import com.dnocturne.basalt.BasaltPlugin;
 import org.jetbrains.annotations.NotNull;
@@ -33,6 +36,8 @@ public class Afflictions extends BasaltPlugin {
     private @Nullable HookManager hookManager;
     private @Nullable CommandManager commandManager;
     private @Nullable TimeListener timeListener;
+    private @Nullable AutoSaveTask autoSaveTask;
+    private @Nullable JournalTask journalTask;
 
     // Affliction configs
     private final List<AbstractAfflictionConfig> afflictionConfigs = new ArrayList<>();
@@ -78,16 +83,56 @@ public class Afflictions extends BasaltPlugin {
         }
         afflictionManager.setTickRate(tickRate);
 
+        String tickMode = getConfigManager().getMainConfig().getString("general.tick-mode", "burst");
+        afflictionManager.setTickMode(AfflictionManager.TickMode.fromString(tickMode).orElseGet(() -> {
+            getLogger().warning("Invalid tick-mode '" + tickMode + "' in config, using burst");
+            return AfflictionManager.TickMode.BURST;
+        }));
+
+        long tickBudget = getConfigManager().getMainConfig().getLong("general.tick-budget-us", 0L);
+        if (tickBudget < 0) {
+            getLogger().warning("Invalid tick-budget-us " + tickBudget + " in config, disabling budget");
+            tickBudget = 0L;
+        }
+        afflictionManager.setTickBudget(tickBudget);
+
         // Start affliction tick loop
         afflictionManager.start();
 
         // Start time listener
         timeListener = new TimeListener(this);
-        timeListener.start();
+        try {
+            timeListener.start();
+        } catch (UnsupportedOperationException e) {
+            // Folia rejects the global Bukkit scheduler used by the transition checks
+            getLogger().warning("Day/night transition messages are not supported on this server: " + e.getMessage());
+            timeListener = null;
+        }
 
         // Register player listener
         new PlayerListener(this).register();
 
+        // Periodically save players with unsaved changes
+        long autoSaveInterval = getConfigManager().getMainConfig().getLong("storage.auto-save-interval", 300L);
+        if (autoSaveInterval < 0) {
+            getLogger().warning("Invalid auto-save-interval " + autoSaveInterval + " in config, disabling auto-save");
+            autoSaveInterval = 0L;
+        }
+        int autoSavePerTick = getConfigManager().getMainConfig().getInt("storage.auto-save-players-per-tick", 25);
+        autoSaveTask = new AutoSaveTask(this, afflictionManager, storageManager);
+        autoSaveTask.start(autoSaveInterval, autoSavePerTick);
+
+        // Record changes between saves in the journal, if enabled
+        if (storageManager.getJournal() != null) {
+            long commitIntervalMs = getConfigManager().getMainConfig()
+                    .getLong("storage.journal.commit-interval-ms", 500L);
+            journalTask = new JournalTask(this, afflictionManager, storageManager.getJournal());
+            journalTask.start(Math.max(1L, commitIntervalMs / 50L));
+        }
+
+        // Invalidate cached sky access when blocks change
+        new SkyExposureListener(this, afflictionManager.getSkyExposureCache()).register();
+
         // Register blood gain listener for vampires
         new BloodGainListener(this).register();
 
@@ -118,7 +163,18 @@ public class Afflictions extends BasaltPlugin {
             timeListener.stop();
         }
 
-        // Shutdown storage
+        // Stop journaling; the final saves below are journaled as snapshots
+        if (journalTask != null) {
+            journalTask.stop();
+        }
+
+        // Queue unsaved changes of players still online, then stop auto-saving
+        if (autoSaveTask != null) {
+            autoSaveTask.stop();
+            autoSaveTask.saveAllNow();
+        }
+
+        // Shutdown storage (drains queued saves first)
         if (storageManager != null) {
             storageManager.shutdown();
         }
@@ -181,7 +237,7 @@ public class Afflictions extends BasaltPlugin {
         for (AbstractAfflictionConfig config : afflictionConfigs) {
             config.load();
             if (config.isEnabled()) {
-                afflictionManager.getRegistry().register(config.createAffliction());
+                afflictionManager.registerAffliction(config.createAffliction());
                 displayConfigs.put(config.getId(), config);
                 registered++;
             } else {
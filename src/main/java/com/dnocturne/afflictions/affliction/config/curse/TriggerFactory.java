@@ -1,5 +1,6 @@
 package com.dnocturne.afflictions.affliction.config.curse;
 
+import com.dnocturne.afflictions.environment.EnvironmentConditions;
 import com.dnocturne.basalt.condition.Condition;
 import com.dnocturne.basalt.condition.PlayerConditions;
 import org.bukkit.entity.Player;
@@ -7,6 +8,9 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * Factory for creating conditions from trigger configurations.
+ *
+ * <p>Time, moon and weather triggers read the shared per-world environment snapshot,
+ * and sky and sunlight triggers use the cached sky access per block column.</p>
  */
 public final class TriggerFactory {
 
@@ -37,27 +41,27 @@ public final class TriggerFactory {
             case "never" -> Condition.never();
 
             // Time-based
-            case "day" -> PlayerConditions.isDay();
-            case "night" -> PlayerConditions.isNight();
+            case "day" -> EnvironmentConditions.isDay();
+            case "night" -> EnvironmentConditions.isNight();
 
             // Moon phase-based
-            case "full_moon" -> PlayerConditions.isFullMoon();
-            case "new_moon" -> PlayerConditions.isNewMoon();
-            case "bright_moon" -> PlayerConditions.isBrightMoon();
-            case "dark_moon" -> PlayerConditions.isDarkMoon();
-            case "full_moon_night" -> PlayerConditions.isFullMoonNight();
-            case "bright_moon_night" -> PlayerConditions.isBrightMoonNight();
+            case "full_moon" -> EnvironmentConditions.isFullMoon();
+            case "new_moon" -> EnvironmentConditions.isNewMoon();
+            case "bright_moon" -> EnvironmentConditions.isBrightMoon();
+            case "dark_moon" -> EnvironmentConditions.isDarkMoon();
+            case "full_moon_night" -> EnvironmentConditions.isFullMoonNight();
+            case "bright_moon_night" -> EnvironmentConditions.isBrightMoonNight();
 
             // Sunlight/Cover
-            case "sunlight" -> PlayerConditions.isExposedToSunlight();
-            case "underground", "under_cover" -> PlayerConditions.isUnderCover();
-            case "sky_access" -> PlayerConditions.hasSkyAccess();
-            case "protected_from_sun" -> PlayerConditions.isProtectedFromSunlight();
+            case "sunlight" -> EnvironmentConditions.isExposedToSunlight();
+            case "underground", "under_cover" -> EnvironmentConditions.isUnderCover();
+            case "sky_access" -> EnvironmentConditions.hasSkyAccess();
+            case "protected_from_sun" -> EnvironmentConditions.isProtectedFromSunlight();
 
             // Weather
-            case "rain", "storm" -> PlayerConditions.hasStorm();
-            case "thunder", "thunderstorm" -> PlayerConditions.isThundering();
-            case "clear", "clear_weather" -> PlayerConditions.isClearWeather();
+            case "rain", "storm" -> EnvironmentConditions.hasStorm();
+            case "thunder", "thunderstorm" -> EnvironmentConditions.isThundering();
+            case "clear", "clear_weather" -> EnvironmentConditions.isClearWeather();
 
             // Dimension
             case "overworld" -> PlayerConditions.isInOverworld();
@@ -22,6 +22,7 @@ public abstract class AbstractAffliction implements Affliction {
     private final int maxLevel;
     private final boolean curable;
     private final List<Component<Player, AfflictionInstance>> components;
+    private final List<Component<Player, AfflictionInstance>> componentsView;
 
     protected AbstractAffliction(Builder builder) {
         this.id = builder.id;
@@ -31,6 +32,7 @@ public abstract class AbstractAffliction implements Affliction {
         this.maxLevel = builder.maxLevel;
         this.curable = builder.curable;
         this.components = new ArrayList<>(builder.components);
+        this.componentsView = Collections.unmodifiableList(components);
     }
 
     @Override
@@ -65,7 +67,7 @@ public abstract class AbstractAffliction implements Affliction {
 
     @Override
     public @NotNull Collection<Component<Player, AfflictionInstance>> getComponents() {
-        return Collections.unmodifiableList(components);
+        return componentsView;
     }
 
     @Override
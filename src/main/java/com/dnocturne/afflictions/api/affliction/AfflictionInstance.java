@@ -1,12 +1,11 @@
 package com.dnocturne.afflictions.api.affliction;
 
-import org.bukkit.Bukkit;
+import com.dnocturne.afflictions.player.OnlinePlayerIndex;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,7 +22,8 @@ public class AfflictionInstance {
 
     private int level;
     private long duration; // -1 for permanent
-    private final Map<String, Object> data;
+    private final InstanceState state;
+    private long modCount;
 
     public AfflictionInstance(@NotNull UUID playerUuid, @NotNull Affliction affliction) {
         this(playerUuid, affliction, 1, -1);
@@ -39,7 +39,7 @@ public class AfflictionInstance {
         this.level = level;
         this.duration = duration;
         this.contractedAt = contractedAt;
-        this.data = new HashMap<>();
+        this.state = new InstanceState();
     }
 
     public @NotNull UUID getPlayerUuid() {
@@ -47,7 +47,7 @@ public class AfflictionInstance {
     }
 
     public @NotNull Optional<Player> getPlayer() {
-        return Optional.ofNullable(Bukkit.getPlayer(playerUuid));
+        return Optional.ofNullable(OnlinePlayerIndex.lookup(playerUuid));
     }
 
     public @NotNull Affliction getAffliction() {
@@ -63,7 +63,11 @@ public class AfflictionInstance {
     }
 
     public void setLevel(int level) {
-        this.level = Math.min(level, affliction.getMaxLevel());
+        int capped = Math.min(level, affliction.getMaxLevel());
+        if (capped != this.level) {
+            this.level = capped;
+            modCount++;
+        }
     }
 
     public void incrementLevel() {
@@ -75,7 +79,10 @@ public class AfflictionInstance {
     }
 
     public void setDuration(long duration) {
-        this.duration = duration;
+        if (duration != this.duration) {
+            this.duration = duration;
+            modCount++;
+        }
     }
 
     public boolean isPermanent() {
@@ -90,6 +97,57 @@ public class AfflictionInstance {
         return System.currentTimeMillis() - contractedAt;
     }
 
+    /**
+     * Get a version stamp that increases whenever the level, duration or any state
+     * value changes. Compare against a previously seen value to detect unsaved changes.
+     */
+    public long getVersion() {
+        return modCount + state.getModCount();
+    }
+
+    /**
+     * Get the component state for this instance.
+     */
+    public @NotNull InstanceState getState() {
+        return state;
+    }
+
+    // ===== Typed state =====
+
+    public boolean has(@NotNull StateKey key) {
+        return state.has(key);
+    }
+
+    public void clear(@NotNull StateKey key) {
+        state.clear(key);
+    }
+
+    public double getDouble(@NotNull StateKey key, double defaultValue) {
+        return state.getDouble(key, defaultValue);
+    }
+
+    public void setDouble(@NotNull StateKey key, double value) {
+        state.setDouble(key, value);
+    }
+
+    public long getLong(@NotNull StateKey key, long defaultValue) {
+        return state.getLong(key, defaultValue);
+    }
+
+    public void setLong(@NotNull StateKey key, long value) {
+        state.setLong(key, value);
+    }
+
+    public boolean getBoolean(@NotNull StateKey key) {
+        return state.getBoolean(key, false);
+    }
+
+    public void setBoolean(@NotNull StateKey key, boolean value) {
+        state.setBoolean(key, value);
+    }
+
+    // ===== String-keyed data (compatibility view over the state) =====
+
     /**
      * Get custom data stored with this instance.
      *
@@ -98,7 +156,7 @@ public class AfflictionInstance {
      * @return The value cast to the expected type, or null if not present or wrong type
      */
     public <T> @Nullable T getData(@NotNull String key, @NotNull Class<T> type) {
-        Object value = data.get(key);
+        Object value = state.get(key);
         if (value == null || !type.isInstance(value)) {
             return null;
         }
@@ -114,7 +172,7 @@ public class AfflictionInstance {
      * @return The value cast to the expected type, or defaultValue
      */
     public <T> T getData(@NotNull String key, @NotNull Class<T> type, T defaultValue) {
-        Object value = data.get(key);
+        Object value = state.get(key);
         if (value == null || !type.isInstance(value)) {
             return defaultValue;
         }
@@ -123,41 +181,42 @@ public class AfflictionInstance {
 
     /**
      * Get custom data stored with this instance as Object.
-     * Prefer {@link #getData(String, Class)} for type-safe access.
+     * Prefer the typed {@link StateKey} accessors for component state.
      *
      * @param key The data key
      * @return The raw value, or null if not present
      */
     public @Nullable Object getData(@NotNull String key) {
-        return data.get(key);
+        return state.get(key);
     }
 
     /**
      * Store custom data with this instance.
+     * Values for declared {@link StateKey}s are converted to the key's type.
      */
     public void setData(@NotNull String key, @Nullable Object value) {
-        data.put(key, value);
+        state.put(key, value);
     }
 
     public boolean hasData(@NotNull String key) {
-        return data.containsKey(key);
+        return state.contains(key);
     }
 
     public void removeData(@NotNull String key) {
-        data.remove(key);
+        state.remove(key);
     }
 
     public @NotNull Map<String, Object> getAllData() {
-        return Collections.unmodifiableMap(data);
+        return Collections.unmodifiableMap(state.asMap());
     }
 
     /**
      * Get the mutable data map for direct access.
      * This is used by components that need to read/write state.
      *
-     * @return The mutable data map
+     * @return A live, mutable view over the instance state
      */
     public @NotNull Map<String, Object> getDataMap() {
-        return data;
+        return state.asMap();
     }
 }
@@ -0,0 +1,457 @@
+package com.dnocturne.afflictions.api.affliction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-instance component state.
+ *
+ * <p>Values for declared {@link StateKey}s live in primitive {@code double[]} and
+ * {@code long[]} arrays and a boolean bitset, indexed by the key's slot. Any other
+ * key (custom data, wrapper state from Basalt components) falls back to a plain map.</p>
+ *
+ * <p>{@link #asMap()} exposes both as a single string-keyed map so the legacy
+ * {@code getData}/{@code setData} API, PlaceholderAPI and storage keep working.</p>
+ *
+ * <p>Like the rest of the instance, this is not thread-safe and is expected to be
+ * accessed from the thread that owns the player.</p>
+ */
+public final class InstanceState {
+
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    private double[] doubles = NO_DOUBLES;
+    private long[] longs = NO_LONGS;
+    private final BitSet booleans = new BitSet();
+
+    // Which slots currently hold a value, one bitset per key type
+    private final BitSet doublePresent = new BitSet();
+    private final BitSet longPresent = new BitSet();
+    private final BitSet booleanPresent = new BitSet();
+
+    // Values for keys that were never declared, created on first use
+    private @Nullable Map<String, Object> extras;
+
+    private @Nullable Map<String, Object> view;
+
+    // Incremented on every write that changes a value, used to detect unsaved changes
+    private long modCount;
+
+    // ===== Typed access =====
+
+    public boolean has(@NotNull StateKey key) {
+        return present(key.getType()).get(key.getSlot());
+    }
+
+    public void clear(@NotNull StateKey key) {
+        BitSet present = present(key.getType());
+        if (present.get(key.getSlot())) {
+            present.clear(key.getSlot());
+            modCount++;
+        }
+    }
+
+    public double getDouble(@NotNull StateKey key, double defaultValue) {
+        requireType(key, StateKey.Type.DOUBLE);
+        int slot = key.getSlot();
+        return doublePresent.get(slot) ? doubles[slot] : defaultValue;
+    }
+
+    public void setDouble(@NotNull StateKey key, double value) {
+        requireType(key, StateKey.Type.DOUBLE);
+        int slot = key.getSlot();
+        boolean removedExtra = removeExtra(key);
+        if (!removedExtra && doublePresent.get(slot) && Double.compare(doubles[slot], value) == 0) {
+            return;
+        }
+        if (slot >= doubles.length) {
+            doubles = Arrays.copyOf(doubles, slot + 1);
+        }
+        doubles[slot] = value;
+        doublePresent.set(slot);
+        modCount++;
+    }
+
+    public long getLong(@NotNull StateKey key, long defaultValue) {
+        requireType(key, StateKey.Type.LONG);
+        int slot = key.getSlot();
+        return longPresent.get(slot) ? longs[slot] : defaultValue;
+    }
+
+    public void setLong(@NotNull StateKey key, long value) {
+        requireType(key, StateKey.Type.LONG);
+        int slot = key.getSlot();
+        boolean removedExtra = removeExtra(key);
+        if (!removedExtra && longPresent.get(slot) && longs[slot] == value) {
+            return;
+        }
+        if (slot >= longs.length) {
+            longs = Arrays.copyOf(longs, slot + 1);
+        }
+        longs[slot] = value;
+        longPresent.set(slot);
+        modCount++;
+    }
+
+    public boolean getBoolean(@NotNull StateKey key, boolean defaultValue) {
+        requireType(key, StateKey.Type.BOOLEAN);
+        int slot = key.getSlot();
+        return booleanPresent.get(slot) ? booleans.get(slot) : defaultValue;
+    }
+
+    public void setBoolean(@NotNull StateKey key, boolean value) {
+        requireType(key, StateKey.Type.BOOLEAN);
+        int slot = key.getSlot();
+        boolean removedExtra = removeExtra(key);
+        if (!removedExtra && booleanPresent.get(slot) && booleans.get(slot) == value) {
+            return;
+        }
+        booleans.set(slot, value);
+        booleanPresent.set(slot);
+        modCount++;
+    }
+
+    // ===== String-keyed access =====
+
+    /**
+     * Get a value by name, boxing declared slots.
+     *
+     * @param name The key name
+     * @return The value, or null if not present
+     */
+    public @Nullable Object get(@NotNull String name) {
+        StateKey key = StateKey.lookup(name);
+        if (key != null && has(key)) {
+            return box(key);
+        }
+        return extras != null ? extras.get(name) : null;
+    }
+
+    /**
+     * Check whether a value is present by name.
+     */
+    public boolean contains(@NotNull String name) {
+        StateKey key = StateKey.lookup(name);
+        if (key != null && has(key)) {
+            return true;
+        }
+        return extras != null && extras.containsKey(name);
+    }
+
+    /**
+     * Store a value by name.
+     *
+     * <p>For declared keys the value is converted to the key's type, which also accepts
+     * the string form written by older storage. A null value clears the slot. Values
+     * that cannot be converted are kept as-is in the fallback map.</p>
+     *
+     * @param name  The key name
+     * @param value The value to store
+     * @return The previous value, or null
+     */
+    public @Nullable Object put(@NotNull String name, @Nullable Object value) {
+        Object previous = get(name);
+        StateKey key = StateKey.lookup(name);
+        if (key == null) {
+            if (!Objects.equals(previous, value) || !extras().containsKey(name)) {
+                extras().put(name, value);
+                modCount++;
+            }
+            return previous;
+        }
+
+        if (value == null) {
+            clear(key);
+            if (removeExtra(key)) {
+                modCount++;
+            }
+            return previous;
+        }
+
+        if (!store(key, value)) {
+            clear(key);
+            if (!Objects.equals(previous, value) || !extras().containsKey(name)) {
+                extras().put(name, value);
+                modCount++;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Remove a value by name.
+     *
+     * @return The previous value, or null
+     */
+    public @Nullable Object remove(@NotNull String name) {
+        Object previous = get(name);
+        StateKey key = StateKey.lookup(name);
+        if (key != null) {
+            clear(key);
+        }
+        if (extras != null && extras.containsKey(name)) {
+            extras.remove(name);
+            modCount++;
+        }
+        return previous;
+    }
+
+    /**
+     * Get a counter that changes whenever a value is added, changed or removed.
+     * Writing the value a key already holds leaves it unchanged.
+     */
+    public long getModCount() {
+        return modCount;
+    }
+
+    public int size() {
+        int size = doublePresent.cardinality() + longPresent.cardinality() + booleanPresent.cardinality();
+        return extras != null ? size + extras.size() : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove every value.
+     */
+    public void clearAll() {
+        if (isEmpty()) {
+            return;
+        }
+        doublePresent.clear();
+        longPresent.clear();
+        booleanPresent.clear();
+        booleans.clear();
+        if (extras != null) {
+            extras.clear();
+        }
+        modCount++;
+    }
+
+    /**
+     * Visit values that are not held in a typed slot: undeclared keys, and declared
+     * keys whose stored value could not be converted.
+     *
+     * @param action Receives each key and value
+     */
+    public void forEachExtra(@NotNull BiConsumer<String, Object> action) {
+        if (extras != null) {
+            extras.forEach(action);
+        }
+    }
+
+    /**
+     * Get a live, mutable map view over all state.
+     *
+     * <p>Reads and writes go through {@link #get(String)} and {@link #put(String, Object)}.
+     * Iteration boxes declared values and is intended for persistence and debugging,
+     * not per-tick access.</p>
+     */
+    public @NotNull Map<String, Object> asMap() {
+        if (view == null) {
+            view = new View();
+        }
+        return view;
+    }
+
+    // ===== Internals =====
+
+    private boolean store(StateKey key, Object value) {
+        switch (key.getType()) {
+            case DOUBLE -> {
+                if (value instanceof Number number) {
+                    setDouble(key, number.doubleValue());
+                    return true;
+                }
+                if (value instanceof String str) {
+                    try {
+                        setDouble(key, Double.parseDouble(str));
+                        return true;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+                return false;
+            }
+            case LONG -> {
+                if (value instanceof Number number) {
+                    setLong(key, number.longValue());
+                    return true;
+                }
+                if (value instanceof String str) {
+                    try {
+                        setLong(key, Long.parseLong(str));
+                        return true;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+                return false;
+            }
+            case BOOLEAN -> {
+                if (value instanceof Boolean bool) {
+                    setBoolean(key, bool);
+                    return true;
+                }
+                if (value instanceof String str) {
+                    if (str.equalsIgnoreCase("true") || str.equalsIgnoreCase("false")) {
+                        setBoolean(key, Boolean.parseBoolean(str));
+                        return true;
+                    }
+                }
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private Object box(StateKey key) {
+        int slot = key.getSlot();
+        return switch (key.getType()) {
+            case DOUBLE -> doubles[slot];
+            case LONG -> longs[slot];
+            case BOOLEAN -> booleans.get(slot);
+        };
+    }
+
+    private BitSet present(StateKey.Type type) {
+        return switch (type) {
+            case DOUBLE -> doublePresent;
+            case LONG -> longPresent;
+            case BOOLEAN -> booleanPresent;
+        };
+    }
+
+    private Map<String, Object> extras() {
+        if (extras == null) {
+            extras = new HashMap<>();
+        }
+        return extras;
+    }
+
+    /**
+     * Remove a leftover unconverted value for a declared key.
+     *
+     * @return true if there was one
+     */
+    private boolean removeExtra(StateKey key) {
+        if (extras != null && extras.containsKey(key.getName())) {
+            extras.remove(key.getName());
+            return true;
+        }
+        return false;
+    }
+
+    private static void requireType(StateKey key, StateKey.Type type) {
+        if (key.getType() != type) {
+            throw new IllegalArgumentException(key + " is not a " + type + " key");
+        }
+    }
+
+    /**
+     * Snapshot of all current entries, used by the map view's iterator.
+     */
+    private List<Map.Entry<String, Object>> entries() {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(size());
+        for (StateKey key : StateKey.declared()) {
+            if (has(key)) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(key.getName(), box(key)));
+            }
+        }
+        if (extras != null) {
+            for (Map.Entry<String, Object> entry : extras.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    private final class View extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String name ? InstanceState.this.get(name) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String name && InstanceState.this.contains(name);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return InstanceState.this.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return key instanceof String name ? InstanceState.this.remove(name) : null;
+        }
+
+        @Override
+        public int size() {
+            return InstanceState.this.size();
+        }
+
+        @Override
+        public void clear() {
+            clearAll();
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Object>> snapshot = entries().iterator();
+                    return new Iterator<>() {
+                        private @Nullable Entry<String, Object> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return snapshot.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            last = snapshot.next();
+                            return last;
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            InstanceState.this.remove(last.getKey());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return InstanceState.this.size();
+                }
+            };
+        }
+    }
+}
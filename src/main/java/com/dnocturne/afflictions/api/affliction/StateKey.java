@@ -0,0 +1,141 @@
+package com.dnocturne.afflictions.api.affliction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A declared, typed key for per-instance component state.
+ *
+ * <p>Components declare their keys once as constants. Each key is assigned a slot
+ * in a primitive array of its type, so typed reads and writes on an
+ * {@link AfflictionInstance} avoid boxing and string hashing.</p>
+ *
+ * <pre>{@code
+ * public static final StateKey BLOOD = StateKey.ofDouble("blood");
+ *
+ * double blood = instance.getDouble(BLOOD, 0.0);
+ * instance.setDouble(BLOOD, blood - drain);
+ * }</pre>
+ *
+ * <p>Key names share the namespace of {@link AfflictionInstance#getData(String)},
+ * so a declared key stays readable through the string-keyed data API.</p>
+ */
+public final class StateKey {
+
+    /**
+     * The value type backing a state key.
+     */
+    public enum Type {
+        DOUBLE,
+        LONG,
+        BOOLEAN
+    }
+
+    private static final Map<String, StateKey> KEYS = new ConcurrentHashMap<>();
+    private static final List<StateKey> DECLARED = new CopyOnWriteArrayList<>();
+    private static final int[] SLOT_COUNTS = new int[Type.values().length];
+
+    private final String name;
+    private final Type type;
+    private final int slot;
+
+    private StateKey(@NotNull String name, @NotNull Type type, int slot) {
+        this.name = name;
+        this.type = type;
+        this.slot = slot;
+    }
+
+    /**
+     * Declare (or fetch) a key backed by a double slot.
+     *
+     * @param name The key name
+     * @return The declared key
+     * @throws IllegalArgumentException if the name is already declared with another type
+     */
+    public static @NotNull StateKey ofDouble(@NotNull String name) {
+        return declare(name, Type.DOUBLE);
+    }
+
+    /**
+     * Declare (or fetch) a key backed by a long slot.
+     *
+     * @param name The key name
+     * @return The declared key
+     * @throws IllegalArgumentException if the name is already declared with another type
+     */
+    public static @NotNull StateKey ofLong(@NotNull String name) {
+        return declare(name, Type.LONG);
+    }
+
+    /**
+     * Declare (or fetch) a key backed by a boolean bit.
+     *
+     * @param name The key name
+     * @return The declared key
+     * @throws IllegalArgumentException if the name is already declared with another type
+     */
+    public static @NotNull StateKey ofBoolean(@NotNull String name) {
+        return declare(name, Type.BOOLEAN);
+    }
+
+    /**
+     * Look up a declared key by name.
+     *
+     * @param name The key name
+     * @return The key, or null if no component has declared it
+     */
+    public static @Nullable StateKey lookup(@NotNull String name) {
+        return KEYS.get(name);
+    }
+
+    /**
+     * Get all declared keys in declaration order.
+     *
+     * @return An unmodifiable list of keys
+     */
+    public static @NotNull List<StateKey> declared() {
+        return Collections.unmodifiableList(DECLARED);
+    }
+
+    private static synchronized StateKey declare(String name, Type type) {
+        StateKey existing = KEYS.get(name);
+        if (existing != null) {
+            if (existing.type != type) {
+                throw new IllegalArgumentException("State key '" + name + "' is already declared as "
+                        + existing.type + ", cannot redeclare as " + type);
+            }
+            return existing;
+        }
+
+        StateKey key = new StateKey(name, type, SLOT_COUNTS[type.ordinal()]++);
+        DECLARED.add(key);
+        KEYS.put(name, key);
+        return key;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    public @NotNull Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the index of this key within the arrays of its type.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "StateKey{" + name + ":" + type + "}";
+    }
+}
@@ -6,6 +6,8 @@ import com.dnocturne.afflictions.command.subcommand.admin.ClearCommand;
 import com.dnocturne.afflictions.command.subcommand.admin.GiveCommand;
 import com.dnocturne.afflictions.command.subcommand.admin.ReloadCommand;
 import com.dnocturne.afflictions.command.subcommand.admin.RemoveCommand;
+import com.dnocturne.afflictions.command.subcommand.admin.StatsCommand;
+import com.dnocturne.afflictions.command.subcommand.admin.StorageCommand;
 import com.dnocturne.afflictions.command.subcommand.player.InfoCommand;
 import com.dnocturne.afflictions.command.subcommand.player.ListCommand;
 import com.dnocturne.basalt.command.SubCommandRegistry;
@@ -30,7 +32,9 @@ public class AfflictionsCommand {
                 .register(RemoveCommand::new)
                 .register(ClearCommand::new)
                 .register(ReloadCommand::new)
-                .register(BloodCommand::new);
+                .register(BloodCommand::new)
+                .register(StatsCommand::new)
+                .register(StorageCommand::new);
     }
 
     /**
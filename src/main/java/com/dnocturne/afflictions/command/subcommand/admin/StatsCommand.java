@@ -0,0 +1,127 @@
+package com.dnocturne.afflictions.command.subcommand.admin;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.environment.SkyExposureCache;
+import com.dnocturne.afflictions.locale.MessageKey;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.afflictions.manager.tick.TickStats;
+import com.dnocturne.afflictions.storage.RecentlyQuitCache;
+import com.dnocturne.afflictions.storage.StorageManager;
+import com.dnocturne.afflictions.storage.WriteBehindQueue;
+import com.dnocturne.basalt.command.SubCommand;
+import com.dnocturne.basalt.locale.LocalizationManager;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.command.CommandSender;
+import org.incendo.cloud.paper.PaperCommandManager;
+
+/**
+ * /afflictions stats [reset] - Show or reset runtime performance statistics.
+ */
+public class StatsCommand implements SubCommand {
+
+    private final Afflictions plugin;
+
+    public StatsCommand(Afflictions plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void register(PaperCommandManager<CommandSourceStack> manager) {
+        manager.command(
+                manager.commandBuilder("afflictions", "aff", "afflict")
+                        .literal("stats")
+                        .permission("afflictions.admin.stats")
+                        .handler(ctx -> {
+                            CommandSender sender = ctx.sender().getSender();
+                            showStats(sender);
+                        })
+        );
+
+        manager.command(
+                manager.commandBuilder("afflictions", "aff", "afflict")
+                        .literal("stats")
+                        .literal("reset")
+                        .permission("afflictions.admin.stats")
+                        .handler(ctx -> {
+                            CommandSender sender = ctx.sender().getSender();
+                            resetStats(sender);
+                        })
+        );
+    }
+
+    private void showStats(CommandSender sender) {
+        LocalizationManager lang = plugin.getLocalizationManager();
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager == null) {
+            return;
+        }
+
+        TickStats tickStats = afflictionManager.getTickStats();
+        lang.send(sender, MessageKey.ADMIN_STATS_HEADER);
+        lang.send(sender, MessageKey.ADMIN_STATS_TICK,
+                LocalizationManager.placeholder("passes", String.valueOf(tickStats.getPasses())),
+                LocalizationManager.placeholder("last_ms", formatMillis(tickStats.getLastPassNanos())),
+                LocalizationManager.placeholder("max_ms", formatMillis(tickStats.getMaxPassNanos())));
+        lang.send(sender, MessageKey.ADMIN_STATS_BUDGET,
+                LocalizationManager.placeholder("budget", afflictionManager.getTickBudget() > 0
+                        ? String.valueOf(afflictionManager.getTickBudget()) : "∞"),
+                LocalizationManager.placeholder("overruns", String.valueOf(tickStats.getOverruns())),
+                LocalizationManager.placeholder("deferred", String.valueOf(tickStats.getDeferred())),
+                LocalizationManager.placeholder("queued", String.valueOf(tickStats.getQueued())),
+                LocalizationManager.placeholder("max_delay", String.valueOf(tickStats.getMaxDeferralTicks())));
+
+        SkyExposureCache skyCache = afflictionManager.getSkyExposureCache();
+        lang.send(sender, MessageKey.ADMIN_STATS_SKY_CACHE,
+                LocalizationManager.placeholder("hit_rate", String.format("%.1f", skyCache.getHitRate() * 100)),
+                LocalizationManager.placeholder("hits", String.valueOf(skyCache.getHits())),
+                LocalizationManager.placeholder("lookups", String.valueOf(skyCache.getHits() + skyCache.getMisses())),
+                LocalizationManager.placeholder("invalidations", String.valueOf(skyCache.getInvalidations())),
+                LocalizationManager.placeholder("size", String.valueOf(skyCache.size())));
+
+        StorageManager storageManager = plugin.getStorageManager();
+        WriteBehindQueue writeQueue = storageManager != null ? storageManager.getWriteQueue() : null;
+        if (writeQueue != null) {
+            lang.send(sender, MessageKey.ADMIN_STATS_STORAGE,
+                    LocalizationManager.placeholder("queued", String.valueOf(writeQueue.getQueueDepth())),
+                    LocalizationManager.placeholder("written", String.valueOf(writeQueue.getWritten())),
+                    LocalizationManager.placeholder("batches", String.valueOf(writeQueue.getBatches())),
+                    LocalizationManager.placeholder("coalesced", String.valueOf(writeQueue.getCoalesced())),
+                    LocalizationManager.placeholder("failures", String.valueOf(writeQueue.getFailures())),
+                    LocalizationManager.placeholder("last_ms", formatMillis(writeQueue.getLastFlushNanos())),
+                    LocalizationManager.placeholder("max_ms", formatMillis(writeQueue.getMaxFlushNanos())));
+        }
+
+        if (storageManager != null) {
+            RecentlyQuitCache recentlyQuit = storageManager.getRecentlyQuitCache();
+            lang.send(sender, MessageKey.ADMIN_STATS_REJOIN_CACHE,
+                    LocalizationManager.placeholder("hit_rate", String.format("%.1f", recentlyQuit.getHitRate() * 100)),
+                    LocalizationManager.placeholder("hits", String.valueOf(recentlyQuit.getHits())),
+                    LocalizationManager.placeholder("lookups",
+                            String.valueOf(recentlyQuit.getHits() + recentlyQuit.getMisses())),
+                    LocalizationManager.placeholder("size", String.valueOf(recentlyQuit.size())));
+        }
+    }
+
+    private void resetStats(CommandSender sender) {
+        LocalizationManager lang = plugin.getLocalizationManager();
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager == null) {
+            return;
+        }
+
+        afflictionManager.getTickStats().reset();
+        afflictionManager.getSkyExposureCache().resetStats();
+        StorageManager storageManager = plugin.getStorageManager();
+        if (storageManager != null) {
+            if (storageManager.getWriteQueue() != null) {
+                storageManager.getWriteQueue().resetStats();
+            }
+            storageManager.getRecentlyQuitCache().resetStats();
+        }
+        lang.send(sender, MessageKey.ADMIN_STATS_RESET);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.dnocturne.afflictions.command.subcommand.admin;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.locale.MessageKey;
+import com.dnocturne.afflictions.storage.StorageManager;
+import com.dnocturne.basalt.command.SubCommand;
+import com.dnocturne.basalt.locale.LocalizationManager;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.command.CommandSender;
+import org.incendo.cloud.paper.PaperCommandManager;
+import org.incendo.cloud.suggestion.Suggestion;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.incendo.cloud.parser.standard.StringParser.stringParser;
+
+/**
+ * /afflictions storage migrate <from> <to> - Copy all player data between storage backends.
+ */
+public class StorageCommand implements SubCommand {
+
+    /**
+     * Minimum time between progress messages, so large migrations do not flood chat.
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final Afflictions plugin;
+
+    public StorageCommand(Afflictions plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void register(PaperCommandManager<CommandSourceStack> manager) {
+        manager.command(
+                manager.commandBuilder("afflictions", "aff", "afflict")
+                        .literal("storage")
+                        .literal("migrate")
+                        .required("from", stringParser(), (ctx, input) -> suggestTypes())
+                        .required("to", stringParser(), (ctx, input) -> suggestTypes())
+                        .permission("afflictions.admin.storage")
+                        .handler(ctx -> {
+                            CommandSender sender = ctx.sender().getSender();
+                            String from = ctx.get("from");
+                            String to = ctx.get("to");
+
+                            migrate(sender, from, to);
+                        })
+        );
+    }
+
+    private static CompletableFuture<Iterable<Suggestion>> suggestTypes() {
+        return CompletableFuture.completedFuture(
+                StorageManager.STORAGE_TYPES.stream()
+                        .map(Suggestion::suggestion)
+                        .toList()
+        );
+    }
+
+    private void migrate(CommandSender sender, String from, String to) {
+        LocalizationManager lang = plugin.getLocalizationManager();
+        StorageManager storageManager = plugin.getStorageManager();
+        if (storageManager == null) {
+            return;
+        }
+
+        String source = StorageManager.normalizeType(from);
+        String target = StorageManager.normalizeType(to);
+        if (source == null || target == null || source.equals(target)) {
+            lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_INVALID,
+                    LocalizationManager.placeholder("from", from),
+                    LocalizationManager.placeholder("to", to),
+                    LocalizationManager.placeholder("types", String.join(", ", StorageManager.STORAGE_TYPES)));
+            return;
+        }
+        if (storageManager.isMigrating()) {
+            lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_RUNNING);
+            return;
+        }
+        if (!storageManager.canMigrateInto(target)) {
+            lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_PLAYERS_ONLINE,
+                    LocalizationManager.placeholder("to", target));
+            return;
+        }
+
+        lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_STARTED,
+                LocalizationManager.placeholder("from", source),
+                LocalizationManager.placeholder("to", target));
+
+        AtomicLong lastProgress = new AtomicLong(System.nanoTime());
+        storageManager.migrate(source, target, migrated -> {
+                    long now = System.nanoTime();
+                    if (now - lastProgress.get() >= PROGRESS_INTERVAL_NANOS) {
+                        lastProgress.set(now);
+                        lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_PROGRESS,
+                                LocalizationManager.placeholder("migrated", String.valueOf(migrated)));
+                    }
+                })
+                .thenAccept(result -> lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_COMPLETE,
+                        LocalizationManager.placeholder("migrated", String.valueOf(result.migrated())),
+                        LocalizationManager.placeholder("from", source),
+                        LocalizationManager.placeholder("to", target),
+                        LocalizationManager.placeholder("seconds",
+                                String.format("%.1f", result.elapsedMillis() / 1000.0))))
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof IllegalStateException && storageManager.isMigrating()) {
+                        lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_RUNNING);
+                    } else {
+                        lang.send(sender, MessageKey.ADMIN_STORAGE_MIGRATE_FAILED,
+                                LocalizationManager.placeholder("error", String.valueOf(cause.getMessage())));
+                    }
+                    return null;
+                });
+    }
+}
@@ -2,6 +2,7 @@ package com.dnocturne.afflictions.component.effect;
 
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
 import com.dnocturne.basalt.component.Tickable;
 import com.dnocturne.basalt.ui.ActionBarDisplay;
 import org.bukkit.entity.Player;
@@ -22,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 public class BloodComponent implements Tickable<Player, AfflictionInstance> {
 
     public static final String BLOOD_KEY = "blood";
+    public static final StateKey BLOOD = StateKey.ofDouble(BLOOD_KEY);
 
     private final String id;
     private final double maxBlood;
@@ -103,8 +105,8 @@ public class BloodComponent implements Tickable<Player, AfflictionInstance> {
     @Override
     public void onApply(@NotNull Player player, @NotNull AfflictionInstance instance) {
         // Initialize blood if not already set (preserves existing blood on reload)
-        if (!instance.hasData(BLOOD_KEY)) {
-            instance.setData(BLOOD_KEY, startBlood);
+        if (!instance.has(BLOOD)) {
+            instance.setDouble(BLOOD, startBlood);
         }
 
         // Reset the action bar display state
@@ -133,21 +135,7 @@ public class BloodComponent implements Tickable<Player, AfflictionInstance> {
      * @return Current blood level, or 0 if not set
      */
     public static double getBlood(@NotNull AfflictionInstance instance) {
-        Object blood = instance.getData(BLOOD_KEY);
-        if (blood == null) {
-            return 0.0;
-        }
-        if (blood instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (blood instanceof String str) {
-            try {
-                return Double.parseDouble(str);
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
-        }
-        return 0.0;
+        return instance.getDouble(BLOOD, 0.0);
     }
 
     /**
@@ -158,7 +146,7 @@ public class BloodComponent implements Tickable<Player, AfflictionInstance> {
      * @param maxBlood The maximum blood capacity
      */
     public static void setBlood(@NotNull AfflictionInstance instance, double amount, double maxBlood) {
-        instance.setData(BLOOD_KEY, Math.max(0, Math.min(amount, maxBlood)));
+        instance.setDouble(BLOOD, Math.max(0, Math.min(amount, maxBlood)));
     }
 
     /**
@@ -172,7 +160,7 @@ public class BloodComponent implements Tickable<Player, AfflictionInstance> {
     public static double addBlood(@NotNull AfflictionInstance instance, double amount, double maxBlood) {
         double current = getBlood(instance);
         double newAmount = Math.min(current + amount, maxBlood);
-        instance.setData(BLOOD_KEY, newAmount);
+        instance.setDouble(BLOOD, newAmount);
         return newAmount - current;
     }
 
@@ -186,7 +174,7 @@ public class BloodComponent implements Tickable<Player, AfflictionInstance> {
     public static double drainBlood(@NotNull AfflictionInstance instance, double amount) {
         double current = getBlood(instance);
         double newAmount = Math.max(0, current - amount);
-        instance.setData(BLOOD_KEY, newAmount);
+        instance.setDouble(BLOOD, newAmount);
         return current - newAmount;
     }
 
@@ -2,6 +2,7 @@ package com.dnocturne.afflictions.component.effect;
 
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
 import com.dnocturne.afflictions.locale.MessageKey;
 import com.dnocturne.basalt.component.Tickable;
 import org.bukkit.entity.Player;
@@ -21,6 +22,11 @@ import org.jetbrains.annotations.NotNull;
  */
 public class BloodHungerComponent implements Tickable<Player, AfflictionInstance> {
 
+    /**
+     * Whether hunger debuffs are currently applied.
+     */
+    public static final StateKey HUNGER_ACTIVE = StateKey.ofBoolean("blood_hunger_active");
+
     // Effect duration buffer in ticks (added to tick interval to prevent flickering)
     private static final int EFFECT_DURATION_BUFFER = 10;
 
@@ -88,12 +94,12 @@ public class BloodHungerComponent implements Tickable<Player, AfflictionInstance
         double bloodPercent = (maxBlood > 0) ? (currentBlood / maxBlood) * 100.0 : 0;
 
         boolean isHungry = bloodPercent <= threshold;
-        boolean wasHungry = Boolean.TRUE.equals(instance.getData("blood_hunger_active"));
+        boolean wasHungry = instance.getBoolean(HUNGER_ACTIVE);
 
         if (isHungry && !wasHungry) {
             // Just started starving - send message
             applyHungerEffects(player, bloodPercent);
-            instance.setData("blood_hunger_active", true);
+            instance.setBoolean(HUNGER_ACTIVE, true);
             sendHungerMessage(player, MessageKey.VAMPIRISM_HUNGER_START);
         } else if (isHungry) {
             // Still hungry - just refresh effects
@@ -101,7 +107,7 @@ public class BloodHungerComponent implements Tickable<Player, AfflictionInstance
         } else if (wasHungry) {
             // Blood recovered above threshold - remove debuffs and notify
             removeHungerEffects(player);
-            instance.setData("blood_hunger_active", false);
+            instance.setBoolean(HUNGER_ACTIVE, false);
             sendHungerMessage(player, MessageKey.VAMPIRISM_HUNGER_END);
         }
     }
@@ -2,10 +2,11 @@ package com.dnocturne.afflictions.component.effect;
 
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
+import com.dnocturne.afflictions.environment.EnvironmentConditions;
 import com.dnocturne.afflictions.locale.MessageKey;
 import com.dnocturne.basalt.component.Tickable;
 import com.dnocturne.basalt.condition.Condition;
-import com.dnocturne.basalt.condition.PlayerConditions;
 import org.bukkit.entity.Player;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
@@ -21,7 +22,10 @@ import org.jetbrains.annotations.NotNull;
  */
 public class NightBonusComponent implements Tickable<Player, AfflictionInstance> {
 
-    private static final Condition<Player> NIGHT_CONDITION = PlayerConditions.isNight();
+    private static final Condition<Player> NIGHT_CONDITION = EnvironmentConditions.isNight();
+
+    private static final StateKey BONUSES_ACTIVE = StateKey.ofBoolean("night_bonuses_active");
+    private static final StateKey NIGHT_TIME = StateKey.ofBoolean("is_night_time");
 
     // Effect duration buffer in ticks (added to tick interval to prevent flickering)
     private static final int EFFECT_DURATION_BUFFER = 10;
@@ -88,11 +92,11 @@ public class NightBonusComponent implements Tickable<Player, AfflictionInstance>
     @Override
     public void onTick(@NotNull Player player, @NotNull AfflictionInstance instance) {
         boolean isNight = NIGHT_CONDITION.test(player);
-        boolean wasNight = Boolean.TRUE.equals(instance.getData("night_bonuses_active"));
-        boolean isHungry = Boolean.TRUE.equals(instance.getData("blood_hunger_active"));
+        boolean wasNight = instance.getBoolean(BONUSES_ACTIVE);
+        boolean isHungry = instance.getBoolean(BloodHungerComponent.HUNGER_ACTIVE);
 
         // Track if it's night (separate from bonuses active, since hunger can suppress bonuses)
-        boolean wasNightTime = Boolean.TRUE.equals(instance.getData("is_night_time"));
+        boolean wasNightTime = instance.getBoolean(NIGHT_TIME);
 
         // Don't apply night bonuses if blood hunger debuffs are active
         // Blood starvation overrides the benefits of nighttime
@@ -102,22 +106,22 @@ public class NightBonusComponent implements Tickable<Player, AfflictionInstance>
                 sendMessage(player, MessageKey.VAMPIRISM_NIGHT_FALLS);
             }
             applyNightBonuses(player, instance);
-            instance.setData("night_bonuses_active", true);
+            instance.setBoolean(BONUSES_ACTIVE, true);
         } else if (wasNight) {
             // Day arrived OR hunger kicked in - remove effects
             removeNightBonuses(player);
-            instance.setData("night_bonuses_active", false);
+            instance.setBoolean(BONUSES_ACTIVE, false);
         }
 
         // Track day/night transitions for messages (independent of hunger state)
         if (isNight && !wasNightTime) {
-            instance.setData("is_night_time", true);
+            instance.setBoolean(NIGHT_TIME, true);
             // Message already sent above if not hungry, send if hungry too
             if (isHungry) {
                 sendMessage(player, MessageKey.VAMPIRISM_NIGHT_FALLS);
             }
         } else if (!isNight && wasNightTime) {
-            instance.setData("is_night_time", false);
+            instance.setBoolean(NIGHT_TIME, false);
             sendMessage(player, MessageKey.VAMPIRISM_DAWN_APPROACHES);
         }
     }
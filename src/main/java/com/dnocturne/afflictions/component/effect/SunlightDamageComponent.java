@@ -2,6 +2,8 @@ package com.dnocturne.afflictions.component.effect;
 
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
+import com.dnocturne.afflictions.environment.EnvironmentConditions;
 import com.dnocturne.afflictions.locale.MessageKey;
 import com.dnocturne.basalt.component.Tickable;
 import com.dnocturne.basalt.condition.Condition;
@@ -29,6 +31,10 @@ public class SunlightDamageComponent implements Tickable<Player, AfflictionInsta
      */
     private static final Condition<Player> HELMET_CONDITION = PlayerConditions.hasHelmet();
 
+    private static final StateKey BURNING = StateKey.ofBoolean("burning");
+    private static final StateKey SUN_EXPOSURE_START = StateKey.ofLong("sun_exposure_start");
+    private static final StateKey HAS_HELMET = StateKey.ofBoolean("has_helmet");
+
     private final String id;
     private final double baseDamage;
     private final int tickInterval;
@@ -132,9 +138,9 @@ public class SunlightDamageComponent implements Tickable<Player, AfflictionInsta
         this.graceParticleCount = graceParticleCount;
 
         // Build the exposure condition (daytime + sky access + optionally clear weather)
-        Condition<Player> condition = PlayerConditions.isDay().and(PlayerConditions.hasSkyAccess());
+        Condition<Player> condition = EnvironmentConditions.isDay().and(EnvironmentConditions.hasSkyAccess());
         if (checkWeather) {
-            condition = condition.and(PlayerConditions.isClearWeather());
+            condition = condition.and(EnvironmentConditions.isClearWeather());
         }
         this.exposureCondition = condition;
     }
@@ -178,23 +184,25 @@ public class SunlightDamageComponent implements Tickable<Player, AfflictionInsta
 
     @Override
     public void onTick(@NotNull Player player, @NotNull AfflictionInstance instance) {
-        boolean wasBurning = Boolean.TRUE.equals(instance.getData("burning"));
+        boolean wasBurning = instance.getBoolean(BURNING);
 
         if (!exposureCondition.test(player)) {
             // Left sunlight - reset exposure tracking
-            instance.setData("burning", false);
-            instance.setData("sun_exposure_start", null);
+            instance.setBoolean(BURNING, false);
+            instance.clear(SUN_EXPOSURE_START);
             return;
         }
 
         // Handle grace period
         if (gracePeriodEnabled) {
             long now = System.currentTimeMillis();
-            Long exposureStart = (Long) instance.getData("sun_exposure_start");
+            long exposureStart;
 
-            if (exposureStart == null) {
+            if (instance.has(SUN_EXPOSURE_START)) {
+                exposureStart = instance.getLong(SUN_EXPOSURE_START, now);
+            } else {
                 // Just entered sunlight - start grace period
-                instance.setData("sun_exposure_start", now);
+                instance.setLong(SUN_EXPOSURE_START, now);
                 sendMessage(player, MessageKey.VAMPIRISM_SUN_WARNING);
                 exposureStart = now;
             }
@@ -219,7 +227,7 @@ public class SunlightDamageComponent implements Tickable<Player, AfflictionInsta
             sendMessage(player, MessageKey.VAMPIRISM_SUN_BURNING);
         }
 
-        instance.setData("burning", true);
+        instance.setBoolean(BURNING, true);
 
         // Drain blood while in sunlight
         if (bloodEnabled && sunDrain > 0) {
@@ -276,7 +284,7 @@ public class SunlightDamageComponent implements Tickable<Player, AfflictionInsta
 
         // Helmet provides damage reduction (uses cached condition)
         boolean hasHelmet = HELMET_CONDITION.test(player);
-        instance.setData("has_helmet", hasHelmet);
+        instance.setBoolean(HAS_HELMET, hasHelmet);
         if (hasHelmet) {
             damage *= (1.0 - helmetDamageReduction);
         }
@@ -0,0 +1,112 @@
+package com.dnocturne.afflictions.environment;
+
+import com.dnocturne.basalt.condition.Condition;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * World-state conditions backed by the shared {@link EnvironmentSnapshot} of the player's world.
+ *
+ * <p>Drop-in replacements for the time, moon and weather checks in Basalt's
+ * {@code PlayerConditions}: during a tick pass the world is queried once,
+ * no matter how many players and components evaluate the condition.</p>
+ *
+ * <p>Sky and sunlight conditions go through the {@link SkyExposureCache}. Sunlight exposure is
+ * daytime, clear weather and sky access; cover and protection are their negations.</p>
+ */
+public final class EnvironmentConditions {
+
+    private static final Condition<Player> DAY = player -> snapshot(player).isDay();
+    private static final Condition<Player> NIGHT = player -> snapshot(player).isNight();
+    private static final Condition<Player> FULL_MOON = player -> snapshot(player).isFullMoon();
+    private static final Condition<Player> NEW_MOON = player -> snapshot(player).isNewMoon();
+    private static final Condition<Player> BRIGHT_MOON = player -> snapshot(player).isBrightMoon(player);
+    private static final Condition<Player> DARK_MOON = player -> snapshot(player).isDarkMoon(player);
+    private static final Condition<Player> FULL_MOON_NIGHT = player -> {
+        EnvironmentSnapshot snapshot = snapshot(player);
+        return snapshot.isNight() && snapshot.isFullMoon();
+    };
+    private static final Condition<Player> BRIGHT_MOON_NIGHT = player -> {
+        EnvironmentSnapshot snapshot = snapshot(player);
+        return snapshot.isNight() && snapshot.isBrightMoon(player);
+    };
+    private static final Condition<Player> STORM = player -> snapshot(player).hasStorm();
+    private static final Condition<Player> THUNDERING = player -> snapshot(player).isThundering();
+    private static final Condition<Player> CLEAR_WEATHER = player -> snapshot(player).isClearWeather();
+    private static final Condition<Player> SKY_ACCESS = SkyExposureCache::check;
+    private static final Condition<Player> UNDER_COVER = player -> !SkyExposureCache.check(player);
+    private static final Condition<Player> EXPOSED_TO_SUNLIGHT = EnvironmentConditions::exposedToSunlight;
+    private static final Condition<Player> PROTECTED_FROM_SUNLIGHT = player -> !exposedToSunlight(player);
+
+    private EnvironmentConditions() {
+    }
+
+    private static EnvironmentSnapshot snapshot(Player player) {
+        return EnvironmentTracker.snapshot(player.getWorld());
+    }
+
+    private static boolean exposedToSunlight(Player player) {
+        EnvironmentSnapshot snapshot = snapshot(player);
+        return snapshot.isDay() && snapshot.isClearWeather() && SkyExposureCache.check(player);
+    }
+
+    public static @NotNull Condition<Player> isDay() {
+        return DAY;
+    }
+
+    public static @NotNull Condition<Player> isNight() {
+        return NIGHT;
+    }
+
+    public static @NotNull Condition<Player> isFullMoon() {
+        return FULL_MOON;
+    }
+
+    public static @NotNull Condition<Player> isNewMoon() {
+        return NEW_MOON;
+    }
+
+    public static @NotNull Condition<Player> isBrightMoon() {
+        return BRIGHT_MOON;
+    }
+
+    public static @NotNull Condition<Player> isDarkMoon() {
+        return DARK_MOON;
+    }
+
+    public static @NotNull Condition<Player> isFullMoonNight() {
+        return FULL_MOON_NIGHT;
+    }
+
+    public static @NotNull Condition<Player> isBrightMoonNight() {
+        return BRIGHT_MOON_NIGHT;
+    }
+
+    public static @NotNull Condition<Player> hasStorm() {
+        return STORM;
+    }
+
+    public static @NotNull Condition<Player> isThundering() {
+        return THUNDERING;
+    }
+
+    public static @NotNull Condition<Player> isClearWeather() {
+        return CLEAR_WEATHER;
+    }
+
+    public static @NotNull Condition<Player> hasSkyAccess() {
+        return SKY_ACCESS;
+    }
+
+    public static @NotNull Condition<Player> isUnderCover() {
+        return UNDER_COVER;
+    }
+
+    public static @NotNull Condition<Player> isExposedToSunlight() {
+        return EXPOSED_TO_SUNLIGHT;
+    }
+
+    public static @NotNull Condition<Player> isProtectedFromSunlight() {
+        return PROTECTED_FROM_SUNLIGHT;
+    }
+}
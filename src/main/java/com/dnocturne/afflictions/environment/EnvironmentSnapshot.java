@@ -0,0 +1,127 @@
+package com.dnocturne.afflictions.environment;
+
+import com.dnocturne.basalt.condition.Condition;
+import com.dnocturne.basalt.condition.PlayerConditions;
+import com.dnocturne.basalt.util.TimeUtil;
+import com.dnocturne.basalt.util.TimeUtil.MoonPhase;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * World state shared by every player in a world for one affliction tick:
+ * time of day, moon phase and weather.
+ *
+ * <p>Snapshots are captured once per world per pass by the {@link EnvironmentTracker},
+ * so conditions evaluated for many players read plain fields instead of querying the world.</p>
+ */
+public final class EnvironmentSnapshot {
+
+    private static final Condition<Player> BRIGHT_MOON = PlayerConditions.isBrightMoon();
+    private static final Condition<Player> DARK_MOON = PlayerConditions.isDarkMoon();
+
+    private final World world;
+    private final long time;
+    private final boolean day;
+    private final MoonPhase moonPhase;
+    private final boolean storm;
+    private final boolean thundering;
+
+    // Moon brightness is defined by Basalt; resolved from the first player asking
+    private byte brightMoon = -1;
+    private byte darkMoon = -1;
+
+    private EnvironmentSnapshot(World world, long time, boolean day, MoonPhase moonPhase,
+                                boolean storm, boolean thundering) {
+        this.world = world;
+        this.time = time;
+        this.day = day;
+        this.moonPhase = moonPhase;
+        this.storm = storm;
+        this.thundering = thundering;
+    }
+
+    /**
+     * Capture the current state of a world.
+     *
+     * @param world The world
+     * @return A new snapshot
+     */
+    public static @NotNull EnvironmentSnapshot capture(@NotNull World world) {
+        return new EnvironmentSnapshot(
+                world,
+                world.getTime(),
+                TimeUtil.isDay(world),
+                TimeUtil.getMoonPhaseEnum(world),
+                world.hasStorm(),
+                world.isThundering()
+        );
+    }
+
+    public @NotNull World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the time of day, in ticks (0-23999).
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isDay() {
+        return day;
+    }
+
+    public boolean isNight() {
+        return !day;
+    }
+
+    public @NotNull MoonPhase getMoonPhase() {
+        return moonPhase;
+    }
+
+    public boolean isFullMoon() {
+        return moonPhase == MoonPhase.FULL_MOON;
+    }
+
+    public boolean isNewMoon() {
+        return moonPhase == MoonPhase.NEW_MOON;
+    }
+
+    /**
+     * Check if the moon is bright, as defined by {@link PlayerConditions#isBrightMoon()}.
+     *
+     * @param player A player in this world, used to resolve the value once per snapshot
+     */
+    public boolean isBrightMoon(@NotNull Player player) {
+        if (brightMoon < 0) {
+            brightMoon = (byte) (BRIGHT_MOON.test(player) ? 1 : 0);
+        }
+        return brightMoon == 1;
+    }
+
+    /**
+     * Check if the moon is dark, as defined by {@link PlayerConditions#isDarkMoon()}.
+     *
+     * @param player A player in this world, used to resolve the value once per snapshot
+     */
+    public boolean isDarkMoon(@NotNull Player player) {
+        if (darkMoon < 0) {
+            darkMoon = (byte) (DARK_MOON.test(player) ? 1 : 0);
+        }
+        return darkMoon == 1;
+    }
+
+    public boolean hasStorm() {
+        return storm;
+    }
+
+    public boolean isThundering() {
+        return thundering;
+    }
+
+    public boolean isClearWeather() {
+        return !storm;
+    }
+}
@@ -0,0 +1,71 @@
+package com.dnocturne.afflictions.environment;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hands out one {@link EnvironmentSnapshot} per world for the duration of a tick pass.
+ *
+ * <p>Snapshots are only shared between {@link #beginPass()} and {@link #endPass()}, and only
+ * on the thread running the pass. Anywhere else (commands, tests, Folia region threads) a
+ * fresh snapshot is captured on every call, so callers never see stale world state.</p>
+ */
+public final class EnvironmentTracker {
+
+    private final Map<UUID, EnvironmentSnapshot> snapshots = new HashMap<>();
+    private volatile Thread passThread;
+
+    /**
+     * Start sharing snapshots on the current thread.
+     */
+    public void beginPass() {
+        snapshots.clear();
+        passThread = Thread.currentThread();
+    }
+
+    /**
+     * Stop sharing snapshots and drop the ones captured during the pass.
+     */
+    public void endPass() {
+        passThread = null;
+        snapshots.clear();
+    }
+
+    /**
+     * Get the snapshot of a world for the current pass.
+     *
+     * @param world The world
+     * @return The shared snapshot, or a fresh one outside a pass
+     */
+    public @NotNull EnvironmentSnapshot get(@NotNull World world) {
+        if (passThread != Thread.currentThread()) {
+            return EnvironmentSnapshot.capture(world);
+        }
+
+        EnvironmentSnapshot snapshot = snapshots.get(world.getUID());
+        if (snapshot == null) {
+            snapshot = EnvironmentSnapshot.capture(world);
+            snapshots.put(world.getUID(), snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the snapshot of a world from the running plugin's tracker,
+     * or a fresh one if the plugin is not enabled.
+     *
+     * @param world The world
+     * @return The snapshot
+     */
+    public static @NotNull EnvironmentSnapshot snapshot(@NotNull World world) {
+        Afflictions plugin = Afflictions.getInstance();
+        AfflictionManager manager = plugin != null ? plugin.getAfflictionManager() : null;
+        return manager != null ? manager.getEnvironmentTracker().get(world) : EnvironmentSnapshot.capture(world);
+    }
+}
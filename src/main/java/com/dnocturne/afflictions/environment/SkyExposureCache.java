@@ -0,0 +1,165 @@
+package com.dnocturne.afflictions.environment;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.basalt.condition.Condition;
+import com.dnocturne.basalt.condition.PlayerConditions;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches sky access results per block column.
+ *
+ * <p>An entry remembers the block height it was computed at, so a player standing still
+ * (or returning to the same spot) reuses it while a player moving up or down recomputes it.
+ * Entries are invalidated by block changes in their column (see
+ * {@link com.dnocturne.afflictions.listener.SkyExposureListener}) and expire after a short
+ * time as a safety net for changes no event reports, such as world editing tools.</p>
+ */
+public final class SkyExposureCache {
+
+    private static final Condition<Player> SKY_ACCESS = PlayerConditions.hasSkyAccess();
+    private static final long ENTRY_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_ENTRIES_PER_WORLD = 8192;
+
+    private final Map<UUID, Map<Long, Entry>> worlds = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Entry(int y, boolean skyAccess, long expiresAt) {
+    }
+
+    /**
+     * Check if a player has sky access, using the cached result for their column if still valid.
+     *
+     * @param player The player
+     * @return true if the player can see the sky
+     */
+    public boolean hasSkyAccess(@NotNull Player player) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        if (world == null) {
+            return SKY_ACCESS.test(player);
+        }
+
+        int y = location.getBlockY();
+        long key = columnKey(location.getBlockX(), location.getBlockZ());
+        Map<Long, Entry> columns = worlds.computeIfAbsent(world.getUID(), uid -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+
+        Entry entry = columns.get(key);
+        if (entry != null && entry.y() == y && now - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.skyAccess();
+        }
+
+        misses.increment();
+        boolean skyAccess = SKY_ACCESS.test(player);
+        if (columns.size() >= MAX_ENTRIES_PER_WORLD) {
+            columns.clear();
+        }
+        columns.put(key, new Entry(y, skyAccess, now + ENTRY_TTL_NANOS));
+        return skyAccess;
+    }
+
+    /**
+     * Invalidate the cached result for the column containing a block.
+     *
+     * @param world The world
+     * @param x     Block X
+     * @param z     Block Z
+     */
+    public void invalidate(@NotNull World world, int x, int z) {
+        Map<Long, Entry> columns = worlds.get(world.getUID());
+        if (columns != null && columns.remove(columnKey(x, z)) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Drop all cached results for a world.
+     */
+    public void invalidateWorld(@NotNull World world) {
+        Map<Long, Entry> columns = worlds.remove(world.getUID());
+        if (columns != null) {
+            invalidations.add(columns.size());
+        }
+    }
+
+    /**
+     * Drop all cached results.
+     */
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static long columnKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of cached entries removed by block changes.
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Get the fraction of lookups answered from the cache (0.0 to 1.0).
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Get the number of cached columns across all worlds.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, Entry> columns : worlds.values()) {
+            size += columns.size();
+        }
+        return size;
+    }
+
+    /**
+     * Reset the hit, miss and invalidation counters.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+    }
+
+    /**
+     * Check sky access through the running plugin's cache,
+     * or directly if the plugin is not enabled.
+     *
+     * @param player The player
+     * @return true if the player can see the sky
+     */
+    public static boolean check(@NotNull Player player) {
+        Afflictions plugin = Afflictions.getInstance();
+        AfflictionManager manager = plugin != null ? plugin.getAfflictionManager() : null;
+        return manager != null ? manager.getSkyExposureCache().hasSkyAccess(player) : SKY_ACCESS.test(player);
+    }
+}
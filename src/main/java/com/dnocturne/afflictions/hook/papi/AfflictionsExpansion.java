@@ -3,6 +3,7 @@ package com.dnocturne.afflictions.hook.papi;
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.affliction.config.AfflictionDisplayConfig;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.component.effect.BloodComponent;
 import com.dnocturne.afflictions.player.AfflictedPlayer;
 import com.dnocturne.basalt.util.MessageUtil;
 import com.dnocturne.basalt.util.TimeUtil;
@@ -332,17 +333,16 @@ public class AfflictionsExpansion extends PlaceholderExpansion {
                         return String.valueOf(instance.getContractedAt());
                     case "blood":
                         // Shorthand for blood level
-                        Object blood = instance.getData("blood");
-                        return blood != null ? String.format("%.1f", ((Number) blood).doubleValue()) : "0";
+                        return instance.has(BloodComponent.BLOOD)
+                                ? String.format("%.1f", BloodComponent.getBlood(instance)) : "0";
                     case "blood_max":
                         // Get max blood from config
                         return String.format("%.0f", getMaxBlood(afflictionId));
                     case "blood_percent":
                         // Blood as percentage
-                        Object currentBlood = instance.getData("blood");
                         double maxBlood = getMaxBlood(afflictionId);
-                        if (currentBlood != null && maxBlood > 0) {
-                            double percent = (((Number) currentBlood).doubleValue() / maxBlood) * 100.0;
+                        if (instance.has(BloodComponent.BLOOD) && maxBlood > 0) {
+                            double percent = (BloodComponent.getBlood(instance) / maxBlood) * 100.0;
                             return String.format("%.0f", percent);
                         }
                         return "0";
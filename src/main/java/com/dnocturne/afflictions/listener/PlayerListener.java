@@ -4,8 +4,11 @@ import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.Affliction;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
 import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.afflictions.manager.tick.RegionTickScheduler;
 import com.dnocturne.afflictions.player.AfflictedPlayer;
+import com.dnocturne.afflictions.storage.StorageManager;
 import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.InstanceDataCodec;
 import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
 import com.dnocturne.basalt.storage.Storage;
 import org.bukkit.Bukkit;
@@ -13,22 +16,45 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 /**
  * Handles player join/quit for loading and saving affliction data.
+ *
+ * <p>Data is preloaded during {@link AsyncPlayerPreLoginEvent}, where blocking is
+ * allowed, and staged until the player joins. A staged load is applied synchronously
+ * at join, so a player never ticks without their afflictions. If the preload does
+ * not finish in time, the data is loaded asynchronously after join instead.</p>
  */
 public class PlayerListener implements Listener {
 
+    private static final long DEFAULT_PRELOAD_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * Staged loads older than this are discarded, e.g. when a login is denied later.
+     */
+    private static final long STAGE_TTL_MILLIS = 30_000;
+
+    /**
+     * Data loaded at pre-login, waiting for the player to join.
+     */
+    private record StagedLoad(Optional<PlayerAfflictionData> data, long stagedAt) {
+    }
+
     private final Afflictions plugin;
+    private final Map<UUID, StagedLoad> staged = new ConcurrentHashMap<>();
 
     public PlayerListener(Afflictions plugin) {
         this.plugin = plugin;
@@ -39,17 +65,92 @@ public class PlayerListener implements Listener {
      */
     public void register() {
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        // Index players that were already online (e.g. after a reload)
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager != null) {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                afflictionManager.getOnlinePlayers().add(player);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoinIndex(PlayerJoinEvent event) {
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager != null) {
+            afflictionManager.getOnlinePlayers().add(event.getPlayer());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitIndex(PlayerQuitEvent event) {
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager != null) {
+            afflictionManager.getOnlinePlayers().remove(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        var storageManager = plugin.getStorageManager();
+        if (storageManager == null || storageManager.getStorage() == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        staged.values().removeIf(entry -> now - entry.stagedAt() > STAGE_TTL_MILLIS);
+
+        long timeoutMillis = getPreloadTimeoutMillis();
+        if (timeoutMillis <= 0) {
+            return;
+        }
+
+        // A duplicate login: the old session has not saved yet, so storage is stale
+        if (Bukkit.getPlayer(event.getUniqueId()) != null) {
+            return;
+        }
+
+        try {
+            Optional<PlayerAfflictionData> data = getLoadFuture(event.getName(), event.getUniqueId(), storageManager)
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+            staged.put(event.getUniqueId(), new StagedLoad(data, System.currentTimeMillis()));
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Preloading affliction data for " + event.getName()
+                    + " timed out after " + timeoutMillis + "ms, loading after join instead");
+        } catch (ExecutionException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to preload affliction data for " + event.getName()
+                    + ", loading after join instead", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
+
+        StagedLoad stagedLoad = staged.remove(player.getUniqueId());
+        if (stagedLoad != null && System.currentTimeMillis() - stagedLoad.stagedAt() <= STAGE_TTL_MILLIS) {
+            AfflictionManager afflictionManager = plugin.getAfflictionManager();
+            if (afflictionManager != null) {
+                stagedLoad.data().ifPresent(data -> applyPlayerData(player, data, afflictionManager));
+                return;
+            }
+        }
+
         loadPlayerData(player);
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
+        // Anything staged for this player predates the save below
+        staged.remove(player.getUniqueId());
         savePlayerData(player);
     }
 
@@ -70,48 +171,12 @@ public class PlayerListener implements Listener {
         }
 
         // Determine lookup method based on config
-        CompletableFuture<Optional<PlayerAfflictionData>> loadFuture = getLoadFuture(player, storage);
+        CompletableFuture<Optional<PlayerAfflictionData>> loadFuture =
+                getLoadFuture(player.getName(), player.getUniqueId(), storageManager);
 
         loadFuture.thenAccept(dataOpt -> dataOpt.ifPresent(data -> {
-            // Run on main thread to interact with Bukkit
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                for (AfflictionData afflictionData : data.afflictions()) {
-                    Optional<Affliction> afflictionOpt = afflictionManager.getRegistry()
-                            .get(afflictionData.afflictionId());
-
-                    if (afflictionOpt.isEmpty()) {
-                        plugin.getLogger().warning("Unknown affliction '" + afflictionData.afflictionId()
-                                + "' for player " + player.getName() + ", skipping");
-                        continue;
-                    }
-
-                    Affliction affliction = afflictionOpt.get();
-
-                    // Create instance with stored data
-                    AfflictionInstance instance = new AfflictionInstance(
-                            player.getUniqueId(),
-                            affliction,
-                            afflictionData.level(),
-                            afflictionData.duration(),
-                            afflictionData.contractedAt()
-                    );
-
-                    // Restore custom data
-                    for (Map.Entry<String, String> entry : afflictionData.data().entrySet()) {
-                        instance.setData(entry.getKey(), entry.getValue());
-                    }
-
-                    // Add to player
-                    AfflictedPlayer afflictedPlayer = afflictionManager.getPlayerManager()
-                            .getOrCreate(player.getUniqueId());
-                    afflictedPlayer.addAffliction(instance);
-                }
-
-                if (!data.afflictions().isEmpty()) {
-                    plugin.getLogger().info("Loaded " + data.afflictions().size()
-                            + " affliction(s) for " + player.getName() + " (" + player.getUniqueId() + ")");
-                }
-            });
+            // Run on the player's thread to interact with Bukkit
+            runForPlayer(player, () -> applyPlayerData(player, data, afflictionManager));
         })).exceptionally(ex -> {
             plugin.getLogger().log(Level.SEVERE,
                     "Failed to load affliction data for player " + player.getName() + " (" + player.getUniqueId() + ")", ex);
@@ -119,11 +184,63 @@ public class PlayerListener implements Listener {
         });
     }
 
+    /**
+     * Restore loaded afflictions onto a player. Must run on the player's thread.
+     */
+    private void applyPlayerData(Player player, PlayerAfflictionData data, AfflictionManager afflictionManager) {
+        for (AfflictionData afflictionData : data.afflictions()) {
+            Optional<Affliction> afflictionOpt = afflictionManager.getRegistry()
+                    .get(afflictionData.afflictionId());
+
+            if (afflictionOpt.isEmpty()) {
+                plugin.getLogger().warning("Unknown affliction '" + afflictionData.afflictionId()
+                        + "' for player " + player.getName() + ", skipping");
+                continue;
+            }
+
+            // Create instance with its typed state restored
+            AfflictionInstance instance = InstanceDataCodec.decode(
+                    player.getUniqueId(), afflictionOpt.get(), afflictionData);
+
+            // Add to player and schedule its components
+            afflictionManager.restoreAffliction(instance);
+        }
+
+        // What was just loaded matches storage, so it is not dirty
+        afflictionManager.getPlayerManager().get(player.getUniqueId())
+                .ifPresent(afflicted -> afflicted.markSaved(afflicted.getVersion()));
+
+        if (!data.afflictions().isEmpty()) {
+            plugin.getLogger().info("Loaded " + data.afflictions().size()
+                    + " affliction(s) for " + player.getName() + " (" + player.getUniqueId() + ")");
+        }
+    }
+
+    private long getPreloadTimeoutMillis() {
+        var configManager = plugin.getConfigManager();
+        return configManager != null
+                ? configManager.getMainConfig().getLong("storage.preload-timeout-ms", DEFAULT_PRELOAD_TIMEOUT_MILLIS)
+                : DEFAULT_PRELOAD_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Run a task on the thread that owns the player: the main thread on Paper,
+     * or the player's region thread on Folia.
+     */
+    private void runForPlayer(Player player, Runnable task) {
+        if (RegionTickScheduler.isFolia()) {
+            player.getScheduler().run(plugin, scheduledTask -> task.run(), null);
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
     /**
      * Get the appropriate load future based on player-lookup config setting.
+     * Loads go through the storage manager so unwritten saves are seen first.
      */
     private CompletableFuture<Optional<PlayerAfflictionData>> getLoadFuture(
-            Player player, Storage<PlayerAfflictionData> storage) {
+            String username, UUID uuid, StorageManager storageManager) {
         var configManager = plugin.getConfigManager();
 
         // Default to "auto" if config not available
@@ -138,16 +255,10 @@ public class PlayerListener implements Listener {
         };
 
         if (useNameLookup) {
-            // First try by name, then fall back to UUID
-            return storage.loadByName(player.getName()).thenCompose(dataOpt -> {
-                if (dataOpt.isPresent()) {
-                    return CompletableFuture.completedFuture(dataOpt);
-                }
-                // Fall back to UUID lookup
-                return storage.load(player.getUniqueId());
-            });
+            // Match by name, falling back to UUID, in one lookup
+            return storageManager.loadByNameOrUuid(username, uuid);
         } else {
-            return storage.load(player.getUniqueId());
+            return storageManager.load(uuid);
         }
     }
 
@@ -168,51 +279,39 @@ public class PlayerListener implements Listener {
         }
 
         Optional<AfflictedPlayer> afflictedOpt = afflictionManager.getPlayerManager()
-                .get(player.getUniqueId())
-                .filter(AfflictedPlayer::hasAnyAffliction);
+                .get(player.getUniqueId());
 
         if (afflictedOpt.isEmpty()) {
             // No data to save, clean up tracking
-            afflictionManager.getPlayerManager().remove(player.getUniqueId());
+            afflictionManager.unloadPlayer(player.getUniqueId());
             return;
         }
 
         AfflictedPlayer afflicted = afflictedOpt.get();
-        List<AfflictionData> afflictionDataList = new ArrayList<>();
+        long version = afflicted.getVersion();
 
-        for (AfflictionInstance instance : afflicted.getAfflictions()) {
-            // Convert Object values to Strings for storage
-            Map<String, String> stringData = new java.util.HashMap<>();
-            for (Map.Entry<String, Object> entry : instance.getAllData().entrySet()) {
-                stringData.put(entry.getKey(), String.valueOf(entry.getValue()));
-            }
+        // Snapshot with current username for offline-mode support
+        PlayerAfflictionData playerData = InstanceDataCodec.encodePlayer(
+                player.getUniqueId(), player.getName(), afflicted.getAfflictions());
+
+        // Kept in memory so a quick rejoin does not touch storage
+        storageManager.rememberQuit(playerData);
+
+        // Only players whose afflictions changed since the last save need writing;
+        // a player who was cured is saved once more so their rows are removed
+        if (!afflicted.isDirty()) {
+            afflictionManager.unloadPlayer(player.getUniqueId());
+            return;
+        }
 
-            AfflictionData data = new AfflictionData(
-                    instance.getAfflictionId(),
-                    instance.getLevel(),
-                    instance.getDuration(),
-                    instance.getContractedAt(),
-                    stringData
-            );
-            afflictionDataList.add(data);
-        }
-
-        // Save with current username for offline-mode support
-        PlayerAfflictionData playerData = new PlayerAfflictionData(
-                player.getUniqueId(),
-                player.getName(),
-                afflictionDataList
-        );
-        storage.save(playerData).thenRun(() -> {
-            plugin.getLogger().info("Saved " + afflictionDataList.size()
+        // Queued on the write-behind queue; failures are logged by the storage writer
+        storageManager.save(playerData).thenRun(() -> {
+            afflicted.markSaved(version);
+            plugin.getLogger().info("Saved " + playerData.afflictions().size()
                     + " affliction(s) for " + player.getName() + " (" + player.getUniqueId() + ")");
-        }).exceptionally(ex -> {
-            plugin.getLogger().log(Level.SEVERE,
-                    "Failed to save affliction data for player " + player.getName() + " (" + player.getUniqueId() + ")", ex);
-            return null;
-        });
+        }).exceptionally(ex -> null);
 
         // Clean up in-memory data
-        afflictionManager.getPlayerManager().remove(player.getUniqueId());
+        afflictionManager.unloadPlayer(player.getUniqueId());
     }
 }
@@ -46,6 +46,20 @@ public final class MessageKey {
     public static final String ADMIN_REMOVE_FAILED = "admin.remove.failed";
     public static final String ADMIN_CLEAR_SUCCESS = "admin.clear.success";
     public static final String ADMIN_CLEAR_FAILED = "admin.clear.failed";
+    public static final String ADMIN_STATS_HEADER = "admin.stats.header";
+    public static final String ADMIN_STATS_TICK = "admin.stats.tick";
+    public static final String ADMIN_STATS_BUDGET = "admin.stats.budget";
+    public static final String ADMIN_STATS_SKY_CACHE = "admin.stats.sky-cache";
+    public static final String ADMIN_STATS_STORAGE = "admin.stats.storage";
+    public static final String ADMIN_STATS_REJOIN_CACHE = "admin.stats.rejoin-cache";
+    public static final String ADMIN_STATS_RESET = "admin.stats.reset";
+    public static final String ADMIN_STORAGE_MIGRATE_STARTED = "admin.storage.migrate-started";
+    public static final String ADMIN_STORAGE_MIGRATE_PROGRESS = "admin.storage.migrate-progress";
+    public static final String ADMIN_STORAGE_MIGRATE_COMPLETE = "admin.storage.migrate-complete";
+    public static final String ADMIN_STORAGE_MIGRATE_FAILED = "admin.storage.migrate-failed";
+    public static final String ADMIN_STORAGE_MIGRATE_INVALID = "admin.storage.migrate-invalid";
+    public static final String ADMIN_STORAGE_MIGRATE_RUNNING = "admin.storage.migrate-running";
+    public static final String ADMIN_STORAGE_MIGRATE_PLAYERS_ONLINE = "admin.storage.migrate-players-online";
 
     // Vampirism
     public static final String VAMPIRISM_INFECTED = "vampirism.infected";
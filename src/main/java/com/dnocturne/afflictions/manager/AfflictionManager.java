@@ -3,7 +3,15 @@ package com.dnocturne.afflictions.manager;
 import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.api.affliction.Affliction;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.environment.EnvironmentTracker;
+import com.dnocturne.afflictions.environment.SkyExposureCache;
+import com.dnocturne.afflictions.manager.tick.RegionTickScheduler;
+import com.dnocturne.afflictions.manager.tick.ScheduledTick;
+import com.dnocturne.afflictions.manager.tick.TickPlan;
+import com.dnocturne.afflictions.manager.tick.TickStats;
+import com.dnocturne.afflictions.manager.tick.TickWheel;
 import com.dnocturne.afflictions.player.AfflictedPlayer;
+import com.dnocturne.afflictions.player.OnlinePlayerIndex;
 import com.dnocturne.basalt.component.Component;
 import com.dnocturne.basalt.component.Tickable;
 import com.dnocturne.basalt.manager.PlayerManager;
@@ -12,12 +20,43 @@ import com.dnocturne.basalt.util.TaskUtil;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Central manager for all affliction operations.
+ *
+ * <p>Tickable components are scheduled on a {@link TickWheel} when an affliction is applied
+ * and cancelled when it is removed, so each tick only visits the components that are due
+ * instead of every component of every afflicted player.</p>
+ *
+ * <p>Each affliction is compiled into an immutable {@link TickPlan} the first time it is
+ * registered or used. Plans are published copy-on-write, so replacing an affliction in the
+ * registry swaps its plan atomically while existing instances keep the plan they started with.</p>
+ *
+ * <p>In {@link TickMode#STAGGERED} mode the loop runs every server tick and each afflicted player
+ * is given a phase slot within the tick rate, so only a fraction of players is processed on any
+ * given server tick while each player still ticks once per tick rate.</p>
+ *
+ * <p>An optional time budget caps how long a single pass may run. Entries left over when the
+ * budget runs out are carried over to the next pass, ahead of newly due entries, so every
+ * player is eventually processed in the order it became due.</p>
+ *
+ * <p>On Folia the wheel is not used. Each player is instead ticked by a task on their own entity
+ * scheduler (see {@link RegionTickScheduler}), so components always run on the region thread
+ * that owns the player. Tick modes and the time budget do not apply there.</p>
  */
 public class AfflictionManager {
 
@@ -25,9 +64,28 @@ public class AfflictionManager {
     private final Registry<Affliction> registry;
     private final PlayerManager<AfflictedPlayer> playerManager;
 
+    private final TickWheel wheel = new TickWheel();
+    private final Map<AfflictionInstance, ScheduledTick> scheduledTicks = new IdentityHashMap<>();
+    private volatile Map<String, TickPlan> tickPlans = Map.of();
+    private final Consumer<ScheduledTick> tickHandler = this::runScheduledTick;
+    private final Queue<ScheduledTick> deferredTicks = new ArrayDeque<>();
+    private final TickStats tickStats = new TickStats();
+    private final RegionTickScheduler regionScheduler;
+    private final EnvironmentTracker environmentTracker = new EnvironmentTracker();
+    private final SkyExposureCache skyExposureCache = new SkyExposureCache();
+    private final OnlinePlayerIndex onlinePlayers = new OnlinePlayerIndex();
+
     private BukkitTask tickTask;
     private long tickRate = 20L; // Default: 1 second
-    private volatile long tickCount = 0;
+    private TickMode tickMode = TickMode.BURST;
+    private long wheelScale = 1L; // Wheel ticks per affliction tick
+    private int[] slotLoad = new int[0];
+    private long tickPeriod = 20L; // Server ticks per wheel tick
+    private long tickBudgetNanos = 0L; // 0 = unlimited
+
+    private long passDeadline;
+    private boolean budgetExceeded;
+    private int processedThisPass;
 
     public AfflictionManager(Afflictions plugin) {
         this.logger = plugin.getLogger();
@@ -35,23 +93,45 @@ public class AfflictionManager {
                 .setDisplayNameExtractor(Affliction::getDisplayName)
                 .setLogger(logger);
         this.playerManager = new PlayerManager<>(AfflictedPlayer::new, AfflictedPlayer::hasAnyAffliction);
+        this.regionScheduler = RegionTickScheduler.isFolia()
+                ? new RegionTickScheduler(plugin, this::runPlan)
+                : null;
     }
 
     /**
      * Start the affliction tick loop.
      */
     public void start() {
+        if (regionScheduler != null) {
+            regionScheduler.start(tickRate);
+            logger.info("Affliction tick loop started on player region schedulers (rate: " + tickRate + " ticks)");
+            return;
+        }
+
         if (tickTask != null) {
             tickTask.cancel();
         }
-        tickTask = TaskUtil.runTimer(this::tick, tickRate, tickRate);
-        logger.info("Affliction tick loop started (rate: " + tickRate + " ticks)");
+
+        long period = tickMode == TickMode.STAGGERED ? 1L : tickRate;
+        long scale = tickMode == TickMode.STAGGERED ? tickRate : 1L;
+        tickPeriod = period;
+        if (scale != wheelScale) {
+            wheelScale = scale;
+            rescheduleAll();
+        }
+
+        tickTask = TaskUtil.runTimer(this::tick, period, period);
+        logger.info("Affliction tick loop started (rate: " + tickRate + " ticks, mode: "
+                + tickMode.name().toLowerCase(Locale.ROOT) + ")");
     }
 
     /**
      * Stop the affliction tick loop.
      */
     public void stop() {
+        if (regionScheduler != null) {
+            regionScheduler.stop();
+        }
         if (tickTask != null) {
             tickTask.cancel();
             tickTask = null;
@@ -60,32 +140,196 @@ public class AfflictionManager {
     }
 
     /**
-     * Process one tick for all afflicted players.
+     * Process one tick, running only the components that are due.
+     * Entries carried over from an earlier pass run first.
      */
     private void tick() {
-        tickCount++;
+        long start = System.nanoTime();
+        passDeadline = tickBudgetNanos > 0 ? start + tickBudgetNanos : Long.MAX_VALUE;
+        budgetExceeded = false;
+        processedThisPass = 0;
+        environmentTracker.beginPass();
+        try {
+            int carried = deferredTicks.size();
+            for (int i = 0; i < carried; i++) {
+                ScheduledTick entry = deferredTicks.poll();
+                if (entry != null && !entry.isCancelled()) {
+                    runScheduledTick(entry);
+                }
+            }
 
-        for (AfflictedPlayer afflictedPlayer : playerManager.getFiltered()) {
-            Optional<Player> playerOpt = afflictedPlayer.getPlayer();
-            if (playerOpt.isEmpty()) continue;
+            wheel.advance(tickHandler);
+        } finally {
+            environmentTracker.endPass();
+        }
 
-            Player player = playerOpt.get();
+        tickStats.recordPass(System.nanoTime() - start, budgetExceeded, deferredTicks.size());
+    }
 
-            for (AfflictionInstance instance : afflictedPlayer.getAfflictions()) {
-                Affliction affliction = instance.getAffliction();
-
-                // Process tickable components
-                for (Component<Player, AfflictionInstance> component : affliction.getComponents()) {
-                    if (component instanceof Tickable<Player, AfflictionInstance> tickable) {
-                        if (tickCount % tickable.getTickInterval() == 0) {
-                            tickable.onTick(player, instance);
-                        }
-                    }
+    private void runScheduledTick(ScheduledTick entry) {
+        // Always make progress, even if a single entry exceeds the budget
+        if (budgetExceeded || (processedThisPass > 0 && System.nanoTime() >= passDeadline)) {
+            budgetExceeded = true;
+            deferredTicks.add(entry);
+            tickStats.recordDeferred();
+            return;
+        }
+        processedThisPass++;
+
+        long now = wheel.getCurrentTick();
+        if (now > entry.getDueTick()) {
+            tickStats.recordDeferralLatency((now - entry.getDueTick()) * tickPeriod);
+        }
+
+        AfflictionInstance instance = entry.getInstance();
+        Player player = onlinePlayers.get(instance.getPlayerUuid());
+        if (player != null) {
+            runPlan(player, instance, entry.getPlan(), (entry.getDueTick() - entry.getPhase()) / wheelScale);
+        }
+
+        if (!entry.isCancelled()) {
+            // Skip any runs missed while deferred, keeping the entry on its phase
+            long interval = entry.getInterval();
+            long next = entry.getDueTick() + interval;
+            if (next <= now) {
+                next += ((now - next) / interval + 1) * interval;
+            }
+            wheel.schedule(entry, next);
+        }
+    }
+
+    /**
+     * Run the tickables of a plan whose interval divides the given affliction tick.
+     */
+    private void runPlan(Player player, AfflictionInstance instance, TickPlan plan, long tick) {
+        for (int group = 0; group < plan.getGroupCount(); group++) {
+            if (tick % plan.getGroupInterval(group) != 0) continue;
+
+            for (Tickable<Player, AfflictionInstance> tickable : plan.getGroupTickables(group)) {
+                try {
+                    tickable.onTick(player, instance);
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Error ticking " + tickable.getId() + " of "
+                            + instance.getAfflictionId() + " for " + player.getName(), e);
                 }
             }
         }
     }
 
+    /**
+     * Schedule an instance on the wheel if its affliction has tickable components.
+     */
+    private void scheduleInstance(AfflictionInstance instance, TickPlan plan) {
+        if (!plan.hasTickables()) return;
+
+        if (regionScheduler != null) {
+            regionScheduler.track(instance, plan);
+            return;
+        }
+
+        int slot = assignSlot(instance.getPlayerUuid());
+        ScheduledTick entry = new ScheduledTick(instance, plan, plan.getBaseInterval() * wheelScale, slot);
+        wheel.scheduleAligned(entry);
+        scheduledTicks.put(instance, entry);
+    }
+
+    /**
+     * Rebuild the wheel after the tick mode or rate changed.
+     */
+    private void rescheduleAll() {
+        List<ScheduledTick> entries = new ArrayList<>(scheduledTicks.values());
+        wheel.clear();
+        deferredTicks.clear();
+        scheduledTicks.clear();
+        slotLoad = new int[(int) wheelScale];
+
+        for (ScheduledTick entry : entries) {
+            playerManager.get(entry.getInstance().getPlayerUuid())
+                    .ifPresent(afflictedPlayer -> afflictedPlayer.setTickSlot(-1));
+        }
+        for (ScheduledTick entry : entries) {
+            scheduleInstance(entry.getInstance(), entry.getPlan());
+        }
+    }
+
+    /**
+     * Get the phase slot of a player, assigning the least loaded slot if they have none.
+     */
+    private int assignSlot(UUID uuid) {
+        if (slotLoad.length <= 1) return 0;
+
+        AfflictedPlayer afflictedPlayer = playerManager.getOrCreate(uuid);
+        int slot = afflictedPlayer.getTickSlot();
+        if (slot >= 0 && slot < slotLoad.length) {
+            return slot;
+        }
+
+        slot = 0;
+        for (int i = 1; i < slotLoad.length; i++) {
+            if (slotLoad[i] < slotLoad[slot]) {
+                slot = i;
+            }
+        }
+        slotLoad[slot]++;
+        afflictedPlayer.setTickSlot(slot);
+        return slot;
+    }
+
+    /**
+     * Release the phase slot of a player that no longer has scheduled afflictions.
+     */
+    private void releaseSlot(AfflictedPlayer afflictedPlayer) {
+        int slot = afflictedPlayer.getTickSlot();
+        if (slot >= 0 && slot < slotLoad.length) {
+            slotLoad[slot]--;
+        }
+        afflictedPlayer.setTickSlot(-1);
+    }
+
+    /**
+     * Cancel the scheduled ticks of an instance.
+     */
+    private void unscheduleInstance(AfflictionInstance instance) {
+        if (regionScheduler != null) {
+            regionScheduler.untrack(instance);
+            return;
+        }
+
+        ScheduledTick entry = scheduledTicks.remove(instance);
+        if (entry != null) {
+            entry.cancel();
+        }
+    }
+
+    /**
+     * Get the tick plan for an affliction, compiling and publishing it if the
+     * affliction is new or has been replaced since the plan was built.
+     */
+    private TickPlan getTickPlan(Affliction affliction) {
+        TickPlan plan = tickPlans.get(affliction.getId());
+        if (plan == null || plan.getAffliction() != affliction) {
+            plan = TickPlan.compile(affliction);
+            publishTickPlan(plan);
+        }
+        return plan;
+    }
+
+    private synchronized void publishTickPlan(TickPlan plan) {
+        Map<String, TickPlan> updated = new HashMap<>(tickPlans);
+        updated.put(plan.getAffliction().getId(), plan);
+        tickPlans = Map.copyOf(updated);
+    }
+
+    /**
+     * Register an affliction and compile its tick plan.
+     *
+     * @param affliction The affliction to register
+     */
+    public void registerAffliction(Affliction affliction) {
+        registry.register(affliction);
+        publishTickPlan(TickPlan.compile(affliction));
+    }
+
     /**
      * Apply an affliction to a player.
      *
@@ -119,12 +363,14 @@ public class AfflictionManager {
             return false;
         }
 
+        TickPlan plan = getTickPlan(affliction);
         AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), affliction, level, -1);
         afflictedPlayer.addAffliction(instance);
         playerManager.invalidateFilterCache();
+        scheduleInstance(instance, plan);
 
         // Call onApply for all components
-        for (Component<Player, AfflictionInstance> component : affliction.getComponents()) {
+        for (Component<Player, AfflictionInstance> component : plan.getComponents()) {
             component.onApply(player, instance);
         }
 
@@ -156,9 +402,13 @@ public class AfflictionManager {
 
         AfflictionInstance instance = instanceOpt.get();
         Affliction affliction = instance.getAffliction();
+        unscheduleInstance(instance);
+        if (!afflictedPlayer.hasAnyAffliction()) {
+            releaseSlot(afflictedPlayer);
+        }
 
         // Call onRemove for all components
-        for (Component<Player, AfflictionInstance> component : affliction.getComponents()) {
+        for (Component<Player, AfflictionInstance> component : getTickPlan(affliction).getComponents()) {
             component.onRemove(player, instance);
         }
 
@@ -178,15 +428,51 @@ public class AfflictionManager {
 
         AfflictedPlayer afflictedPlayer = afflictedPlayerOpt.get();
         for (AfflictionInstance instance : afflictedPlayer.getAfflictions()) {
-            Affliction affliction = instance.getAffliction();
-            for (Component<Player, AfflictionInstance> component : affliction.getComponents()) {
+            unscheduleInstance(instance);
+            for (Component<Player, AfflictionInstance> component : getTickPlan(instance.getAffliction()).getComponents()) {
                 component.onRemove(player, instance);
             }
         }
         afflictedPlayer.clearAfflictions();
+        releaseSlot(afflictedPlayer);
         playerManager.invalidateFilterCache();
     }
 
+    /**
+     * Restore a previously saved affliction instance, e.g. when a player joins.
+     * Unlike {@link #applyAffliction(Player, String, int)} this does not call onApply.
+     *
+     * @param instance The instance to restore
+     * @return true if restored, false if the player already has this affliction
+     */
+    public boolean restoreAffliction(AfflictionInstance instance) {
+        AfflictedPlayer afflictedPlayer = playerManager.getOrCreate(instance.getPlayerUuid());
+        if (afflictedPlayer.hasAffliction(instance.getAfflictionId())) {
+            return false;
+        }
+
+        afflictedPlayer.addAffliction(instance);
+        playerManager.invalidateFilterCache();
+        scheduleInstance(instance, getTickPlan(instance.getAffliction()));
+        return true;
+    }
+
+    /**
+     * Stop tracking a player, e.g. when they leave. Their afflictions are not removed
+     * from storage and onRemove is not called.
+     *
+     * @param uuid The player's UUID
+     */
+    public void unloadPlayer(UUID uuid) {
+        playerManager.get(uuid).ifPresent(afflictedPlayer -> {
+            for (AfflictionInstance instance : afflictedPlayer.getAfflictions()) {
+                unscheduleInstance(instance);
+            }
+            releaseSlot(afflictedPlayer);
+        });
+        playerManager.remove(uuid);
+    }
+
     /**
      * Check if a player has a specific affliction.
      */
@@ -217,6 +503,64 @@ public class AfflictionManager {
         this.tickRate = tickRate;
     }
 
+    /**
+     * Set the time budget for a single pass of the tick loop.
+     *
+     * @param micros Budget in microseconds, or 0 for no limit
+     */
+    public void setTickBudget(long micros) {
+        this.tickBudgetNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, micros));
+    }
+
+    /**
+     * Get the time budget for a single pass, in microseconds (0 = no limit).
+     */
+    public long getTickBudget() {
+        return TimeUnit.NANOSECONDS.toMicros(tickBudgetNanos);
+    }
+
+    /**
+     * Get the tracker sharing world snapshots during a tick pass.
+     */
+    public EnvironmentTracker getEnvironmentTracker() {
+        return environmentTracker;
+    }
+
+    /**
+     * Get the index of online player handles.
+     */
+    public OnlinePlayerIndex getOnlinePlayers() {
+        return onlinePlayers;
+    }
+
+    /**
+     * Get the per-column sky access cache.
+     */
+    public SkyExposureCache getSkyExposureCache() {
+        return skyExposureCache;
+    }
+
+    /**
+     * Get the tick loop statistics.
+     */
+    public TickStats getTickStats() {
+        return tickStats;
+    }
+
+    /**
+     * Get the tick mode.
+     */
+    public TickMode getTickMode() {
+        return tickMode;
+    }
+
+    /**
+     * Set the tick mode. Takes effect the next time the loop is started.
+     */
+    public void setTickMode(TickMode tickMode) {
+        this.tickMode = tickMode;
+    }
+
     /**
      * Reasons an affliction can be removed.
      */
@@ -227,4 +571,33 @@ public class AfflictionManager {
         DEATH,
         OTHER
     }
+
+    /**
+     * How affliction ticks are spread over server ticks.
+     */
+    public enum TickMode {
+        /**
+         * Process every afflicted player at once, every tick-rate ticks.
+         */
+        BURST,
+        /**
+         * Run every server tick and process each player in its own phase slot.
+         */
+        STAGGERED;
+
+        /**
+         * Parse a tick mode from config.
+         *
+         * @param value The config value
+         * @return The tick mode, or empty if unknown
+         */
+        public static Optional<TickMode> fromString(String value) {
+            for (TickMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return Optional.of(mode);
+                }
+            }
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.player.OnlinePlayerIndex;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drives affliction ticks on Folia, where a player may only be touched from the region
+ * thread that owns them.
+ *
+ * <p>Every afflicted player gets a fixed-rate task on their own entity scheduler that ticks
+ * all of that player's afflictions. The task follows the player between regions and is
+ * retired by the server when they leave. Start offsets are spread over the tick rate so
+ * players in the same region do not all tick on the same server tick.</p>
+ */
+public final class RegionTickScheduler {
+
+    private static final boolean FOLIA = detectFolia();
+
+    /**
+     * Callback that runs the due components of one instance.
+     */
+    @FunctionalInterface
+    public interface TickHandler {
+        /**
+         * @param player         The player, on its owning region thread
+         * @param instance       The affliction instance
+         * @param plan           The tick plan of the instance
+         * @param afflictionTick The player's affliction tick counter
+         */
+        void tick(@NotNull Player player, @NotNull AfflictionInstance instance,
+                  @NotNull TickPlan plan, long afflictionTick);
+    }
+
+    private final Plugin plugin;
+    private final TickHandler handler;
+    private final Map<UUID, PlayerTicker> tickers = new ConcurrentHashMap<>();
+
+    private volatile long tickRate = 20L;
+    private volatile boolean running;
+
+    public RegionTickScheduler(@NotNull Plugin plugin, @NotNull TickHandler handler) {
+        this.plugin = plugin;
+        this.handler = handler;
+    }
+
+    /**
+     * Check if the server is running Folia's region-threaded scheduler.
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start (or restart) ticking every tracked player.
+     *
+     * @param tickRate Server ticks between affliction ticks
+     */
+    public void start(long tickRate) {
+        this.tickRate = Math.max(1L, tickRate);
+        this.running = true;
+        for (PlayerTicker ticker : tickers.values()) {
+            ticker.restart();
+        }
+    }
+
+    /**
+     * Stop ticking. Tracked instances are kept and resume on the next start.
+     */
+    public void stop() {
+        running = false;
+        for (PlayerTicker ticker : tickers.values()) {
+            ticker.cancel();
+        }
+    }
+
+    /**
+     * Start ticking an instance on its player's entity scheduler.
+     */
+    public void track(@NotNull AfflictionInstance instance, @NotNull TickPlan plan) {
+        PlayerTicker ticker = tickers.computeIfAbsent(instance.getPlayerUuid(), PlayerTicker::new);
+        ticker.instances.put(instance, plan);
+        if (running) {
+            ticker.ensureStarted();
+        }
+    }
+
+    /**
+     * Stop ticking an instance. The player's task is cancelled once it has nothing left to tick.
+     */
+    public void untrack(@NotNull AfflictionInstance instance) {
+        tickers.computeIfPresent(instance.getPlayerUuid(), (uuid, ticker) -> {
+            ticker.instances.remove(instance);
+            if (ticker.instances.isEmpty()) {
+                ticker.cancel();
+                return null;
+            }
+            return ticker;
+        });
+    }
+
+    /**
+     * Get the number of players with an active ticker.
+     */
+    public int getTrackedPlayers() {
+        return tickers.size();
+    }
+
+    private final class PlayerTicker {
+
+        private final UUID uuid;
+        private final Map<AfflictionInstance, TickPlan> instances = new ConcurrentHashMap<>();
+        private @Nullable ScheduledTask task;
+        private long tick; // Only touched from the owning region thread
+
+        private PlayerTicker(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        synchronized void ensureStarted() {
+            if (task != null && !task.isCancelled()) return;
+
+            Player player = OnlinePlayerIndex.lookup(uuid);
+            if (player == null) return;
+
+            long rate = tickRate;
+            long delay = 1L + Math.floorMod(uuid.hashCode(), rate);
+            task = player.getScheduler().runAtFixedRate(plugin, scheduled -> run(player), null, delay, rate);
+        }
+
+        synchronized void restart() {
+            cancel();
+            ensureStarted();
+        }
+
+        synchronized void cancel() {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+
+        private void run(Player player) {
+            long current = ++tick;
+            for (Map.Entry<AfflictionInstance, TickPlan> entry : instances.entrySet()) {
+                handler.tick(player, entry.getKey(), entry.getValue(), current);
+            }
+        }
+    }
+}
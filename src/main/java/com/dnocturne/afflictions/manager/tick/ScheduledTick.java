@@ -0,0 +1,75 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An affliction instance waiting in a {@link TickWheel} bucket.
+ *
+ * <p>Entries are linked intrusively so that moving them between buckets never allocates.
+ * An entry is reused for every visit of its instance until it is cancelled. It fires every
+ * {@link #getInterval()} wheel ticks, on ticks congruent to its {@link #getPhase()}.</p>
+ */
+public final class ScheduledTick {
+
+    private final AfflictionInstance instance;
+    private final TickPlan plan;
+    private final long interval;
+    private final int phase;
+
+    long dueTick;
+    boolean cancelled;
+    @Nullable ScheduledTick next;
+
+    public ScheduledTick(@NotNull AfflictionInstance instance, @NotNull TickPlan plan) {
+        this(instance, plan, plan.getBaseInterval(), 0);
+    }
+
+    public ScheduledTick(@NotNull AfflictionInstance instance, @NotNull TickPlan plan, long interval, int phase) {
+        this.instance = instance;
+        this.plan = plan;
+        this.interval = Math.max(1, interval);
+        this.phase = phase;
+    }
+
+    public @NotNull AfflictionInstance getInstance() {
+        return instance;
+    }
+
+    public @NotNull TickPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Get the interval between visits, in wheel ticks.
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Get the phase offset of this entry within its interval, in wheel ticks.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Get the wheel tick this entry is due on.
+     */
+    public long getDueTick() {
+        return dueTick;
+    }
+
+    /**
+     * Mark this entry as cancelled. It is dropped the next time the wheel reaches it.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import com.dnocturne.afflictions.api.affliction.Affliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.basalt.component.Component;
+import com.dnocturne.basalt.component.Tickable;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, precompiled view of an affliction's components used by the tick loop.
+ *
+ * <p>Components are flattened into an array once, and tickables are grouped by their
+ * tick interval so the tick loop never has to type-check components or re-read intervals.
+ * The base interval is the greatest common divisor of all group intervals: an instance
+ * only needs to be visited on multiples of it.</p>
+ *
+ * <p>The arrays returned by this class are shared and must not be modified.</p>
+ */
+public final class TickPlan {
+
+    private final Affliction affliction;
+    private final Component<Player, AfflictionInstance>[] components;
+    private final int[] intervals;
+    private final Tickable<Player, AfflictionInstance>[][] tickables;
+    private final int baseInterval;
+
+    private TickPlan(Affliction affliction,
+                     Component<Player, AfflictionInstance>[] components,
+                     int[] intervals,
+                     Tickable<Player, AfflictionInstance>[][] tickables,
+                     int baseInterval) {
+        this.affliction = affliction;
+        this.components = components;
+        this.intervals = intervals;
+        this.tickables = tickables;
+        this.baseInterval = baseInterval;
+    }
+
+    /**
+     * Compile the tick plan for an affliction.
+     *
+     * @param affliction The affliction
+     * @return The compiled plan
+     */
+    @SuppressWarnings("unchecked")
+    public static @NotNull TickPlan compile(@NotNull Affliction affliction) {
+        List<Component<Player, AfflictionInstance>> componentList = new ArrayList<>(affliction.getComponents());
+        Map<Integer, List<Tickable<Player, AfflictionInstance>>> byInterval = new TreeMap<>();
+
+        for (Component<Player, AfflictionInstance> component : componentList) {
+            if (component instanceof Tickable<Player, AfflictionInstance> tickable) {
+                int interval = Math.max(1, tickable.getTickInterval());
+                byInterval.computeIfAbsent(interval, k -> new ArrayList<>()).add(tickable);
+            }
+        }
+
+        int[] intervals = new int[byInterval.size()];
+        Tickable<Player, AfflictionInstance>[][] tickables = new Tickable[byInterval.size()][];
+        int baseInterval = 0;
+        int group = 0;
+        for (Map.Entry<Integer, List<Tickable<Player, AfflictionInstance>>> entry : byInterval.entrySet()) {
+            intervals[group] = entry.getKey();
+            tickables[group] = entry.getValue().toArray(new Tickable[0]);
+            baseInterval = gcd(baseInterval, entry.getKey());
+            group++;
+        }
+
+        return new TickPlan(
+                affliction,
+                componentList.toArray(new Component[0]),
+                intervals,
+                tickables,
+                Math.max(1, baseInterval)
+        );
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Get the affliction this plan was compiled from.
+     */
+    public @NotNull Affliction getAffliction() {
+        return affliction;
+    }
+
+    /**
+     * Get all components of the affliction, in declaration order.
+     */
+    public @NotNull Component<Player, AfflictionInstance>[] getComponents() {
+        return components;
+    }
+
+    /**
+     * Check if the affliction has any tickable components.
+     */
+    public boolean hasTickables() {
+        return intervals.length > 0;
+    }
+
+    /**
+     * Get the number of interval groups.
+     */
+    public int getGroupCount() {
+        return intervals.length;
+    }
+
+    /**
+     * Get the tick interval shared by a group.
+     *
+     * @param group The group index
+     */
+    public int getGroupInterval(int group) {
+        return intervals[group];
+    }
+
+    /**
+     * Get the tickables of a group.
+     *
+     * @param group The group index
+     */
+    public @NotNull Tickable<Player, AfflictionInstance>[] getGroupTickables(int group) {
+        return tickables[group];
+    }
+
+    /**
+     * Get the greatest common divisor of all group intervals, or 1 if there are none.
+     */
+    public int getBaseInterval() {
+        return baseInterval;
+    }
+}
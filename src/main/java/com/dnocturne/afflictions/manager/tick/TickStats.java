@@ -0,0 +1,106 @@
+package com.dnocturne.afflictions.manager.tick;
+
+/**
+ * Running statistics for the affliction tick loop.
+ *
+ * <p>Only written from the tick thread. Reads from other threads may see slightly stale values.</p>
+ */
+public final class TickStats {
+
+    private volatile long passes;
+    private volatile long overruns;
+    private volatile long deferred;
+    private volatile long maxDeferralTicks;
+    private volatile long lastPassNanos;
+    private volatile long maxPassNanos;
+    private volatile int queued;
+
+    /**
+     * Record a completed pass of the tick loop.
+     *
+     * @param elapsedNanos Time spent in the pass
+     * @param overrun      Whether the pass ran out of budget
+     * @param queued       Entries carried over to the next pass
+     */
+    public void recordPass(long elapsedNanos, boolean overrun, int queued) {
+        passes++;
+        if (overrun) {
+            overruns++;
+        }
+        lastPassNanos = elapsedNanos;
+        if (elapsedNanos > maxPassNanos) {
+            maxPassNanos = elapsedNanos;
+        }
+        this.queued = queued;
+    }
+
+    /**
+     * Record an entry that was carried over to a later pass.
+     */
+    public void recordDeferred() {
+        deferred++;
+    }
+
+    /**
+     * Record how late a deferred entry eventually ran.
+     *
+     * @param ticks Delay in server ticks
+     */
+    public void recordDeferralLatency(long ticks) {
+        if (ticks > maxDeferralTicks) {
+            maxDeferralTicks = ticks;
+        }
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        passes = 0;
+        overruns = 0;
+        deferred = 0;
+        maxDeferralTicks = 0;
+        lastPassNanos = 0;
+        maxPassNanos = 0;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    /**
+     * Get the number of passes that ran out of budget.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Get the total number of entries carried over to a later pass.
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+
+    /**
+     * Get the longest delay of a deferred entry, in server ticks.
+     */
+    public long getMaxDeferralTicks() {
+        return maxDeferralTicks;
+    }
+
+    public long getLastPassNanos() {
+        return lastPassNanos;
+    }
+
+    public long getMaxPassNanos() {
+        return maxPassNanos;
+    }
+
+    /**
+     * Get the number of entries waiting to be carried over.
+     */
+    public int getQueued() {
+        return queued;
+    }
+}
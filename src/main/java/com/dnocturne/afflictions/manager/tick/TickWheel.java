@@ -0,0 +1,153 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel that buckets {@link ScheduledTick}s by the tick they are due on.
+ *
+ * <p>The inner wheel has one bucket per tick for the next 256 ticks. The outer wheel has one
+ * bucket per 256-tick block for the next 65,536 ticks, and is cascaded into the inner wheel
+ * whenever a new block starts. Anything further out waits in an overflow list that is
+ * re-examined each time the outer wheel wraps around.</p>
+ *
+ * <p>Advancing the wheel only touches the entries that are due, so components with long
+ * intervals cost nothing on the ticks in between.</p>
+ *
+ * <p>This class is not thread-safe and must be driven from a single thread.</p>
+ */
+public final class TickWheel {
+
+    private static final int BITS = 8;
+    private static final int SIZE = 1 << BITS;
+    private static final int MASK = SIZE - 1;
+    private static final long SPAN = (long) SIZE * SIZE;
+
+    private final ScheduledTick[] inner = new ScheduledTick[SIZE];
+    private final ScheduledTick[] outer = new ScheduledTick[SIZE];
+    private @Nullable ScheduledTick overflow;
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * Get the tick the wheel was last advanced to.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get the number of entries held by the wheel, including cancelled entries
+     * that have not been reached yet.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule an entry to run on the given tick.
+     * Ticks that are not in the future are moved to the next tick.
+     *
+     * @param entry   The entry to schedule (must not currently be scheduled)
+     * @param dueTick The tick the entry should run on
+     */
+    public void schedule(@NotNull ScheduledTick entry, long dueTick) {
+        entry.dueTick = Math.max(dueTick, currentTick + 1);
+        insert(entry);
+        size++;
+    }
+
+    /**
+     * Schedule an entry on the first tick after the current one that is congruent to its
+     * phase modulo its interval. With a phase of zero this matches checking
+     * {@code tick % interval == 0} on every tick.
+     *
+     * @param entry The entry to schedule
+     */
+    public void scheduleAligned(@NotNull ScheduledTick entry) {
+        long next = currentTick + 1;
+        schedule(entry, next + Math.floorMod(entry.getPhase() - next, entry.getInterval()));
+    }
+
+    /**
+     * Advance the wheel by one tick and hand every due, non-cancelled entry to the handler.
+     *
+     * <p>Entries are unlinked before the handler runs, so the handler may reschedule them.</p>
+     *
+     * @param handler Callback for each due entry
+     */
+    public void advance(@NotNull Consumer<ScheduledTick> handler) {
+        long tick = ++currentTick;
+
+        if ((tick & MASK) == 0) {
+            int outerIndex = (int) ((tick >>> BITS) & MASK);
+            ScheduledTick cascading = outer[outerIndex];
+            outer[outerIndex] = null;
+            reinsert(cascading);
+
+            if (outerIndex == 0) {
+                ScheduledTick far = overflow;
+                overflow = null;
+                reinsert(far);
+            }
+        }
+
+        int index = (int) (tick & MASK);
+        ScheduledTick entry = inner[index];
+        inner[index] = null;
+
+        while (entry != null) {
+            ScheduledTick next = entry.next;
+            entry.next = null;
+            size--;
+            if (!entry.cancelled) {
+                handler.accept(entry);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Drop every entry from the wheel.
+     */
+    public void clear() {
+        for (int i = 0; i < SIZE; i++) {
+            inner[i] = null;
+            outer[i] = null;
+        }
+        overflow = null;
+        size = 0;
+    }
+
+    private void insert(ScheduledTick entry) {
+        long delta = entry.dueTick - currentTick;
+        if (delta < SIZE) {
+            int index = (int) (entry.dueTick & MASK);
+            entry.next = inner[index];
+            inner[index] = entry;
+        } else if (delta < SPAN) {
+            int index = (int) ((entry.dueTick >>> BITS) & MASK);
+            entry.next = outer[index];
+            outer[index] = entry;
+        } else {
+            entry.next = overflow;
+            overflow = entry;
+        }
+    }
+
+    private void reinsert(@Nullable ScheduledTick entry) {
+        while (entry != null) {
+            ScheduledTick next = entry.next;
+            entry.next = null;
+            if (entry.cancelled) {
+                size--;
+            } else {
+                insert(entry);
+            }
+            entry = next;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.dnocturne.afflictions.player;
 
 import com.dnocturne.afflictions.api.affliction.AfflictionCategory;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
@@ -13,6 +12,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a player's affliction state.
@@ -24,6 +24,12 @@ public class AfflictedPlayer {
 
     private final UUID uuid;
     private final Map<String, AfflictionInstance> activeAfflictions = new ConcurrentHashMap<>();
+    private int tickSlot = -1;
+
+    // Bumped when afflictions are added or removed. On removal the instance's own version
+    // is folded in as well, so the combined version never goes backwards.
+    private final AtomicLong structureVersion = new AtomicLong();
+    private volatile long savedVersion;
 
     public AfflictedPlayer(UUID uuid) {
         this.uuid = uuid;
@@ -37,14 +43,33 @@ public class AfflictedPlayer {
      * Get the Bukkit player if online.
      */
     public Optional<Player> getPlayer() {
-        return Optional.ofNullable(Bukkit.getPlayer(uuid));
+        return Optional.ofNullable(OnlinePlayerIndex.lookup(uuid));
     }
 
     /**
      * Check if the player is online.
      */
     public boolean isOnline() {
-        return Bukkit.getPlayer(uuid) != null;
+        return OnlinePlayerIndex.lookup(uuid) != null;
+    }
+
+    /**
+     * Get the phase slot this player is ticked in when staggered ticking is enabled.
+     * Only accessed from the tick thread.
+     *
+     * @return The slot, or -1 if none is assigned
+     */
+    public int getTickSlot() {
+        return tickSlot;
+    }
+
+    /**
+     * Set the phase slot this player is ticked in.
+     *
+     * @param tickSlot The slot, or -1 to clear it
+     */
+    public void setTickSlot(int tickSlot) {
+        this.tickSlot = tickSlot;
     }
 
     /**
@@ -59,6 +84,7 @@ public class AfflictedPlayer {
             return false;
         }
         activeAfflictions.put(id, instance);
+        structureVersion.incrementAndGet();
         return true;
     }
 
@@ -69,7 +95,11 @@ public class AfflictedPlayer {
      * @return The removed affliction instance, or empty if not found
      */
     public Optional<AfflictionInstance> removeAffliction(String afflictionId) {
-        return Optional.ofNullable(activeAfflictions.remove(afflictionId.toLowerCase()));
+        AfflictionInstance removed = activeAfflictions.remove(afflictionId.toLowerCase());
+        if (removed != null) {
+            structureVersion.addAndGet(removed.getVersion() + 1);
+        }
+        return Optional.ofNullable(removed);
     }
 
     /**
@@ -119,7 +149,43 @@ public class AfflictedPlayer {
      * Clear all afflictions from this player.
      */
     public void clearAfflictions() {
+        long removedVersions = 0;
+        for (AfflictionInstance instance : activeAfflictions.values()) {
+            removedVersions += instance.getVersion();
+        }
         activeAfflictions.clear();
+        structureVersion.addAndGet(removedVersions + 1);
+    }
+
+    /**
+     * Get a version stamp covering this player's afflictions and their state.
+     * It increases whenever an affliction is added or removed or any instance changes.
+     */
+    public long getVersion() {
+        long version = structureVersion.get();
+        for (AfflictionInstance instance : activeAfflictions.values()) {
+            version += instance.getVersion();
+        }
+        return version;
+    }
+
+    /**
+     * Check whether anything changed since the last {@link #markSaved(long)}.
+     */
+    public boolean isDirty() {
+        return getVersion() != savedVersion;
+    }
+
+    /**
+     * Record that the state at the given version has been persisted.
+     * A version older than the one already recorded is ignored.
+     *
+     * @param version The version that was snapshotted for the save
+     */
+    public synchronized void markSaved(long version) {
+        if (version > savedVersion) {
+            savedVersion = version;
+        }
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.dnocturne.afflictions.player;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index from UUID to the live {@link Player} handle of online players, kept up to date
+ * by join and quit events.
+ *
+ * <p>Handles are held weakly so a missed quit can never keep a player object alive,
+ * and a handle whose player is no longer online is dropped. A cleared, stale or missing
+ * handle falls back to {@link Bukkit#getPlayer(UUID)} and re-indexes the result, so
+ * lookups stay correct even if an event was missed.</p>
+ *
+ * <p>An offline result is remembered for a few seconds, so repeated lookups of offline
+ * players do not go to Bukkit every time. Joining clears it.</p>
+ */
+public final class OnlinePlayerIndex {
+
+    /**
+     * How long an offline lookup result is reused.
+     */
+    private static final long OFFLINE_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Offline results kept before they are all dropped, so lookups of many
+     * different UUIDs cannot grow the index without bound.
+     */
+    private static final int MAX_OFFLINE_ENTRIES = 4096;
+
+    private final Map<UUID, WeakReference<Player>> players = new ConcurrentHashMap<>();
+    // UUID -> System.nanoTime() until which the player is known to be offline
+    private final Map<UUID, Long> offline = new ConcurrentHashMap<>();
+
+    /**
+     * Index a player that has joined.
+     */
+    public void add(@NotNull Player player) {
+        players.put(player.getUniqueId(), new WeakReference<>(player));
+        offline.remove(player.getUniqueId());
+    }
+
+    /**
+     * Remove a player that has left.
+     */
+    public void remove(@NotNull UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * Get the live handle of an online player.
+     *
+     * @param uuid The player's UUID
+     * @return The player, or null if offline
+     */
+    public @Nullable Player get(@NotNull UUID uuid) {
+        WeakReference<Player> ref = players.get(uuid);
+        if (ref != null) {
+            Player player = ref.get();
+            if (player != null && player.isOnline()) {
+                return player;
+            }
+            players.remove(uuid, ref);
+        }
+
+        long now = System.nanoTime();
+        Long offlineUntil = offline.get(uuid);
+        if (offlineUntil != null) {
+            if (now - offlineUntil < 0) {
+                return null;
+            }
+            offline.remove(uuid, offlineUntil);
+        }
+
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            add(player);
+        } else {
+            if (offline.size() >= MAX_OFFLINE_ENTRIES) {
+                offline.clear();
+            }
+            offline.put(uuid, now + OFFLINE_TTL_NANOS);
+        }
+        return player;
+    }
+
+    /**
+     * Get the number of indexed players.
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Remove every indexed player.
+     */
+    public void clear() {
+        players.clear();
+        offline.clear();
+    }
+
+    /**
+     * Look up an online player through the running plugin's index,
+     * or directly through Bukkit if the plugin is not enabled.
+     *
+     * @param uuid The player's UUID
+     * @return The player, or null if offline
+     */
+    public static @Nullable Player lookup(@NotNull UUID uuid) {
+        Afflictions plugin = Afflictions.getInstance();
+        AfflictionManager manager = plugin != null ? plugin.getAfflictionManager() : null;
+        return manager != null ? manager.getOnlinePlayers().get(uuid) : Bukkit.getPlayer(uuid);
+    }
+}
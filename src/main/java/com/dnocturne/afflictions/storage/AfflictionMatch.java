@@ -0,0 +1,20 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A stored affliction that matched an {@link AfflictionQuery}, with its player.
+ *
+ * @param playerUuid The player's UUID
+ * @param username   The player's last known username
+ * @param affliction The matching affliction
+ */
+public record AfflictionMatch(
+        @NotNull UUID playerUuid,
+        @NotNull String username,
+        @NotNull AfflictionData affliction
+) {
+}
@@ -0,0 +1,29 @@
+package com.dnocturne.afflictions.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A page of matches read by {@link AfflictionStorage#query(AfflictionQuery, String)}.
+ *
+ * @param matches    The matches on this page, possibly empty
+ * @param nextCursor The cursor for the next page, or null if this is the last page
+ */
+public record AfflictionMatchPage(
+        @NotNull List<AfflictionMatch> matches,
+        @Nullable String nextCursor
+) {
+
+    public AfflictionMatchPage {
+        matches = List.copyOf(matches);
+    }
+
+    /**
+     * Check whether there are no more pages after this one.
+     */
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,251 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.api.affliction.AfflictionCategory;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A filter over stored afflictions, for questions such as "all players with
+ * vampirism at level 3 or higher" without loading players one by one.
+ *
+ * <p>Every filter that is set must match. Categories are not stored, so a query by
+ * category is turned into a query by affliction ID before it reaches storage; see
+ * {@link #resolveCategory}.</p>
+ *
+ * <pre>{@code
+ * AfflictionQuery query = AfflictionQuery.builder()
+ *         .afflictionId("vampirism")
+ *         .minLevel(3)
+ *         .limit(50)
+ *         .build();
+ * }</pre>
+ */
+public final class AfflictionQuery {
+
+    /**
+     * Page size used when none is given.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final @Nullable Set<String> afflictionIds;
+    private final @Nullable AfflictionCategory category;
+    private final int minLevel;
+    private final int maxLevel;
+    private final long contractedAfter;
+    private final long contractedBefore;
+    private final int limit;
+
+    private AfflictionQuery(Builder builder) {
+        this.afflictionIds = builder.afflictionIds != null ? Set.copyOf(builder.afflictionIds) : null;
+        this.category = builder.category;
+        this.minLevel = builder.minLevel;
+        this.maxLevel = builder.maxLevel;
+        this.contractedAfter = builder.contractedAfter;
+        this.contractedBefore = builder.contractedBefore;
+        this.limit = builder.limit;
+    }
+
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the affliction IDs to match, or null to match any affliction.
+     * An empty set matches nothing.
+     */
+    public @Nullable Set<String> getAfflictionIds() {
+        return afflictionIds;
+    }
+
+    /**
+     * Get the category to match, or null if not filtered by category.
+     */
+    public @Nullable AfflictionCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Get the lowest level to match, inclusive.
+     */
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    /**
+     * Get the highest level to match, inclusive.
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Get the earliest contraction time to match in epoch milliseconds, inclusive.
+     */
+    public long getContractedAfter() {
+        return contractedAfter;
+    }
+
+    /**
+     * Get the contraction time in epoch milliseconds that matches must be before.
+     */
+    public long getContractedBefore() {
+        return contractedBefore;
+    }
+
+    /**
+     * Get the maximum number of matches per page.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Check whether the query can match anything at all.
+     */
+    public boolean isEmpty() {
+        return (afflictionIds != null && afflictionIds.isEmpty())
+                || minLevel > maxLevel
+                || contractedAfter >= contractedBefore;
+    }
+
+    /**
+     * Check whether a stored affliction matches the ID, level and time filters.
+     * The category filter is not checked; resolve it first.
+     */
+    public boolean matches(@NotNull AfflictionData affliction) {
+        return (afflictionIds == null || afflictionIds.contains(affliction.afflictionId()))
+                && affliction.level() >= minLevel
+                && affliction.level() <= maxLevel
+                && affliction.contractedAt() >= contractedAfter
+                && affliction.contractedAt() < contractedBefore;
+    }
+
+    /**
+     * Replace the category filter with the IDs of the afflictions in that category.
+     *
+     * @param idsInCategory Looks up the IDs of the afflictions in a category
+     * @return A query without a category filter; this query if it had none
+     */
+    public @NotNull AfflictionQuery resolveCategory(
+            @NotNull Function<AfflictionCategory, Collection<String>> idsInCategory) {
+        if (category == null) {
+            return this;
+        }
+
+        Set<String> ids = new HashSet<>(idsInCategory.apply(category));
+        if (afflictionIds != null) {
+            ids.retainAll(afflictionIds);
+        }
+        Builder builder = toBuilder();
+        builder.category = null;
+        builder.afflictionIds = ids;
+        return builder.build();
+    }
+
+    private Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.afflictionIds = afflictionIds;
+        builder.category = category;
+        builder.minLevel = minLevel;
+        builder.maxLevel = maxLevel;
+        builder.contractedAfter = contractedAfter;
+        builder.contractedBefore = contractedBefore;
+        builder.limit = limit;
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return "AfflictionQuery{ids=" + afflictionIds + ", category=" + category
+                + ", level=" + minLevel + ".." + maxLevel
+                + ", contracted=" + contractedAfter + ".." + contractedBefore
+                + ", limit=" + limit + "}";
+    }
+
+    /**
+     * Builder for creating queries.
+     */
+    public static final class Builder {
+        private @Nullable Set<String> afflictionIds;
+        private @Nullable AfflictionCategory category;
+        private int minLevel = Integer.MIN_VALUE;
+        private int maxLevel = Integer.MAX_VALUE;
+        private long contractedAfter = Long.MIN_VALUE;
+        private long contractedBefore = Long.MAX_VALUE;
+        private int limit = DEFAULT_LIMIT;
+
+        private Builder() {
+        }
+
+        /**
+         * Match afflictions with any of the given IDs. May be called more than once.
+         */
+        public @NotNull Builder afflictionId(@NotNull String... ids) {
+            return afflictionIds(List.of(ids));
+        }
+
+        /**
+         * Match afflictions with any of the given IDs. May be called more than once.
+         */
+        public @NotNull Builder afflictionIds(@NotNull Collection<String> ids) {
+            if (afflictionIds == null) {
+                afflictionIds = new HashSet<>();
+            }
+            afflictionIds.addAll(ids);
+            return this;
+        }
+
+        public @NotNull Builder category(@NotNull AfflictionCategory category) {
+            this.category = category;
+            return this;
+        }
+
+        public @NotNull Builder minLevel(int minLevel) {
+            this.minLevel = minLevel;
+            return this;
+        }
+
+        public @NotNull Builder maxLevel(int maxLevel) {
+            this.maxLevel = maxLevel;
+            return this;
+        }
+
+        /**
+         * Match afflictions contracted at or after a time, in epoch milliseconds.
+         */
+        public @NotNull Builder contractedAfter(long epochMillis) {
+            this.contractedAfter = epochMillis;
+            return this;
+        }
+
+        /**
+         * Match afflictions contracted before a time, in epoch milliseconds.
+         */
+        public @NotNull Builder contractedBefore(long epochMillis) {
+            this.contractedBefore = epochMillis;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of matches per page.
+         */
+        public @NotNull Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive, got: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public @NotNull AfflictionQuery build() {
+            return new AfflictionQuery(this);
+        }
+    }
+}
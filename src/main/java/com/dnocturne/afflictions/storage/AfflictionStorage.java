@@ -0,0 +1,158 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.basalt.storage.Storage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for player affliction data with support for batched writes.
+ */
+public interface AfflictionStorage extends Storage<PlayerAfflictionData> {
+
+    /**
+     * Players read per page when a query falls back to scanning.
+     */
+    int SCAN_PAGE_SIZE = 500;
+
+    /**
+     * Save several players in a single transaction.
+     *
+     * <p>Blocks the calling thread. Intended for the storage writer thread; other
+     * callers should go through {@link StorageManager#save(PlayerAfflictionData)}.</p>
+     *
+     * @param batch The player data to save
+     * @throws SQLException if the transaction fails; no player in the batch is saved
+     */
+    void saveBatch(@NotNull Collection<PlayerAfflictionData> batch) throws SQLException;
+
+    /**
+     * Read a page of stored players, for streaming every player without holding them
+     * all in memory.
+     *
+     * <p>Blocks the calling thread. Cursors are opaque and only meaningful to the
+     * storage that returned them. Players saved while paging may or may not be
+     * included.</p>
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param limit  Maximum number of players on the page
+     * @return The page
+     * @throws SQLException if the players cannot be read
+     */
+    @NotNull PlayerPage loadPage(@Nullable String cursor, int limit) throws SQLException;
+
+    /**
+     * Load a player by username, falling back to UUID if no player has that username.
+     * Used for offline-mode servers, where a player's UUID may have changed.
+     *
+     * <p>The default implementation runs the two lookups one after the other;
+     * implementations should resolve both keys in a single query where they can.</p>
+     *
+     * @param username The username (case-insensitive)
+     * @param uuid     The UUID to fall back to
+     * @return The player data, if either key matches
+     */
+    default @NotNull CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(
+            @NotNull String username, @NotNull UUID uuid) {
+        return loadByName(username).thenCompose(dataOpt -> dataOpt.isPresent()
+                ? CompletableFuture.completedFuture(dataOpt)
+                : load(uuid));
+    }
+
+    /**
+     * Read a page of stored afflictions that match a query.
+     *
+     * <p>Blocks the calling thread. Cursors are opaque and only meaningful to the
+     * storage that returned them. The query's category must already be resolved to
+     * affliction IDs; see {@link AfflictionQuery#resolveCategory}.</p>
+     *
+     * <p>The default implementation scans every player with {@link #loadPage};
+     * implementations should use an index where they can.</p>
+     *
+     * @param query  The filters and page size
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @return The page
+     * @throws SQLException if the afflictions cannot be read
+     */
+    default @NotNull AfflictionMatchPage query(@NotNull AfflictionQuery query, @Nullable String cursor)
+            throws SQLException {
+        if (query.isEmpty()) {
+            return new AfflictionMatchPage(List.of(), null);
+        }
+
+        // The cursor is the page the scan stopped in and how many of its matches were returned
+        String pageCursor = null;
+        int skip = 0;
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf('|');
+            try {
+                skip = Integer.parseInt(cursor.substring(separator + 1));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new SQLException("Invalid query cursor '" + cursor + "'", e);
+            }
+            pageCursor = separator > 0 ? cursor.substring(0, separator) : null;
+        }
+
+        List<AfflictionMatch> matches = new ArrayList<>();
+        while (true) {
+            PlayerPage page = loadPage(pageCursor, SCAN_PAGE_SIZE);
+            int seen = 0;
+            for (PlayerAfflictionData player : page.players()) {
+                for (AfflictionData affliction : player.afflictions()) {
+                    if (!query.matches(affliction) || seen++ < skip) {
+                        continue;
+                    }
+                    if (matches.size() == query.getLimit()) {
+                        return new AfflictionMatchPage(matches,
+                                (pageCursor != null ? pageCursor : "") + "|" + (seen - 1));
+                    }
+                    matches.add(new AfflictionMatch(player.uuid(), player.username(), affliction));
+                }
+            }
+            if (page.isLast()) {
+                return new AfflictionMatchPage(matches, null);
+            }
+            pageCursor = page.nextCursor();
+            skip = 0;
+        }
+    }
+
+    /**
+     * Count the players with at least one stored affliction that matches a query.
+     *
+     * <p>Blocks the calling thread. The query's category must already be resolved and
+     * its limit is ignored. The default implementation scans every player with
+     * {@link #loadPage}.</p>
+     *
+     * @param query The filters
+     * @return The number of matching players
+     * @throws SQLException if the afflictions cannot be read
+     */
+    default long count(@NotNull AfflictionQuery query) throws SQLException {
+        if (query.isEmpty()) {
+            return 0;
+        }
+
+        long players = 0;
+        String cursor = null;
+        do {
+            PlayerPage page = loadPage(cursor, SCAN_PAGE_SIZE);
+            for (PlayerAfflictionData player : page.players()) {
+                if (player.afflictions().stream().anyMatch(query::matches)) {
+                    players++;
+                }
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return players;
+    }
+}
@@ -0,0 +1,187 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.afflictions.manager.tick.RegionTickScheduler;
+import com.dnocturne.afflictions.player.AfflictedPlayer;
+import com.dnocturne.afflictions.storage.data.InstanceDataCodec;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.basalt.util.TaskUtil;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Periodically saves online players whose afflictions changed since their last save.
+ *
+ * <p>Each cycle queues the online players and snapshots at most a fixed number of
+ * them per server tick, so a large server does not pay for every player in a single
+ * tick. Only players with unsaved changes (see {@link AfflictedPlayer#isDirty()}) are
+ * snapshotted. Snapshots are handed to the {@link WriteBehindQueue}, which serializes
+ * and writes them on its own thread.</p>
+ *
+ * <p>On Folia each player is snapshotted on their own entity scheduler instead.</p>
+ */
+public class AutoSaveTask {
+
+    private final Afflictions plugin;
+    private final AfflictionManager afflictionManager;
+    private final StorageManager storageManager;
+    private final Logger logger;
+
+    private final ArrayDeque<UUID> cycle = new ArrayDeque<>();
+    private int playersPerTick = 25;
+    private int cycleSaved;
+
+    private @Nullable BukkitTask cycleTask;
+    private @Nullable BukkitTask stepTask;
+    private @Nullable ScheduledTask regionTask;
+
+    public AutoSaveTask(@NotNull Afflictions plugin, @NotNull AfflictionManager afflictionManager,
+                        @NotNull StorageManager storageManager) {
+        this.plugin = plugin;
+        this.afflictionManager = afflictionManager;
+        this.storageManager = storageManager;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * Start saving periodically.
+     *
+     * @param intervalSeconds Seconds between save cycles; 0 or less disables auto-save
+     * @param playersPerTick  Maximum players snapshotted per server tick
+     */
+    public void start(long intervalSeconds, int playersPerTick) {
+        stop();
+        if (intervalSeconds <= 0) {
+            logger.info("Auto-save disabled");
+            return;
+        }
+
+        this.playersPerTick = Math.max(1, playersPerTick);
+        long intervalTicks = intervalSeconds * 20L;
+
+        if (RegionTickScheduler.isFolia()) {
+            regionTask = plugin.getServer().getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, task -> startRegionCycle(), intervalTicks, intervalTicks);
+        } else {
+            cycleTask = TaskUtil.runTimer(this::startCycle, intervalTicks, intervalTicks);
+        }
+        logger.info("Auto-save enabled (every " + intervalSeconds + "s, up to "
+                + this.playersPerTick + " players per tick)");
+    }
+
+    /**
+     * Stop saving periodically. Players still waiting in the current cycle are dropped.
+     */
+    public void stop() {
+        if (cycleTask != null) {
+            cycleTask.cancel();
+            cycleTask = null;
+        }
+        if (stepTask != null) {
+            stepTask.cancel();
+            stepTask = null;
+        }
+        if (regionTask != null) {
+            regionTask.cancel();
+            regionTask = null;
+        }
+        cycle.clear();
+    }
+
+    /**
+     * Queue a save for every online player with unsaved changes, without a per-tick limit.
+     * Used during shutdown before the write queue is drained.
+     *
+     * @return The number of players queued for saving
+     */
+    public int saveAllNow() {
+        int saved = 0;
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            if (saveIfDirty(player.getUniqueId())) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    private void startCycle() {
+        if (!cycle.isEmpty()) {
+            // Previous cycle is still running; let it finish
+            return;
+        }
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            cycle.add(player.getUniqueId());
+        }
+        cycleSaved = 0;
+
+        if (!cycle.isEmpty() && stepTask == null) {
+            stepTask = TaskUtil.runTimer(this::step, 1L, 1L);
+        }
+    }
+
+    private void step() {
+        int snapshots = 0;
+        while (snapshots < playersPerTick && !cycle.isEmpty()) {
+            if (saveIfDirty(cycle.poll())) {
+                snapshots++;
+            }
+        }
+        cycleSaved += snapshots;
+
+        if (cycle.isEmpty()) {
+            if (stepTask != null) {
+                stepTask.cancel();
+                stepTask = null;
+            }
+            if (cycleSaved > 0) {
+                logger.fine("Auto-saved " + cycleSaved + " player(s)");
+            }
+        }
+    }
+
+    private void startRegionCycle() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            player.getScheduler().run(plugin, task -> saveIfDirty(uuid), null);
+        }
+    }
+
+    /**
+     * Snapshot and queue a player if they have unsaved changes.
+     *
+     * @return true if a snapshot was queued
+     */
+    private boolean saveIfDirty(UUID uuid) {
+        Optional<AfflictedPlayer> afflictedOpt = afflictionManager.getPlayerManager().get(uuid);
+        if (afflictedOpt.isEmpty() || !afflictedOpt.get().isDirty()) {
+            return false;
+        }
+
+        Player player = afflictionManager.getOnlinePlayers().get(uuid);
+        if (player == null) {
+            // Left since the cycle started; the quit handler saves them
+            return false;
+        }
+
+        AfflictedPlayer afflicted = afflictedOpt.get();
+        long version = afflicted.getVersion();
+        PlayerAfflictionData snapshot = InstanceDataCodec.encodePlayer(
+                uuid, player.getName(), afflicted.getAfflictions());
+
+        // Failures are logged by the storage writer and leave the player dirty for the next cycle
+        storageManager.save(snapshot)
+                .thenRun(() -> afflicted.markSaved(version))
+                .exceptionally(ex -> null);
+        return true;
+    }
+}
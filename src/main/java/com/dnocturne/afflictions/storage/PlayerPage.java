@@ -0,0 +1,30 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A page of players read by {@link AfflictionStorage#loadPage(String, int)}.
+ *
+ * @param players    The players on this page, possibly empty
+ * @param nextCursor The cursor for the next page, or null if this is the last page
+ */
+public record PlayerPage(
+        @NotNull List<PlayerAfflictionData> players,
+        @Nullable String nextCursor
+) {
+
+    public PlayerPage {
+        players = List.copyOf(players);
+    }
+
+    /**
+     * Check whether there are no more pages after this one.
+     */
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
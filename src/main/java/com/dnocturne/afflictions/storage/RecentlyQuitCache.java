@@ -0,0 +1,194 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the last snapshot of players who recently quit, so a quick rejoin is
+ * restored from memory instead of storage.
+ *
+ * <p>Entries expire after a fixed time and the oldest entries are dropped once the
+ * cache is full. A hit removes the entry: once the player is back online their
+ * in-memory state is the source of truth again.</p>
+ */
+public final class RecentlyQuitCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Insertion order doubles as expiry order, since every entry has the same TTL
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Entry(PlayerAfflictionData data, long expiresAt) {
+    }
+
+    /**
+     * @param maxEntries Maximum number of players kept; 0 disables the cache
+     * @param ttlMillis  How long a snapshot is kept after quitting
+     */
+    public RecentlyQuitCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+    }
+
+    /**
+     * Remember a player's snapshot as they quit. Replaces any earlier snapshot.
+     */
+    public void put(@NotNull PlayerAfflictionData data) {
+        if (maxEntries == 0 || ttlNanos == 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(data.uuid());
+            entries.put(data.uuid(), new Entry(data, System.nanoTime() + ttlNanos));
+            evict(System.nanoTime());
+        }
+    }
+
+    /**
+     * Replace the snapshot of a cached player with a newer one, without adding
+     * players who are not cached or refreshing their expiry.
+     */
+    public void update(@NotNull PlayerAfflictionData data) {
+        synchronized (entries) {
+            Entry entry = entries.get(data.uuid());
+            if (entry != null) {
+                entries.put(data.uuid(), new Entry(data, entry.expiresAt()));
+            }
+        }
+    }
+
+    /**
+     * Take a player's snapshot out of the cache.
+     *
+     * @param uuid The player UUID
+     * @return The snapshot, or null if the player is not cached or it expired
+     */
+    public @Nullable PlayerAfflictionData take(@NotNull UUID uuid) {
+        synchronized (entries) {
+            evict(System.nanoTime());
+            Entry entry = entries.remove(uuid);
+            return record(entry);
+        }
+    }
+
+    /**
+     * Take a player's snapshot out of the cache by username (case-insensitive).
+     *
+     * @param username The username
+     * @return The snapshot, or null if no cached player has that name
+     */
+    public @Nullable PlayerAfflictionData takeByName(@NotNull String username) {
+        synchronized (entries) {
+            evict(System.nanoTime());
+            return record(removeByName(username));
+        }
+    }
+
+    /**
+     * Take a player's snapshot out of the cache by username, or by UUID if no cached
+     * player has that username. Counts as a single lookup.
+     *
+     * @param username The username (case-insensitive)
+     * @param uuid     The UUID to fall back to
+     * @return The snapshot, or null if neither key is cached
+     */
+    public @Nullable PlayerAfflictionData takeByNameOrUuid(@NotNull String username, @NotNull UUID uuid) {
+        synchronized (entries) {
+            evict(System.nanoTime());
+            Entry entry = removeByName(username);
+            return record(entry != null ? entry : entries.remove(uuid));
+        }
+    }
+
+    /**
+     * Remove a player without counting a lookup.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        synchronized (entries) {
+            entries.remove(uuid);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private @Nullable Entry removeByName(String username) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.data().username().equalsIgnoreCase(username)) {
+                it.remove();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable PlayerAfflictionData record(@Nullable Entry entry) {
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.data();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entries.size() > maxEntries || now - entry.expiresAt() >= 0) {
+                it.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the fraction of lookups answered from the cache (0.0 to 1.0).
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Get the number of cached players, including any that expired but were not yet evicted.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -1,29 +1,82 @@
 package com.dnocturne.afflictions.storage;
 
 import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.api.affliction.Affliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionCategory;
+import com.dnocturne.afflictions.manager.AfflictionManager;
 import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.afflictions.storage.impl.MmapStorage;
+import com.dnocturne.afflictions.storage.impl.MySqlStorage;
 import com.dnocturne.afflictions.storage.impl.SQLiteStorage;
+import com.dnocturne.afflictions.storage.journal.MutationJournal;
+import com.dnocturne.afflictions.storage.migration.StorageMigration;
 import com.dnocturne.basalt.storage.Storage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages storage initialization and provides access to the active storage implementation.
+ *
+ * <p>Player saves go through a {@link WriteBehindQueue} so repeated saves for the same
+ * player are merged and written in batches off the main thread.</p>
+ *
+ * <p>Players who quit are kept in a {@link RecentlyQuitCache} for a short time, so a
+ * quick rejoin is restored from memory. Loads check that cache first, then saves that
+ * are still queued, then storage. The cache is off for shared backends, where the player
+ * may have played on another server in between.</p>
+ *
+ * <p>When enabled, a {@link MutationJournal} records changes between saves so they
+ * survive a crash. It is replayed into storage before the write queue starts.</p>
+ *
+ * <p>{@link #migrate} copies all players from one backend to another in the background.</p>
+ *
+ * <p>{@link #query}, {@link #count} and {@link #stream} search stored afflictions on
+ * a background thread without loading players one by one.</p>
  */
 public class StorageManager {
 
     private static final long INIT_TIMEOUT_SECONDS = 30;
     private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_WRITE_BATCH_SIZE = 64;
+    private static final int DEFAULT_RECENT_QUIT_SIZE = 512;
+    private static final long DEFAULT_RECENT_QUIT_TTL_SECONDS = 60;
+    private static final long DEFAULT_JOURNAL_COMMIT_INTERVAL_MS = 500;
+    private static final long DEFAULT_JOURNAL_CHECKPOINT_INTERVAL_SECONDS = 60;
+    private static final int DEFAULT_MIGRATION_BATCH_SIZE = 500;
+
+    /**
+     * Backend types that can be created, in the form used by {@link AfflictionStorage#getType()}.
+     */
+    public static final List<String> STORAGE_TYPES = List.of("sqlite", "mysql", "mmap");
 
     private final Afflictions plugin;
     private final Logger logger;
-    private @Nullable Storage<PlayerAfflictionData> storage;
+    private @Nullable AfflictionStorage storage;
+    private @Nullable WriteBehindQueue writeQueue;
+    private @Nullable MutationJournal journal;
+    private RecentlyQuitCache recentlyQuit = new RecentlyQuitCache(0, 0);
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private @Nullable ExecutorService queryExecutor;
 
     public StorageManager(Afflictions plugin) {
         this.plugin = plugin;
@@ -37,21 +90,40 @@ public class StorageManager {
      * @return true if successful
      */
     public boolean init() {
-        String type = plugin.getConfigManager().getMainConfig()
-                .getString("storage.type", "sqlite").toLowerCase();
+        String type = normalizeType(plugin.getConfigManager().getMainConfig()
+                .getString("storage.type", "sqlite"));
 
-        storage = switch (type) {
-            case "mysql", "mariadb" -> {
-                logger.warning("MySQL/MariaDB storage not yet implemented, falling back to SQLite");
-                yield new SQLiteStorage(plugin);
-            }
-            default -> new SQLiteStorage(plugin);
-        };
+        storage = createStorage(type != null ? type : "sqlite");
 
         try {
             boolean success = storage.init().get(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 
             if (success) {
+                int batchSize = plugin.getConfigManager().getMainConfig()
+                        .getInt("storage.write-batch-size", DEFAULT_WRITE_BATCH_SIZE);
+                if (batchSize <= 0) {
+                    logger.warning("Invalid write-batch-size " + batchSize + " in config, using default of "
+                            + DEFAULT_WRITE_BATCH_SIZE);
+                    batchSize = DEFAULT_WRITE_BATCH_SIZE;
+                }
+                journal = openJournal(storage);
+                writeQueue = journal != null
+                        ? new WriteBehindQueue(storage, logger, batchSize, journal::sync)
+                        : new WriteBehindQueue(storage, logger, batchSize);
+                // A snapshot from this server is stale if the player moved to another one sharing the database
+                recentlyQuit = isShared(storage.getType())
+                        ? new RecentlyQuitCache(0, 0)
+                        : new RecentlyQuitCache(
+                                plugin.getConfigManager().getMainConfig()
+                                        .getInt("storage.recent-quit-cache.size", DEFAULT_RECENT_QUIT_SIZE),
+                                TimeUnit.SECONDS.toMillis(plugin.getConfigManager().getMainConfig()
+                                        .getLong("storage.recent-quit-cache.ttl-seconds",
+                                                DEFAULT_RECENT_QUIT_TTL_SECONDS)));
+                queryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "Afflictions-Query");
+                    thread.setDaemon(true);
+                    return thread;
+                });
                 logger.info("Storage initialized: " + storage.getType());
             } else {
                 logger.severe("Failed to initialize storage!");
@@ -71,6 +143,64 @@ public class StorageManager {
         }
     }
 
+    /**
+     * Normalize a configured or typed backend name.
+     *
+     * @return One of {@link #STORAGE_TYPES}, or null if the name is not a known backend
+     */
+    public static @Nullable String normalizeType(@NotNull String type) {
+        String lower = type.toLowerCase();
+        if (lower.equals("mariadb")) {
+            return "mysql";
+        }
+        return STORAGE_TYPES.contains(lower) ? lower : null;
+    }
+
+    /**
+     * Check whether a backend may be shared by several servers, so that other servers
+     * can change players between this server's loads and saves.
+     */
+    public static boolean isShared(@NotNull String type) {
+        return type.equals("mysql");
+    }
+
+    private @NotNull AfflictionStorage createStorage(@NotNull String type) {
+        return switch (type) {
+            case "mysql" -> new MySqlStorage(plugin);
+            case "mmap" -> new MmapStorage(plugin);
+            default -> new SQLiteStorage(plugin);
+        };
+    }
+
+    /**
+     * Open the mutation journal if enabled, replaying any left by an unclean shutdown.
+     *
+     * @return The started journal, or null if disabled or unusable
+     */
+    private @Nullable MutationJournal openJournal(@NotNull AfflictionStorage storage) {
+        var config = plugin.getConfigManager().getMainConfig();
+        if (!config.getBoolean("storage.journal.enabled", false)) {
+            return null;
+        }
+
+        MutationJournal opened = new MutationJournal(
+                plugin.getDataFolder().toPath().resolve("journal"), logger,
+                config.getLong("storage.journal.commit-interval-ms", DEFAULT_JOURNAL_COMMIT_INTERVAL_MS),
+                TimeUnit.SECONDS.toMillis(config.getLong("storage.journal.checkpoint-interval-seconds",
+                        DEFAULT_JOURNAL_CHECKPOINT_INTERVAL_SECONDS)));
+        try {
+            opened.recover(storage);
+            opened.start();
+            logger.info("Mutation journal enabled");
+            return opened;
+        } catch (IOException | SQLException e) {
+            // Journal files are kept so the changes can be recovered on a later start
+            logger.log(Level.SEVERE, "Failed to open the mutation journal, continuing without it", e);
+            opened.close();
+            return null;
+        }
+    }
+
     /**
      * Shutdown the storage connection.
      * Uses a timeout to prevent indefinite blocking during server shutdown.
@@ -80,8 +210,23 @@ public class StorageManager {
             return;
         }
 
+        recentlyQuit.clear();
+
+        // Write out queued saves first, sharing the shutdown timeout with the storage close
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        if (writeQueue != null) {
+            writeQueue.shutdown(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (queryExecutor != null) {
+            queryExecutor.shutdownNow();
+        }
+        long remainingMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+
         try {
-            storage.shutdown().get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            storage.shutdown().get(remainingMillis, TimeUnit.MILLISECONDS);
             logger.info("Storage shutdown complete");
         } catch (TimeoutException e) {
             logger.warning("Storage shutdown timed out after " + SHUTDOWN_TIMEOUT_SECONDS
@@ -94,6 +239,371 @@ public class StorageManager {
         }
     }
 
+    /**
+     * Queue a player save. Saves for the same player are merged until written.
+     *
+     * @param data The player data
+     * @return A future completed once the data (or newer data for the player) is written
+     */
+    public @NotNull CompletableFuture<Void> save(@NotNull PlayerAfflictionData data) {
+        // Keep a cached quit snapshot in step with what will be written
+        recentlyQuit.update(data);
+        if (writeQueue != null) {
+            if (journal != null) {
+                MutationJournal target = journal;
+                target.appendSnapshot(data);
+                CompletableFuture<Void> future = writeQueue.enqueue(data);
+                future.thenRun(() -> target.markWritten(data));
+                return future;
+            }
+            return writeQueue.enqueue(data);
+        }
+        if (storage != null) {
+            return storage.save(data);
+        }
+        return CompletableFuture.failedFuture(new IllegalStateException("Storage not initialized"));
+    }
+
+    /**
+     * Load a player, preferring a save that has not been written yet.
+     *
+     * @param uuid The player UUID
+     * @return The player data, if any
+     */
+    public @NotNull CompletableFuture<Optional<PlayerAfflictionData>> load(@NotNull UUID uuid) {
+        PlayerAfflictionData recent = recentlyQuit.take(uuid);
+        if (recent != null) {
+            return CompletableFuture.completedFuture(Optional.of(recent));
+        }
+        PlayerAfflictionData pending = writeQueue != null ? writeQueue.getPending(uuid) : null;
+        if (pending != null) {
+            return CompletableFuture.completedFuture(Optional.of(pending));
+        }
+        if (storage == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return storage.load(uuid);
+    }
+
+    /**
+     * Load a player by username, preferring a save that has not been written yet.
+     *
+     * @param username The username (case-insensitive)
+     * @return The player data, if any
+     */
+    public @NotNull CompletableFuture<Optional<PlayerAfflictionData>> loadByName(@NotNull String username) {
+        PlayerAfflictionData recent = recentlyQuit.takeByName(username);
+        if (recent != null) {
+            return CompletableFuture.completedFuture(Optional.of(recent));
+        }
+        PlayerAfflictionData pending = writeQueue != null ? writeQueue.getPendingByName(username) : null;
+        if (pending != null) {
+            return CompletableFuture.completedFuture(Optional.of(pending));
+        }
+        if (storage == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return storage.loadByName(username);
+    }
+
+    /**
+     * Load a player by username, falling back to UUID, in a single storage lookup.
+     * Saves that have not been written yet are preferred, by username first.
+     *
+     * @param username The username (case-insensitive)
+     * @param uuid     The UUID to fall back to
+     * @return The player data, if any
+     */
+    public @NotNull CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(
+            @NotNull String username, @NotNull UUID uuid) {
+        PlayerAfflictionData recent = recentlyQuit.takeByNameOrUuid(username, uuid);
+        if (recent != null) {
+            return CompletableFuture.completedFuture(Optional.of(recent));
+        }
+        if (writeQueue != null) {
+            PlayerAfflictionData pending = writeQueue.getPendingByName(username);
+            if (pending == null) {
+                pending = writeQueue.getPending(uuid);
+            }
+            if (pending != null) {
+                return CompletableFuture.completedFuture(Optional.of(pending));
+            }
+        }
+        if (storage == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return storage.loadByNameOrUuid(username, uuid);
+    }
+
+    /**
+     * Remember the snapshot of a player who is quitting, so a quick rejoin is
+     * restored from memory. Does not save the player.
+     *
+     * @param data The player's data as they quit
+     */
+    public void rememberQuit(@NotNull PlayerAfflictionData data) {
+        recentlyQuit.put(data);
+    }
+
+    /**
+     * Copy every player from one backend to another on a background thread.
+     *
+     * <p>The active backend is read or written in place; any other backend is opened
+     * with its configured settings for the duration of the migration. Players are
+     * copied in pages of {@code storage.migration.batch-size}, and a checkpoint in the
+     * data folder lets a failed migration continue where it stopped when started again.
+     * Saves made while a migration runs may not be copied, so run it with no players
+     * online and switch {@code storage.type} afterwards.</p>
+     *
+     * <p>Migrating into the active backend overwrites its rows, so it is refused while
+     * players are online (see {@link #canMigrateInto}). Saves still queued are written
+     * first, so the migration does not interleave with them.</p>
+     *
+     * @param from     The source backend type
+     * @param to       The target backend type
+     * @param progress Called from the migration thread with the running total, or null
+     * @return A future completed with the result, or failed if the migration could not
+     * start or did not finish
+     */
+    public @NotNull CompletableFuture<StorageMigration.Result> migrate(@NotNull String from, @NotNull String to,
+                                                                       @Nullable LongConsumer progress) {
+        String source = normalizeType(from);
+        String target = normalizeType(to);
+        if (source == null || target == null || source.equals(target)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Cannot migrate from '" + from + "' to '" + to + "'"));
+        }
+        if (!canMigrateInto(target)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Cannot migrate into the active " + target + " storage while players are online"));
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A migration is already running"));
+        }
+
+        var config = plugin.getConfigManager().getMainConfig();
+        int batchSize = config.getInt("storage.migration.batch-size", DEFAULT_MIGRATION_BATCH_SIZE);
+        if (batchSize <= 0) {
+            logger.warning("Invalid migration batch-size " + batchSize + " in config, using default of "
+                    + DEFAULT_MIGRATION_BATCH_SIZE);
+            batchSize = DEFAULT_MIGRATION_BATCH_SIZE;
+        }
+        Path checkpoint = plugin.getDataFolder().toPath()
+                .resolve("migration-" + source + "-to-" + target + ".checkpoint");
+        int pageSize = batchSize;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Afflictions-Migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<StorageMigration.Result> result = CompletableFuture.supplyAsync(() -> {
+            AfflictionStorage sourceStorage = null;
+            AfflictionStorage targetStorage = null;
+            try {
+                sourceStorage = openForMigration(source);
+                targetStorage = openForMigration(target);
+                boolean intoActive = targetStorage == storage;
+                if (intoActive && writeQueue != null
+                        && !writeQueue.awaitDrained(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS))) {
+                    throw new SQLException("Queued saves were not written in time, try again");
+                }
+                logger.info("Migrating storage from " + source + " to " + target);
+                StorageMigration.Result done = new StorageMigration(sourceStorage, targetStorage, checkpoint,
+                        pageSize, logger).run(progress);
+                if (intoActive) {
+                    // Snapshots from before the migration would hide the copied rows
+                    recentlyQuit.clear();
+                }
+                logger.info("Storage migration complete: " + done.migrated() + " player(s) in "
+                        + done.elapsedMillis() + "ms");
+                return done;
+            } catch (IOException | SQLException e) {
+                logger.log(Level.SEVERE, "Storage migration from " + source + " to " + target + " failed", e);
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } finally {
+                closeAfterMigration(targetStorage);
+                closeAfterMigration(sourceStorage);
+            }
+        }, executor);
+        return result.whenComplete((done, error) -> {
+            migrating.set(false);
+            executor.shutdown();
+        });
+    }
+
+    /**
+     * Check whether a backend can be migrated into now. The active backend cannot while
+     * players are online, since their rows would be overwritten with the source's.
+     */
+    public boolean canMigrateInto(@NotNull String type) {
+        return storage == null || !storage.getType().equals(type)
+                || plugin.getServer().getOnlinePlayers().isEmpty();
+    }
+
+    /**
+     * Check whether a migration is running.
+     */
+    public boolean isMigrating() {
+        return migrating.get();
+    }
+
+    /**
+     * Get the active backend if it has the given type, otherwise open a new one.
+     */
+    private @NotNull AfflictionStorage openForMigration(@NotNull String type) throws SQLException {
+        if (storage != null && storage.getType().equals(type)) {
+            return storage;
+        }
+        AfflictionStorage opened = createStorage(type);
+        boolean success;
+        try {
+            success = opened.init().get(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        }
+        if (!success) {
+            closeAfterMigration(opened);
+            throw new SQLException("Failed to open " + type + " storage for migration");
+        }
+        return opened;
+    }
+
+    /**
+     * Shut down a backend opened for a migration. The active backend is left open.
+     */
+    private void closeAfterMigration(@Nullable AfflictionStorage opened) {
+        if (opened == null || opened == storage) {
+            return;
+        }
+        try {
+            opened.shutdown().get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            logger.warning("Failed to close " + opened.getType() + " storage after migration: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read a page of stored afflictions that match a query.
+     *
+     * <p>Searches what has been written to storage, so saves still in the write queue
+     * are not seen.</p>
+     *
+     * @param query  The filters and page size
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @return A future completed with the page
+     */
+    public @NotNull CompletableFuture<AfflictionMatchPage> query(@NotNull AfflictionQuery query,
+                                                                 @Nullable String cursor) {
+        return runQuery(target -> target.query(resolveCategory(query), cursor));
+    }
+
+    /**
+     * Count the players with at least one stored affliction that matches a query.
+     *
+     * @param query The filters; the limit is ignored
+     * @return A future completed with the number of players
+     */
+    public @NotNull CompletableFuture<Long> count(@NotNull AfflictionQuery query) {
+        return runQuery(target -> target.count(resolveCategory(query)));
+    }
+
+    /**
+     * Pass every stored affliction that matches a query to a consumer, one page at a
+     * time, so the results never need to be held in memory together.
+     *
+     * @param query    The filters and page size
+     * @param consumer Called from the query thread for each match
+     * @return A future completed with the number of matches once all were passed on
+     */
+    public @NotNull CompletableFuture<Long> stream(@NotNull AfflictionQuery query,
+                                                   @NotNull Consumer<AfflictionMatch> consumer) {
+        return runQuery(target -> {
+            AfflictionQuery resolved = resolveCategory(query);
+            long matches = 0;
+            String cursor = null;
+            do {
+                AfflictionMatchPage page = target.query(resolved, cursor);
+                page.matches().forEach(consumer);
+                matches += page.matches().size();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            return matches;
+        });
+    }
+
+    /**
+     * A blocking read against the active storage.
+     */
+    @FunctionalInterface
+    private interface StorageQuery<R> {
+        R run(AfflictionStorage storage) throws SQLException;
+    }
+
+    private <R> CompletableFuture<R> runQuery(StorageQuery<R> work) {
+        AfflictionStorage target = storage;
+        ExecutorService executor = queryExecutor;
+        if (target == null || executor == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Storage not initialized"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.run(target);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Replace a query's category with the IDs of the registered afflictions in it.
+     */
+    private @NotNull AfflictionQuery resolveCategory(@NotNull AfflictionQuery query) {
+        return query.resolveCategory(this::afflictionIdsIn);
+    }
+
+    private @NotNull Collection<String> afflictionIdsIn(@NotNull AfflictionCategory category) {
+        AfflictionManager afflictionManager = plugin.getAfflictionManager();
+        if (afflictionManager == null) {
+            return List.of();
+        }
+        return afflictionManager.getRegistry().getAllIds().stream()
+                .filter(id -> afflictionManager.getRegistry().get(id)
+                        .map(Affliction::getCategory)
+                        .filter(category::equals)
+                        .isPresent())
+                .toList();
+    }
+
+    /**
+     * Get the cache of recently quit players.
+     */
+    public @NotNull RecentlyQuitCache getRecentlyQuitCache() {
+        return recentlyQuit;
+    }
+
+    /**
+     * Get the write-behind queue, or null if storage is not initialized.
+     */
+    public @Nullable WriteBehindQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    /**
+     * Get the mutation journal, or null if it is disabled.
+     */
+    public @Nullable MutationJournal getJournal() {
+        return journal;
+    }
+
     /**
      * Get the active storage implementation.
      */
@@ -0,0 +1,341 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind queue for player saves.
+ *
+ * <p>Saves are queued per player UUID; a newer save for a player who is already
+ * queued replaces the older snapshot, so a burst of saves results in a single
+ * write. A dedicated writer thread takes queued players in batches and writes
+ * each batch in one transaction.</p>
+ *
+ * <p>Snapshots that are queued or being written are visible through
+ * {@link #getPending(UUID)} so loads never observe stale rows.</p>
+ */
+public class WriteBehindQueue {
+
+    private static final String THREAD_NAME = "Afflictions-StorageWriter";
+
+    private final AfflictionStorage storage;
+    private final Logger logger;
+    private final int batchSize;
+    private final @Nullable Runnable beforeWrite;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<UUID, Pending> pending = new LinkedHashMap<>();
+    private final Map<UUID, PlayerAfflictionData> inFlight = new HashMap<>();
+    private final Thread writer;
+    private boolean running = true;
+
+    // Statistics
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    /**
+     * A queued snapshot and the future completed once it is written.
+     */
+    private static final class Pending {
+        PlayerAfflictionData data;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(PlayerAfflictionData data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Create the queue and start its writer thread.
+     *
+     * @param storage   The storage to write to
+     * @param logger    Logger for write failures
+     * @param batchSize Maximum number of players per transaction
+     */
+    public WriteBehindQueue(@NotNull AfflictionStorage storage, @NotNull Logger logger, int batchSize) {
+        this(storage, logger, batchSize, null);
+    }
+
+    /**
+     * Create the queue and start its writer thread.
+     *
+     * @param storage     The storage to write to
+     * @param logger      Logger for write failures
+     * @param batchSize   Maximum number of players per transaction
+     * @param beforeWrite Run on the writer thread before each batch is written, may be null
+     */
+    public WriteBehindQueue(@NotNull AfflictionStorage storage, @NotNull Logger logger, int batchSize,
+                            @Nullable Runnable beforeWrite) {
+        this.storage = storage;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.beforeWrite = beforeWrite;
+        this.writer = new Thread(this::runWriter, THREAD_NAME);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a player snapshot for writing.
+     *
+     * @param data The player data
+     * @return A future completed when this snapshot (or a newer one) has been written
+     */
+    public @NotNull CompletableFuture<Void> enqueue(@NotNull PlayerAfflictionData data) {
+        synchronized (lock) {
+            if (!running) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Storage writer has been shut down"));
+            }
+
+            enqueued.increment();
+            Pending existing = pending.get(data.uuid());
+            if (existing != null) {
+                existing.data = data;
+                coalesced.increment();
+                return existing.future;
+            }
+
+            Pending entry = new Pending(data);
+            pending.put(data.uuid(), entry);
+            lock.notifyAll();
+            return entry.future;
+        }
+    }
+
+    /**
+     * Get the newest snapshot for a player that has not been fully written yet.
+     *
+     * @param uuid The player UUID
+     * @return The queued or in-flight snapshot, or null if none
+     */
+    public @Nullable PlayerAfflictionData getPending(@NotNull UUID uuid) {
+        synchronized (lock) {
+            Pending entry = pending.get(uuid);
+            if (entry != null) {
+                return entry.data;
+            }
+            return inFlight.get(uuid);
+        }
+    }
+
+    /**
+     * Find the newest unwritten snapshot for a username (case-insensitive).
+     *
+     * @param username The username
+     * @return The queued or in-flight snapshot, or null if none
+     */
+    public @Nullable PlayerAfflictionData getPendingByName(@NotNull String username) {
+        synchronized (lock) {
+            for (Pending entry : pending.values()) {
+                if (entry.data.username().equalsIgnoreCase(username)) {
+                    return entry.data;
+                }
+            }
+            for (PlayerAfflictionData data : inFlight.values()) {
+                if (data.username().equalsIgnoreCase(username)) {
+                    return data;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Wait for the saves queued so far to be written, without stopping the queue.
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue was empty before the timeout
+     */
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        synchronized (lock) {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000L;
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                lock.wait(remainingMillis);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop accepting saves and wait for queued saves to be written.
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue was fully drained
+     */
+    public boolean shutdown(long timeoutMillis) {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isAlive()) {
+            logger.warning("Storage writer did not finish within " + timeoutMillis + "ms, "
+                    + getQueueDepth() + " player save(s) were not written");
+            return false;
+        }
+        return true;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            synchronized (lock) {
+                while (pending.isEmpty() && running) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // Keep draining; shutdown is signalled through running
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                Iterator<Pending> it = pending.values().iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    Pending entry = it.next();
+                    it.remove();
+                    inFlight.put(entry.data.uuid(), entry.data);
+                    batch.add(entry);
+                }
+            }
+
+            write(batch);
+
+            synchronized (lock) {
+                for (Pending entry : batch) {
+                    inFlight.remove(entry.data.uuid());
+                }
+                // Wake anyone waiting in awaitDrained
+                lock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        long start = System.nanoTime();
+        if (beforeWrite != null) {
+            beforeWrite.run();
+        }
+        try {
+            storage.saveBatch(batch.stream().map(entry -> entry.data).toList());
+            for (Pending entry : batch) {
+                entry.future.complete(null);
+            }
+            written.add(batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+            } else {
+                // Retry individually so one bad record does not lose the whole batch
+                logger.log(Level.WARNING, "Batched save of " + batch.size()
+                        + " players failed, retrying individually", e);
+                for (Pending entry : batch) {
+                    try {
+                        storage.saveBatch(List.of(entry.data));
+                        entry.future.complete(null);
+                        written.increment();
+                    } catch (Exception single) {
+                        fail(entry, single);
+                    }
+                }
+            }
+        }
+        batches.increment();
+
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+    }
+
+    private void fail(Pending entry, Exception e) {
+        failures.increment();
+        logger.log(Level.SEVERE, "Failed to save affliction data for player "
+                + entry.data.username() + " (" + entry.data.uuid() + ")", e);
+        entry.future.completeExceptionally(e);
+    }
+
+    // ===== Statistics =====
+
+    /**
+     * Get the number of players waiting to be written (queued and in flight).
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size() + inFlight.size();
+        }
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    /**
+     * Reset counters. Queue depth is not affected.
+     */
+    public void resetStats() {
+        enqueued.reset();
+        coalesced.reset();
+        written.reset();
+        batches.reset();
+        failures.reset();
+        lastFlushNanos = 0;
+        maxFlushNanos = 0;
+    }
+}
@@ -0,0 +1,295 @@
+package com.dnocturne.afflictions.storage.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of the data column, as an alternative to the JSON written by
+ * {@link InstanceDataCodec#toJson}.
+ *
+ * <p>Layout: a marker byte, a format version byte, a varint entry count, then each
+ * entry as a key and a value. A key is a varint: {@code 0} is followed by a
+ * length-prefixed UTF-8 name, any other value {@code n} is entry {@code n - 1} of the
+ * key dictionary. A value is a type byte followed by its body. Numbers and booleans
+ * are stored in binary only when that reproduces the exact stored string, so every
+ * value reads back unchanged.</p>
+ *
+ * <p>The marker byte never starts valid UTF-8, so encoded values can be told apart
+ * from JSON rows written before this format existed.</p>
+ */
+public final class BinaryDataCodec {
+
+    private static final int MARKER = 0xFE;
+
+    /**
+     * Current format version, written after the marker.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Key dictionary for version 1. Entries are referenced by position, so this list
+     * may only be appended to; changing it otherwise needs a new format version.
+     */
+    private static final List<String> KEYS_V1 = List.of(
+            "blood",
+            "blood_hunger_active",
+            "burning",
+            "sun_exposure_start",
+            "has_helmet",
+            "night_bonuses_active",
+            "is_night_time"
+    );
+
+    private static final Map<String, Integer> KEY_IDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < KEYS_V1.size(); i++) {
+            KEY_IDS.put(KEYS_V1.get(i), i + 1);
+        }
+    }
+
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_TRUE = 1;
+    private static final int TYPE_FALSE = 2;
+    private static final int TYPE_LONG = 3;
+    private static final int TYPE_DOUBLE = 4;
+
+    private BinaryDataCodec() {
+    }
+
+    /**
+     * Check whether a stored value is in this format rather than JSON.
+     */
+    public static boolean isEncoded(byte @Nullable [] stored) {
+        return stored != null && stored.length >= 2 && (stored[0] & 0xFF) == MARKER;
+    }
+
+    /**
+     * Encode data column values.
+     *
+     * @param data The encoded state values
+     * @return The binary form
+     */
+    public static byte @NotNull [] encode(@NotNull Map<String, String> data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + data.size() * 12);
+        out.write(MARKER);
+        out.write(VERSION);
+        writeVarint(out, data.size());
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            Integer keyId = KEY_IDS.get(entry.getKey());
+            if (keyId != null) {
+                writeVarint(out, keyId);
+            } else {
+                writeVarint(out, 0);
+                writeString(out, entry.getKey());
+            }
+            writeValue(out, entry.getValue());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode data column values.
+     *
+     * @param stored The binary form, may be null
+     * @return The encoded state values
+     * @throws IOException if the value is truncated, malformed or from an unknown version
+     */
+    public static @NotNull Map<String, String> decode(byte @Nullable [] stored) throws IOException {
+        if (stored == null || stored.length == 0) {
+            return Map.of();
+        }
+        if (!isEncoded(stored)) {
+            throw new IOException("Not a binary data value");
+        }
+        int version = stored[1] & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported data format version " + version);
+        }
+
+        Reader in = new Reader(stored, 2);
+        int count = in.varint();
+        if (count == 0) {
+            return Map.of();
+        }
+        Map<String, String> data = new HashMap<>(Math.max(4, count * 2));
+        for (int i = 0; i < count; i++) {
+            int keyId = in.varint();
+            String key;
+            if (keyId == 0) {
+                key = in.string();
+            } else if (keyId <= KEYS_V1.size()) {
+                // Dictionary keys are shared constants rather than a new string per row
+                key = KEYS_V1.get(keyId - 1);
+            } else {
+                throw new IOException("Unknown key id " + keyId);
+            }
+            data.put(key, in.value());
+        }
+        if (!in.atEnd()) {
+            throw new IOException("Trailing bytes after " + count + " entries");
+        }
+        return data;
+    }
+
+    // ============================================================
+    // Writing
+    // ============================================================
+
+    private static void writeValue(ByteArrayOutputStream out, String value) {
+        if (value.equals("true")) {
+            out.write(TYPE_TRUE);
+            return;
+        }
+        if (value.equals("false")) {
+            out.write(TYPE_FALSE);
+            return;
+        }
+        Long asLong = exactLong(value);
+        if (asLong != null) {
+            out.write(TYPE_LONG);
+            // Zigzag so small negative numbers stay short
+            writeVarlong(out, (asLong << 1) ^ (asLong >> 63));
+            return;
+        }
+        Double asDouble = exactDouble(value);
+        if (asDouble != null) {
+            out.write(TYPE_DOUBLE);
+            long bits = Double.doubleToRawLongBits(asDouble);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+            return;
+        }
+        out.write(TYPE_STRING);
+        writeString(out, value);
+    }
+
+    private static @Nullable Long exactLong(String value) {
+        if (value.isEmpty() || value.length() > 20) {
+            return null;
+        }
+        try {
+            long parsed = Long.parseLong(value);
+            return Long.toString(parsed).equals(value) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable Double exactDouble(String value) {
+        char first = value.isEmpty() ? ' ' : value.charAt(0);
+        // Double.parseDouble also accepts padding, hex and suffixes, which never round-trip
+        if (first != '-' && (first < '0' || first > '9')) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value);
+            return Double.toString(parsed).equals(value) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        writeVarlong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarlong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // ============================================================
+    // Reading
+    // ============================================================
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        boolean atEnd() {
+            return position == bytes.length;
+        }
+
+        int readByte() throws IOException {
+            if (position >= bytes.length) {
+                throw new IOException("Truncated data value");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int varint() throws IOException {
+            long value = varlong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("Varint out of range");
+            }
+            return (int) value;
+        }
+
+        long varlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint too long");
+        }
+
+        String string() throws IOException {
+            int length = varint();
+            if (length > bytes.length - position) {
+                throw new IOException("Truncated data value");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String value() throws IOException {
+            int type = readByte();
+            return switch (type) {
+                case TYPE_STRING -> string();
+                case TYPE_TRUE -> "true";
+                case TYPE_FALSE -> "false";
+                case TYPE_LONG -> {
+                    long zigzag = varlong();
+                    yield Long.toString((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case TYPE_DOUBLE -> {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    yield Double.toString(Double.longBitsToDouble(bits));
+                }
+                default -> throw new IOException("Unknown value type " + type);
+            };
+        }
+    }
+}
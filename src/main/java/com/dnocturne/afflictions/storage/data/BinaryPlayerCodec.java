@@ -0,0 +1,94 @@
+package com.dnocturne.afflictions.storage.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary form of player records, used where data is stored outside SQL.
+ *
+ * <p>A player is written as their username and affliction count, followed by each
+ * affliction's id, level, duration, contraction time and length-prefixed
+ * {@link BinaryDataCodec} data. The UUID is not included; callers store it as the key.</p>
+ */
+public final class BinaryPlayerCodec {
+
+    /**
+     * Upper bound for a single encoded data value, guarding against corrupt lengths.
+     */
+    private static final int MAX_DATA_BYTES = 1 << 20;
+
+    private BinaryPlayerCodec() {
+    }
+
+    /**
+     * Write a player record.
+     *
+     * @param out  The output
+     * @param data The player data
+     */
+    public static void writePlayer(@NotNull DataOutput out, @NotNull PlayerAfflictionData data) throws IOException {
+        out.writeUTF(data.username());
+        out.writeShort(data.afflictions().size());
+        for (AfflictionData affliction : data.afflictions()) {
+            writeAffliction(out, affliction);
+        }
+    }
+
+    /**
+     * Read a player record written by {@link #writePlayer}.
+     *
+     * @param in   The input
+     * @param uuid The player UUID the record is stored under
+     * @return The player data
+     * @throws IOException if the record is truncated or malformed
+     */
+    public static @NotNull PlayerAfflictionData readPlayer(@NotNull DataInput in, @NotNull UUID uuid)
+            throws IOException {
+        String username = in.readUTF();
+        int count = in.readUnsignedShort();
+        List<AfflictionData> afflictions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            afflictions.add(readAffliction(in));
+        }
+        return new PlayerAfflictionData(uuid, username, afflictions);
+    }
+
+    /**
+     * Write a single affliction.
+     */
+    public static void writeAffliction(@NotNull DataOutput out, @NotNull AfflictionData affliction)
+            throws IOException {
+        out.writeUTF(affliction.afflictionId());
+        out.writeInt(affliction.level());
+        out.writeLong(affliction.duration());
+        out.writeLong(affliction.contractedAt());
+        byte[] data = BinaryDataCodec.encode(affliction.data());
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    /**
+     * Read a single affliction written by {@link #writeAffliction}.
+     *
+     * @throws IOException if the affliction is truncated or malformed
+     */
+    public static @NotNull AfflictionData readAffliction(@NotNull DataInput in) throws IOException {
+        String afflictionId = in.readUTF();
+        int level = in.readInt();
+        long duration = in.readLong();
+        long contractedAt = in.readLong();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_DATA_BYTES) {
+            throw new IOException("Invalid data length " + length);
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new AfflictionData(afflictionId, level, duration, contractedAt, BinaryDataCodec.decode(data));
+    }
+}
@@ -0,0 +1,308 @@
+package com.dnocturne.afflictions.storage.data;
+
+import com.dnocturne.afflictions.api.affliction.Affliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.InstanceState;
+import com.dnocturne.afflictions.api.affliction.StateKey;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Converts affliction instances to and from their persisted form while keeping value types.
+ *
+ * <p>Values for declared {@link StateKey}s are written in a canonical string form
+ * ({@code 42.5}, {@code 1700000000000}, {@code true}); the key's declared type is
+ * enough to read them back, so stored rows stay readable. Other non-string values
+ * carry a short type tag so an {@code Integer} comes back as an {@code Integer}
+ * rather than its string form. Untagged values decode as plain strings, which
+ * covers data written before the codec existed.</p>
+ *
+ * <p>The data column itself is a flat JSON object of strings, written and read with
+ * Gson's streaming API rather than a reflective {@code TypeToken} per row. SQLite
+ * stores the same values in the more compact {@link BinaryDataCodec} form.</p>
+ */
+public final class InstanceDataCodec {
+
+    /**
+     * Marks a type-tagged value. Control characters do not appear in plain data.
+     */
+    private static final char TAG = '\u0001';
+
+    private static final char TAG_STRING = 's';
+    private static final char TAG_BOOLEAN = 'b';
+    private static final char TAG_INT = 'i';
+    private static final char TAG_LONG = 'l';
+    private static final char TAG_DOUBLE = 'd';
+    private static final char TAG_FLOAT = 'f';
+
+    private InstanceDataCodec() {
+    }
+
+    // ============================================================
+    // Instance <-> AfflictionData
+    // ============================================================
+
+    /**
+     * Encode an instance for storage.
+     *
+     * @param instance The affliction instance
+     * @return The persisted form of the instance
+     */
+    public static @NotNull AfflictionData encode(@NotNull AfflictionInstance instance) {
+        return new AfflictionData(
+                instance.getAfflictionId(),
+                instance.getLevel(),
+                instance.getDuration(),
+                instance.getContractedAt(),
+                encodeState(instance.getState())
+        );
+    }
+
+    /**
+     * Encode all of a player's afflictions for storage.
+     *
+     * @param uuid        The player UUID
+     * @param username    The player's current username
+     * @param afflictions The player's affliction instances
+     * @return The persisted form of the player
+     */
+    public static @NotNull PlayerAfflictionData encodePlayer(@NotNull UUID uuid, @NotNull String username,
+                                                             @NotNull Collection<AfflictionInstance> afflictions) {
+        List<AfflictionData> encoded = new ArrayList<>(afflictions.size());
+        for (AfflictionInstance instance : afflictions) {
+            encoded.add(encode(instance));
+        }
+        return new PlayerAfflictionData(uuid, username, encoded);
+    }
+
+    /**
+     * Decode stored data into a new instance.
+     *
+     * @param playerUuid The owning player's UUID
+     * @param affliction The resolved affliction type
+     * @param data       The stored data
+     * @return A new instance with its state restored
+     */
+    public static @NotNull AfflictionInstance decode(@NotNull UUID playerUuid, @NotNull Affliction affliction,
+                                                     @NotNull AfflictionData data) {
+        AfflictionInstance instance = new AfflictionInstance(
+                playerUuid,
+                affliction,
+                data.level(),
+                data.duration(),
+                data.contractedAt()
+        );
+        decodeState(data.data(), instance.getState());
+        return instance;
+    }
+
+    /**
+     * Encode all state values to their stored string form.
+     *
+     * @param state The instance state
+     * @return A new map of encoded values
+     */
+    public static @NotNull Map<String, String> encodeState(@NotNull InstanceState state) {
+        Map<String, String> encoded = new HashMap<>();
+        for (StateKey key : StateKey.declared()) {
+            if (state.has(key)) {
+                encoded.put(key.getName(), encodeDeclared(key, state));
+            }
+        }
+        state.forEachExtra((name, value) -> {
+            if (value != null) {
+                encoded.put(name, encodeValue(value));
+            }
+        });
+        return encoded;
+    }
+
+    /**
+     * Decode stored values directly into state. Declared keys are parsed straight
+     * into their typed slots without boxing.
+     *
+     * @param data  The stored values
+     * @param state The state to populate
+     */
+    public static void decodeState(@NotNull Map<String, String> data, @NotNull InstanceState state) {
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            String name = entry.getKey();
+            String value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            StateKey key = StateKey.lookup(name);
+            if (key == null || !decodeDeclared(key, value, state)) {
+                state.put(name, decodeValue(value));
+            }
+        }
+    }
+
+    // ============================================================
+    // Single values
+    // ============================================================
+
+    /**
+     * Encode a single value with a type tag where needed.
+     *
+     * @param value The value
+     * @return The stored string form
+     */
+    public static @NotNull String encodeValue(@NotNull Object value) {
+        if (value instanceof String str) {
+            // Only strings that could be mistaken for a tag need one
+            return !str.isEmpty() && str.charAt(0) == TAG ? tagged(TAG_STRING, str) : str;
+        }
+        if (value instanceof Boolean bool) {
+            return tagged(TAG_BOOLEAN, bool.toString());
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return tagged(TAG_INT, value.toString());
+        }
+        if (value instanceof Long number) {
+            return tagged(TAG_LONG, number.toString());
+        }
+        if (value instanceof Double number) {
+            return tagged(TAG_DOUBLE, number.toString());
+        }
+        if (value instanceof Float number) {
+            return tagged(TAG_FLOAT, number.toString());
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Decode a single stored value. Untagged or malformed values decode as strings.
+     *
+     * @param stored The stored string form
+     * @return The decoded value
+     */
+    public static @NotNull Object decodeValue(@NotNull String stored) {
+        if (stored.length() < 2 || stored.charAt(0) != TAG) {
+            return stored;
+        }
+
+        String body = stored.substring(2);
+        try {
+            return switch (stored.charAt(1)) {
+                case TAG_STRING -> body;
+                case TAG_BOOLEAN -> Boolean.parseBoolean(body);
+                case TAG_INT -> Integer.parseInt(body);
+                case TAG_LONG -> Long.parseLong(body);
+                case TAG_DOUBLE -> Double.parseDouble(body);
+                case TAG_FLOAT -> Float.parseFloat(body);
+                default -> stored;
+            };
+        } catch (NumberFormatException e) {
+            return stored;
+        }
+    }
+
+    private static String tagged(char tag, String body) {
+        return TAG + String.valueOf(tag) + body;
+    }
+
+    private static String encodeDeclared(StateKey key, InstanceState state) {
+        return switch (key.getType()) {
+            case DOUBLE -> Double.toString(state.getDouble(key, 0.0));
+            case LONG -> Long.toString(state.getLong(key, 0L));
+            case BOOLEAN -> state.getBoolean(key, false) ? "true" : "false";
+        };
+    }
+
+    private static boolean decodeDeclared(StateKey key, String value, InstanceState state) {
+        try {
+            switch (key.getType()) {
+                case DOUBLE -> state.setDouble(key, Double.parseDouble(value));
+                case LONG -> state.setLong(key, Long.parseLong(value));
+                case BOOLEAN -> {
+                    if (value.equals("true")) {
+                        state.setBoolean(key, true);
+                    } else if (value.equals("false")) {
+                        state.setBoolean(key, false);
+                    } else {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // ============================================================
+    // Data column
+    // ============================================================
+
+    /**
+     * Write encoded values as a flat JSON object for the data column.
+     *
+     * @param data The encoded values
+     * @return The JSON text
+     */
+    public static @NotNull String toJson(@NotNull Map<String, String> data) {
+        StringWriter out = new StringWriter(16 + data.size() * 24);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject();
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                writer.name(entry.getKey()).value(entry.getValue());
+            }
+            writer.endObject();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Read the data column back into encoded values.
+     *
+     * @param json The JSON text, may be null or empty
+     * @return The encoded values
+     * @throws IOException if the text is not a JSON object
+     */
+    public static @NotNull Map<String, String> fromJson(@Nullable String json) throws IOException {
+        Map<String, String> data = new HashMap<>();
+        if (json == null || json.isEmpty()) {
+            return data;
+        }
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() == JsonToken.NULL) {
+                return data;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NULL) {
+                    reader.nextNull();
+                } else if (token == JsonToken.BOOLEAN) {
+                    data.put(name, Boolean.toString(reader.nextBoolean()));
+                } else if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                    data.put(name, reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return data;
+    }
+}
@@ -1,22 +1,36 @@
 package com.dnocturne.afflictions.storage.impl;
 
+import com.dnocturne.afflictions.storage.AfflictionMatch;
+import com.dnocturne.afflictions.storage.AfflictionMatchPage;
+import com.dnocturne.afflictions.storage.AfflictionQuery;
+import com.dnocturne.afflictions.storage.AfflictionStorage;
+import com.dnocturne.afflictions.storage.PlayerPage;
 import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.InstanceDataCodec;
 import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Abstract base class for Afflictions SQL storage.
@@ -27,15 +41,176 @@ import java.util.UUID;
  *   <li>afflicted_players - player UUID, username, last seen</li>
  *   <li>player_afflictions - affliction data with FK to players</li>
  * </ul>
+ *
+ * <p>Saves are written as row-level deltas. The rows last loaded or written for each
+ * player are remembered, and a save only upserts the affliction rows that changed and
+ * deletes the ones that are gone. A save with no changes writes nothing. Players
+ * without a remembered snapshot are rewritten in full. Dialects whose database may be
+ * written by other servers turn this off (see {@link #savesDeltas()}).</p>
+ *
+ * <p>All statements go through {@link #connection()}. Single-connection dialects use
+ * Basalt's shared connection; pooled dialects bind a borrowed connection to the calling
+ * thread with {@link #bindConnection(Connection)} for the duration of a call.</p>
+ *
+ * <p>Statements for long-lived connections are prepared once per connection and
+ * reused (see {@link #cachesStatements()}).</p>
  */
 public abstract class AbstractSqlStorage
-        extends com.dnocturne.basalt.storage.impl.AbstractSqlStorage<PlayerAfflictionData> {
+        extends com.dnocturne.basalt.storage.impl.AbstractSqlStorage<PlayerAfflictionData>
+        implements AfflictionStorage {
+
+    /**
+     * Maximum number of players whose persisted rows are remembered for delta saves.
+     */
+    private static final int SNAPSHOT_CACHE_SIZE = 4096;
 
-    protected final Gson gson;
+    /**
+     * The rows as last read from or written to the database for a player.
+     */
+    private record PersistedPlayer(String username, Map<String, AfflictionData> afflictions) {
+    }
+
+    private final Map<UUID, PersistedPlayer> persisted = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, PersistedPlayer> eldest) {
+                    return size() > SNAPSHOT_CACHE_SIZE;
+                }
+            });
+
+    // Statistics
+    private final LongAdder rowsUpserted = new LongAdder();
+    private final LongAdder rowsDeleted = new LongAdder();
+    private final LongAdder unchangedSaves = new LongAdder();
+    private final LongAdder fullRewrites = new LongAdder();
+
+    /**
+     * Bumped before and after every batch write, so a load that overlaps a write
+     * can tell that the rows it read may already be stale.
+     */
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    // Built from dialect SQL on first use
+    private String loadByNameSql;
+    private String loadByNameOrUuidSql;
+
+    private final Map<Connection, StatementCache> statementCaches =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * A unit of work run against the current connection.
+     */
+    @FunctionalInterface
+    protected interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    /**
+     * A unit of work producing a result from the current connection.
+     */
+    @FunctionalInterface
+    protected interface SqlSupplier<R> {
+        R get() throws SQLException;
+    }
 
     protected AbstractSqlStorage(@NotNull Plugin plugin) {
         super(plugin);
-        this.gson = new Gson();
+    }
+
+    // ============================================================
+    // Connection handling
+    // ============================================================
+
+    /**
+     * Get the connection for the current call: the one bound to this thread, if any,
+     * otherwise the shared connection.
+     *
+     * @throws SQLException if no connection is available
+     */
+    protected @NotNull Connection connection() throws SQLException {
+        Connection bound = boundConnection.get();
+        return bound != null ? bound : requireConnection();
+    }
+
+    /**
+     * Check whether a connection is bound to the calling thread.
+     */
+    protected boolean hasBoundConnection() {
+        return boundConnection.get() != null;
+    }
+
+    /**
+     * Bind a connection to the calling thread, or unbind it with null.
+     */
+    protected void bindConnection(@Nullable Connection connection) {
+        if (connection == null) {
+            boundConnection.remove();
+        } else {
+            boundConnection.set(connection);
+        }
+    }
+
+    /**
+     * Whether statements are prepared once per connection and reused.
+     * Override to return false when connections are short-lived, such as pooled
+     * connections that are handed back after every call.
+     */
+    protected boolean cachesStatements() {
+        return true;
+    }
+
+    /**
+     * Whether saves only write the rows that changed since the last load or save.
+     * Override to return false when other servers may write to the same database,
+     * since the remembered rows would then go stale and real changes be skipped.
+     */
+    protected boolean savesDeltas() {
+        return true;
+    }
+
+    /**
+     * Get a prepared statement for the current connection. Close the returned lease
+     * after use; cached statements stay open for the next call.
+     */
+    protected StatementCache.Lease prepare(@NotNull String sql) throws SQLException {
+        Connection current = connection();
+        if (!cachesStatements()) {
+            return StatementCache.uncached(current, sql);
+        }
+        return statementCaches.computeIfAbsent(current, StatementCache::new).lease(sql);
+    }
+
+    /**
+     * Close the cached statements of a connection. Call before closing the connection.
+     */
+    protected void closeStatements(@NotNull Connection connection) {
+        StatementCache cache = statementCaches.remove(connection);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Get the number of statements cached across all connections.
+     */
+    public int getCachedStatementCount() {
+        synchronized (statementCaches) {
+            int count = 0;
+            for (StatementCache cache : statementCaches.values()) {
+                count += cache.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Run an action in a transaction on the current connection.
+     * Defaults to Basalt's transaction handling on the shared connection.
+     */
+    protected void runInTransaction(@NotNull SqlAction action) throws SQLException {
+        executeInTransaction(action::run);
     }
 
     // ============================================================
@@ -64,24 +239,77 @@ public abstract class AbstractSqlStorage
     protected abstract String getUpsertPlayerSql();
 
     /**
-     * Get the SQL for case-insensitive username lookup.
+     * Get the SQL condition matching {@code p.username} case-insensitively against one
+     * parameter, where {@code p} is the afflicted_players table.
      * Parameter: username
      */
-    protected abstract String getFindPlayerByNameSql();
+    protected abstract String getUsernameMatchSql();
+
+    /**
+     * Get the SQL for inserting or updating a single affliction row,
+     * keyed on (player_uuid, affliction_id).
+     * Parameters: player_uuid, affliction_id, level, duration, contracted_at, data
+     */
+    protected abstract String getUpsertAfflictionSql();
+
+    /**
+     * Bind a UUID key parameter. Keys are stored as text by default; dialects with
+     * binary key columns override this together with {@link #getUuid}.
+     */
+    protected void setUuid(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        stmt.setString(index, uuid.toString());
+    }
+
+    /**
+     * Read a UUID key column written by {@link #setUuid}.
+     *
+     * @return The UUID, or null if the stored value is not a valid UUID
+     */
+    protected @Nullable UUID getUuid(ResultSet rs, String column) throws SQLException {
+        String value = rs.getString(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bind the data column. Written as JSON by default; dialects with a more compact
+     * encoding override this together with {@link #getData}.
+     */
+    protected void setData(PreparedStatement stmt, int index, Map<String, String> data) throws SQLException {
+        stmt.setString(index, InstanceDataCodec.toJson(data));
+    }
+
+    /**
+     * Read the data column written by {@link #setData}.
+     *
+     * @throws IOException if the stored value is malformed
+     */
+    protected Map<String, String> getData(ResultSet rs, String column) throws SQLException, IOException {
+        return InstanceDataCodec.fromJson(rs.getString(column));
+    }
 
     // ============================================================
     // Common SQL (same across dialects)
     // ============================================================
 
-    private static final String SELECT_PLAYER_SQL =
-            "SELECT uuid, username FROM afflicted_players WHERE uuid = ?";
-
-    private static final String SELECT_AFFLICTIONS_SQL = """
-            SELECT affliction_id, level, duration, contracted_at, data
-            FROM player_afflictions
-            WHERE player_uuid = ?
+    /**
+     * A player joined with their afflictions; one row per affliction, or a single row
+     * with null affliction columns for a player without any.
+     */
+    private static final String SELECT_PLAYER_JOINED_SQL = """
+            SELECT p.uuid, p.username, a.affliction_id, a.level, a.duration, a.contracted_at, a.data
+            FROM afflicted_players p
+            LEFT JOIN player_afflictions a ON a.player_uuid = p.uuid
             """;
 
+    private static final String LOAD_PLAYER_SQL = SELECT_PLAYER_JOINED_SQL + "WHERE p.uuid = ?";
+
     private static final String DELETE_AFFLICTIONS_SQL =
             "DELETE FROM player_afflictions WHERE player_uuid = ?";
 
@@ -91,19 +319,56 @@ public abstract class AbstractSqlStorage
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
+    private static final String DELETE_AFFLICTION_SQL =
+            "DELETE FROM player_afflictions WHERE player_uuid = ? AND affliction_id = ?";
+
     private static final String DELETE_PLAYER_SQL =
             "DELETE FROM afflicted_players WHERE uuid = ?";
 
     private static final String HAS_PLAYER_SQL =
             "SELECT 1 FROM afflicted_players WHERE uuid = ?";
 
+    /**
+     * A page of players in key order, joined with their afflictions. The players are
+     * limited in a derived table so a page never ends part-way through a player.
+     */
+    private static final String SELECT_PAGE_SQL = """
+            SELECT p.uuid, p.username, a.affliction_id, a.level, a.duration, a.contracted_at, a.data
+            FROM (SELECT uuid, username FROM afflicted_players %s ORDER BY uuid LIMIT ?) p
+            LEFT JOIN player_afflictions a ON a.player_uuid = p.uuid
+            ORDER BY p.uuid
+            """;
+
+    private static final String LOAD_FIRST_PAGE_SQL = SELECT_PAGE_SQL.formatted("");
+
+    private static final String LOAD_NEXT_PAGE_SQL = SELECT_PAGE_SQL.formatted("WHERE uuid > ?");
+
+    /**
+     * Matches in the order of the (affliction_id, level, player_uuid) index, so a page
+     * is read from the index instead of sorting every match.
+     */
+    private static final String QUERY_SQL = """
+            SELECT p.uuid, p.username, a.affliction_id, a.level, a.duration, a.contracted_at, a.data
+            FROM player_afflictions a
+            JOIN afflicted_players p ON p.uuid = a.player_uuid
+            WHERE %s
+            ORDER BY a.affliction_id, a.level, a.player_uuid
+            LIMIT ?
+            """;
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(DISTINCT a.player_uuid) FROM player_afflictions a WHERE %s";
+
+    private static final String QUERY_AFTER_CURSOR =
+            "(a.affliction_id > ? OR (a.affliction_id = ? AND (a.level > ? OR (a.level = ? AND a.player_uuid > ?))))";
+
     // ============================================================
     // Basalt AbstractSqlStorage overrides
     // ============================================================
 
     @Override
     protected void createTables() throws SQLException {
-        try (var stmt = connection.createStatement()) {
+        try (var stmt = connection().createStatement()) {
             stmt.execute(getCreatePlayersTableSql());
             stmt.execute(getCreateAfflictionsTableSql());
             for (String indexSql : getCreateIndexesSql()) {
@@ -114,96 +379,340 @@ public abstract class AbstractSqlStorage
 
     @Override
     protected Optional<PlayerAfflictionData> loadSync(@NotNull UUID uuid) throws SQLException {
-        // Check if player exists and get username
-        String username;
-        try (PreparedStatement stmt = requireConnection().prepareStatement(SELECT_PLAYER_SQL)) {
-            stmt.setString(1, uuid.toString());
+        long generation = writeGeneration.get();
+        Optional<PlayerAfflictionData> loaded;
+        try (StatementCache.Lease lease = prepare(LOAD_PLAYER_SQL)) {
+            PreparedStatement stmt = lease.statement();
+            setUuid(stmt, 1, uuid);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
-                }
-                username = rs.getString("username");
+                loaded = readJoinedPlayer(rs);
             }
         }
-
-        List<AfflictionData> afflictions = loadAfflictions(uuid.toString());
-        return Optional.of(new PlayerAfflictionData(uuid, username, afflictions));
+        loaded.ifPresent(data -> rememberLoaded(generation, data));
+        return loaded;
     }
 
     @Override
     protected Optional<PlayerAfflictionData> loadByNameSync(@NotNull String username) throws SQLException {
-        UUID playerUuid;
-        String storedUsername;
+        long generation = writeGeneration.get();
+        Optional<PlayerAfflictionData> loaded;
+        try (StatementCache.Lease lease = prepare(loadByNameSql())) {
+            PreparedStatement stmt = lease.statement();
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                loaded = readJoinedPlayer(rs);
+            }
+        }
+        loaded.ifPresent(data -> rememberLoaded(generation, data));
+        return loaded;
+    }
 
-        try (PreparedStatement stmt = requireConnection().prepareStatement(getFindPlayerByNameSql())) {
+    /**
+     * Load a player by username, or by UUID if no player has that username,
+     * in a single query.
+     *
+     * @param username The username (case-insensitive), preferred when both match
+     * @param uuid     The UUID to fall back to
+     * @return The player data, if either key matches
+     * @throws SQLException if the query fails
+     */
+    protected Optional<PlayerAfflictionData> loadByNameOrUuidSync(@NotNull String username, @NotNull UUID uuid)
+            throws SQLException {
+        long generation = writeGeneration.get();
+        Optional<PlayerAfflictionData> loaded;
+        try (StatementCache.Lease lease = prepare(loadByNameOrUuidSql())) {
+            PreparedStatement stmt = lease.statement();
+            // Bound in statement order: name match, UUID fallback, then the name again for ordering
             stmt.setString(1, username);
+            setUuid(stmt, 2, uuid);
+            stmt.setString(3, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                loaded = readJoinedPlayer(rs);
+            }
+        }
+        loaded.ifPresent(data -> rememberLoaded(generation, data));
+        return loaded;
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(@NotNull String username,
+                                                                              @NotNull UUID uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadByNameOrUuidSync(username, uuid);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Read a page of players in key order. The cursor is the UUID of the last player
+     * on the previous page.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param limit  Maximum number of players on the page
+     * @return The page
+     * @throws SQLException if the query fails or the cursor is not a UUID
+     */
+    protected @NotNull PlayerPage loadPageSync(@Nullable String cursor, int limit) throws SQLException {
+        int pageSize = Math.max(1, limit);
+        List<PlayerAfflictionData> players = new ArrayList<>(pageSize);
+        UUID last = null;
+        try (StatementCache.Lease lease = prepare(cursor == null ? LOAD_FIRST_PAGE_SQL : LOAD_NEXT_PAGE_SQL)) {
+            PreparedStatement stmt = lease.statement();
+            int index = 1;
+            if (cursor != null) {
+                setUuid(stmt, index++, parseCursor(cursor));
+            }
+            stmt.setInt(index, pageSize);
+
             try (ResultSet rs = stmt.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
+                String username = null;
+                List<AfflictionData> afflictions = null;
+                while (rs.next()) {
+                    UUID uuid = getUuid(rs, "uuid");
+                    if (uuid == null) {
+                        logger.severe("Invalid UUID in database for player: " + rs.getString("username"));
+                        continue;
+                    }
+                    if (!uuid.equals(last)) {
+                        if (last != null) {
+                            players.add(new PlayerAfflictionData(last, username, afflictions));
+                        }
+                        last = uuid;
+                        username = rs.getString("username");
+                        afflictions = new ArrayList<>();
+                    }
+                    if (rs.getString("affliction_id") != null) {
+                        afflictions.add(parseAfflictionData(rs));
+                    }
+                }
+                if (last != null) {
+                    players.add(new PlayerAfflictionData(last, username, afflictions));
                 }
-                String uuidString = rs.getString("uuid");
+            }
+        }
+
+        // A short page means the end was reached
+        String next = players.size() < pageSize || last == null ? null : last.toString();
+        return new PlayerPage(players, next);
+    }
+
+    @Override
+    public @NotNull PlayerPage loadPage(@Nullable String cursor, int limit) throws SQLException {
+        return loadPageSync(cursor, limit);
+    }
+
+    /**
+     * Read a page of matching afflictions using the affliction index. The cursor is
+     * the level, player and affliction ID of the last match on the previous page.
+     *
+     * @param query  The filters and page size, with the category already resolved
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @return The page
+     * @throws SQLException if the query fails or the cursor is malformed
+     */
+    protected @NotNull AfflictionMatchPage querySync(@NotNull AfflictionQuery query, @Nullable String cursor)
+            throws SQLException {
+        if (query.isEmpty()) {
+            return new AfflictionMatchPage(List.of(), null);
+        }
+
+        String[] after = cursor != null ? cursor.split(":", 3) : null;
+        if (after != null && after.length != 3) {
+            throw new SQLException("Invalid query cursor '" + cursor + "'");
+        }
+
+        String where = queryFilters(query);
+        if (after != null) {
+            where += " AND " + QUERY_AFTER_CURSOR;
+        }
+
+        List<AfflictionMatch> matches = new ArrayList<>();
+        // The shape of the SQL depends on the filters, so it is not kept in the statement cache
+        try (StatementCache.Lease lease = StatementCache.uncached(connection(), QUERY_SQL.formatted(where))) {
+            PreparedStatement stmt = lease.statement();
+            int index = bindQueryFilters(stmt, query);
+            if (after != null) {
+                int level;
                 try {
-                    playerUuid = UUID.fromString(uuidString);
-                } catch (IllegalArgumentException e) {
-                    logger.severe("Invalid UUID in database: " + uuidString);
-                    return Optional.empty();
+                    level = Integer.parseInt(after[0]);
+                } catch (NumberFormatException e) {
+                    throw new SQLException("Invalid query cursor '" + cursor + "'", e);
                 }
-                storedUsername = rs.getString("username");
+                stmt.setString(index++, after[2]);
+                stmt.setString(index++, after[2]);
+                stmt.setInt(index++, level);
+                stmt.setInt(index++, level);
+                setUuid(stmt, index++, parseCursor(after[1]));
+            }
+            stmt.setInt(index, query.getLimit());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = getUuid(rs, "uuid");
+                    if (uuid == null) {
+                        logger.severe("Invalid UUID in database for player: " + rs.getString("username"));
+                        continue;
+                    }
+                    matches.add(new AfflictionMatch(uuid, rs.getString("username"), parseAfflictionData(rs)));
+                }
+            }
+        }
+
+        if (matches.size() < query.getLimit()) {
+            return new AfflictionMatchPage(matches, null);
+        }
+        AfflictionMatch last = matches.get(matches.size() - 1);
+        return new AfflictionMatchPage(matches, last.affliction().level() + ":" + last.playerUuid()
+                + ":" + last.affliction().afflictionId());
+    }
+
+    /**
+     * Count the players with a matching affliction using the affliction index.
+     *
+     * @param query The filters, with the category already resolved
+     * @return The number of matching players
+     * @throws SQLException if the query fails
+     */
+    protected long countSync(@NotNull AfflictionQuery query) throws SQLException {
+        if (query.isEmpty()) {
+            return 0;
+        }
+
+        try (StatementCache.Lease lease = StatementCache.uncached(connection(),
+                COUNT_SQL.formatted(queryFilters(query)))) {
+            PreparedStatement stmt = lease.statement();
+            bindQueryFilters(stmt, query);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public @NotNull AfflictionMatchPage query(@NotNull AfflictionQuery query, @Nullable String cursor)
+            throws SQLException {
+        return querySync(query, cursor);
+    }
+
+    @Override
+    public long count(@NotNull AfflictionQuery query) throws SQLException {
+        return countSync(query);
+    }
+
+    /**
+     * Build the WHERE conditions for the filters that are set.
+     */
+    private static String queryFilters(AfflictionQuery query) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getAfflictionIds() != null) {
+            conditions.add("a.affliction_id IN ("
+                    + String.join(", ", Collections.nCopies(query.getAfflictionIds().size(), "?")) + ")");
+        }
+        if (query.getMinLevel() != Integer.MIN_VALUE) {
+            conditions.add("a.level >= ?");
+        }
+        if (query.getMaxLevel() != Integer.MAX_VALUE) {
+            conditions.add("a.level <= ?");
+        }
+        if (query.getContractedAfter() != Long.MIN_VALUE) {
+            conditions.add("a.contracted_at >= ?");
+        }
+        if (query.getContractedBefore() != Long.MAX_VALUE) {
+            conditions.add("a.contracted_at < ?");
+        }
+        return conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions);
+    }
+
+    /**
+     * Bind the values for {@link #queryFilters}.
+     *
+     * @return The next parameter index
+     */
+    private static int bindQueryFilters(PreparedStatement stmt, AfflictionQuery query) throws SQLException {
+        int index = 1;
+        if (query.getAfflictionIds() != null) {
+            for (String afflictionId : query.getAfflictionIds().stream().sorted().toList()) {
+                stmt.setString(index++, afflictionId);
             }
         }
+        if (query.getMinLevel() != Integer.MIN_VALUE) {
+            stmt.setInt(index++, query.getMinLevel());
+        }
+        if (query.getMaxLevel() != Integer.MAX_VALUE) {
+            stmt.setInt(index++, query.getMaxLevel());
+        }
+        if (query.getContractedAfter() != Long.MIN_VALUE) {
+            stmt.setLong(index++, query.getContractedAfter());
+        }
+        if (query.getContractedBefore() != Long.MAX_VALUE) {
+            stmt.setLong(index++, query.getContractedBefore());
+        }
+        return index;
+    }
 
-        List<AfflictionData> afflictions = loadAfflictions(playerUuid.toString());
-        return Optional.of(new PlayerAfflictionData(playerUuid, storedUsername, afflictions));
+    private static UUID parseCursor(String cursor) throws SQLException {
+        try {
+            return UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Invalid page cursor '" + cursor + "'", e);
+        }
     }
 
     @Override
     protected void saveSync(@NotNull PlayerAfflictionData data) throws SQLException {
-        executeInTransaction(() -> {
-            // Upsert player record
-            try (PreparedStatement stmt = requireConnection().prepareStatement(getUpsertPlayerSql())) {
-                stmt.setString(1, data.uuid().toString());
-                stmt.setString(2, data.username());
-                stmt.setLong(3, System.currentTimeMillis());
-                stmt.executeUpdate();
-            }
-
-            // Delete existing afflictions
-            try (PreparedStatement stmt = requireConnection().prepareStatement(DELETE_AFFLICTIONS_SQL)) {
-                stmt.setString(1, data.uuid().toString());
-                stmt.executeUpdate();
-            }
-
-            // Insert current afflictions
-            if (!data.afflictions().isEmpty()) {
-                try (PreparedStatement stmt = requireConnection().prepareStatement(INSERT_AFFLICTION_SQL)) {
-                    for (AfflictionData affliction : data.afflictions()) {
-                        stmt.setString(1, data.uuid().toString());
-                        stmt.setString(2, affliction.afflictionId());
-                        stmt.setInt(3, affliction.level());
-                        stmt.setLong(4, affliction.duration());
-                        stmt.setLong(5, affliction.contractedAt());
-                        stmt.setString(6, gson.toJson(affliction.data()));
-                        stmt.addBatch();
-                    }
-                    stmt.executeBatch();
+        saveBatch(List.of(data));
+    }
+
+    @Override
+    public void saveBatch(@NotNull Collection<PlayerAfflictionData> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        writeGeneration.incrementAndGet();
+        try {
+            runInTransaction(() -> {
+                for (PlayerAfflictionData data : batch) {
+                    writePlayer(data);
                 }
+            });
+        } catch (SQLException | RuntimeException e) {
+            // The transaction rolled back, so the remembered rows may no longer match
+            for (PlayerAfflictionData data : batch) {
+                persisted.remove(data.uuid());
             }
-        });
+            throw e;
+        } finally {
+            writeGeneration.incrementAndGet();
+        }
+
+        // Only remember what was written once the transaction has committed
+        if (!savesDeltas()) {
+            return;
+        }
+        for (PlayerAfflictionData data : batch) {
+            remember(data.uuid(), data.username(), data.afflictions());
+        }
     }
 
     @Override
     protected void deleteSync(@NotNull UUID uuid) throws SQLException {
+        persisted.remove(uuid);
         // Foreign key cascade will delete afflictions
-        try (PreparedStatement stmt = requireConnection().prepareStatement(DELETE_PLAYER_SQL)) {
-            stmt.setString(1, uuid.toString());
+        try (StatementCache.Lease lease = prepare(DELETE_PLAYER_SQL)) {
+            PreparedStatement stmt = lease.statement();
+            setUuid(stmt, 1, uuid);
             stmt.executeUpdate();
         }
     }
 
     @Override
     protected boolean existsSync(@NotNull UUID uuid) throws SQLException {
-        try (PreparedStatement stmt = requireConnection().prepareStatement(HAS_PLAYER_SQL)) {
-            stmt.setString(1, uuid.toString());
+        try (StatementCache.Lease lease = prepare(HAS_PLAYER_SQL)) {
+            PreparedStatement stmt = lease.statement();
+            setUuid(stmt, 1, uuid);
             try (ResultSet rs = stmt.executeQuery()) {
                 return rs.next();
             }
@@ -215,19 +724,189 @@ public abstract class AbstractSqlStorage
     // ============================================================
 
     /**
-     * Load afflictions for a player UUID.
+     * Write a player and their afflictions. Must run inside a transaction.
+     * Writes only the rows that differ from the remembered snapshot, if there is one.
      */
-    private List<AfflictionData> loadAfflictions(String playerUuid) throws SQLException {
-        List<AfflictionData> afflictions = new ArrayList<>();
-        try (PreparedStatement stmt = requireConnection().prepareStatement(SELECT_AFFLICTIONS_SQL)) {
-            stmt.setString(1, playerUuid);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    afflictions.add(parseAfflictionData(rs));
+    private void writePlayer(PlayerAfflictionData data) throws SQLException {
+        PersistedPlayer previous = savesDeltas() ? persisted.get(data.uuid()) : null;
+        if (previous == null) {
+            rewritePlayer(data);
+            return;
+        }
+
+        List<AfflictionData> upserts = new ArrayList<>();
+        for (AfflictionData affliction : data.afflictions()) {
+            if (!affliction.equals(previous.afflictions().get(affliction.afflictionId()))) {
+                upserts.add(affliction);
+            }
+        }
+
+        List<String> deletes = new ArrayList<>();
+        for (String afflictionId : previous.afflictions().keySet()) {
+            if (!data.hasAffliction(afflictionId)) {
+                deletes.add(afflictionId);
+            }
+        }
+
+        if (upserts.isEmpty() && deletes.isEmpty() && previous.username().equals(data.username())) {
+            unchangedSaves.increment();
+            return;
+        }
+
+        upsertPlayer(data);
+
+        if (!deletes.isEmpty()) {
+            try (StatementCache.Lease lease = prepare(DELETE_AFFLICTION_SQL)) {
+                PreparedStatement stmt = lease.statement();
+                for (String afflictionId : deletes) {
+                    setUuid(stmt, 1, data.uuid());
+                    stmt.setString(2, afflictionId);
+                    stmt.addBatch();
                 }
+                stmt.executeBatch();
             }
+            rowsDeleted.add(deletes.size());
+        }
+
+        if (!upserts.isEmpty()) {
+            try (StatementCache.Lease lease = prepare(getUpsertAfflictionSql())) {
+                PreparedStatement stmt = lease.statement();
+                for (AfflictionData affliction : upserts) {
+                    bindAffliction(stmt, data.uuid(), affliction);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            rowsUpserted.add(upserts.size());
         }
-        return afflictions;
+    }
+
+    /**
+     * Replace all of a player's rows. Used when the stored rows are not known.
+     */
+    private void rewritePlayer(PlayerAfflictionData data) throws SQLException {
+        upsertPlayer(data);
+
+        // Delete existing afflictions
+        try (StatementCache.Lease lease = prepare(DELETE_AFFLICTIONS_SQL)) {
+            PreparedStatement stmt = lease.statement();
+            setUuid(stmt, 1, data.uuid());
+            stmt.executeUpdate();
+        }
+
+        // Insert current afflictions
+        if (!data.afflictions().isEmpty()) {
+            try (StatementCache.Lease lease = prepare(INSERT_AFFLICTION_SQL)) {
+                PreparedStatement stmt = lease.statement();
+                for (AfflictionData affliction : data.afflictions()) {
+                    bindAffliction(stmt, data.uuid(), affliction);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        fullRewrites.increment();
+        rowsUpserted.add(data.afflictions().size());
+    }
+
+    private void upsertPlayer(PlayerAfflictionData data) throws SQLException {
+        try (StatementCache.Lease lease = prepare(getUpsertPlayerSql())) {
+            PreparedStatement stmt = lease.statement();
+            setUuid(stmt, 1, data.uuid());
+            stmt.setString(2, data.username());
+            stmt.setLong(3, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Bind an affliction row: player_uuid, affliction_id, level, duration, contracted_at, data.
+     */
+    private void bindAffliction(PreparedStatement stmt, UUID playerUuid, AfflictionData affliction)
+            throws SQLException {
+        setUuid(stmt, 1, playerUuid);
+        stmt.setString(2, affliction.afflictionId());
+        stmt.setInt(3, affliction.level());
+        stmt.setLong(4, affliction.duration());
+        stmt.setLong(5, affliction.contractedAt());
+        setData(stmt, 6, affliction.data());
+    }
+
+    /**
+     * Remember the rows now stored for a player.
+     */
+    private void remember(UUID uuid, String username, List<AfflictionData> afflictions) {
+        Map<String, AfflictionData> rows = new HashMap<>();
+        for (AfflictionData affliction : afflictions) {
+            rows.put(affliction.afflictionId(), affliction);
+        }
+        persisted.put(uuid, new PersistedPlayer(username, rows));
+    }
+
+    /**
+     * Remember rows read by a load, unless a write ran while they were being read.
+     */
+    private void rememberLoaded(long generation, PlayerAfflictionData data) {
+        if (!savesDeltas()) {
+            return;
+        }
+        synchronized (persisted) {
+            if (writeGeneration.get() == generation) {
+                remember(data.uuid(), data.username(), data.afflictions());
+            }
+        }
+    }
+
+    private String loadByNameSql() {
+        String sql = loadByNameSql;
+        if (sql == null) {
+            // Ordered so rows of one player are adjacent if several share the name
+            sql = SELECT_PLAYER_JOINED_SQL + "WHERE " + getUsernameMatchSql() + " ORDER BY p.uuid";
+            loadByNameSql = sql;
+        }
+        return sql;
+    }
+
+    private String loadByNameOrUuidSql() {
+        String sql = loadByNameOrUuidSql;
+        if (sql == null) {
+            // A username match sorts first so it wins over a UUID match
+            String nameMatch = getUsernameMatchSql();
+            sql = SELECT_PLAYER_JOINED_SQL
+                    + "WHERE " + nameMatch + " OR p.uuid = ?"
+                    + " ORDER BY CASE WHEN " + nameMatch + " THEN 0 ELSE 1 END, p.uuid";
+            loadByNameOrUuidSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * Read one player from joined rows. Only the rows of the first player in the
+     * result are read.
+     */
+    private Optional<PlayerAfflictionData> readJoinedPlayer(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return Optional.empty();
+        }
+
+        String username = rs.getString("username");
+        UUID playerUuid = getUuid(rs, "uuid");
+        if (playerUuid == null) {
+            logger.severe("Invalid UUID in database for player: " + username);
+            return Optional.empty();
+        }
+
+        List<AfflictionData> afflictions = new ArrayList<>();
+        do {
+            if (!playerUuid.equals(getUuid(rs, "uuid"))) {
+                break;
+            }
+            if (rs.getString("affliction_id") != null) {
+                afflictions.add(parseAfflictionData(rs));
+            }
+        } while (rs.next());
+
+        return Optional.of(new PlayerAfflictionData(playerUuid, username, afflictions));
     }
 
     /**
@@ -238,14 +917,53 @@ public abstract class AbstractSqlStorage
         int level = rs.getInt("level");
         long duration = rs.getLong("duration");
         long contractedAt = rs.getLong("contracted_at");
-        String dataJson = rs.getString("data");
 
-        Map<String, String> data = new HashMap<>();
-        if (dataJson != null && !dataJson.isEmpty()) {
-            Type type = new TypeToken<Map<String, String>>() {}.getType();
-            data = gson.fromJson(dataJson, type);
+        Map<String, String> data;
+        try {
+            data = getData(rs, "data");
+        } catch (IOException | IllegalStateException e) {
+            throw new SQLException("Malformed data for affliction '" + afflictionId + "'", e);
         }
 
         return new AfflictionData(afflictionId, level, duration, contractedAt, data);
     }
+
+    // ============================================================
+    // Statistics
+    // ============================================================
+
+    /**
+     * Get the number of affliction rows inserted or updated.
+     */
+    public long getRowsUpserted() {
+        return rowsUpserted.sum();
+    }
+
+    /**
+     * Get the number of affliction rows deleted individually.
+     */
+    public long getRowsDeleted() {
+        return rowsDeleted.sum();
+    }
+
+    /**
+     * Get the number of player saves that wrote nothing because nothing changed.
+     */
+    public long getUnchangedSaves() {
+        return unchangedSaves.sum();
+    }
+
+    /**
+     * Get the number of player saves that rewrote every row.
+     */
+    public long getFullRewrites() {
+        return fullRewrites.sum();
+    }
+
+    public void resetStats() {
+        rowsUpserted.reset();
+        rowsDeleted.reset();
+        unchangedSaves.reset();
+        fullRewrites.reset();
+    }
 }
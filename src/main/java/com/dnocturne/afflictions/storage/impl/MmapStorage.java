@@ -0,0 +1,980 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.storage.AfflictionStorage;
+import com.dnocturne.afflictions.storage.PlayerPage;
+import com.dnocturne.afflictions.storage.data.BinaryPlayerCodec;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Flat-file storage for single-server deployments that do not need SQL.
+ *
+ * <p>Players are kept in a memory-mapped file of fixed-size slots. The slot table is
+ * itself an open-addressing hash table keyed by UUID with linear probing, so a load
+ * is a few probes into mapped memory and completes on the calling thread. A record
+ * that does not fit in its slot is appended to an overflow file and the slot points
+ * to it. Every record carries a CRC32; a record torn by a crash is dropped with a
+ * warning when the file is opened.</p>
+ *
+ * <p>Files live in numbered generations ({@code players-N.dat} and
+ * {@code overflow-N.dat}). Growing the table or compacting away deleted slots and
+ * overwritten overflow records writes a new generation, marks it complete, then
+ * deletes the old one, so a crash part-way through leaves the old generation in use.</p>
+ *
+ * <p>Writes go to the page cache immediately; the {@link FsyncPolicy} decides how
+ * often they are forced to disk. A failed batch may be partly written, which is
+ * harmless because saves replace whole players.</p>
+ */
+public class MmapStorage implements AfflictionStorage {
+
+    /**
+     * When writes are forced to disk.
+     */
+    public enum FsyncPolicy {
+        /**
+         * After every save, delete and batch.
+         */
+        ALWAYS,
+        /**
+         * On a fixed interval while there are unsynced writes.
+         */
+        INTERVAL,
+        /**
+         * Only when the storage is closed; a power loss may lose recent saves.
+         */
+        NEVER
+    }
+
+    private static final int MAGIC = 0x4146464D; // "AFFM"
+    private static final int FORMAT_VERSION = 1;
+
+    // Header layout
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_SLOT_SIZE = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_GENERATION = 16;
+    private static final int H_COMPLETE = 24;
+
+    // Slot layout
+    static final int SLOT_SIZE = 256;
+    private static final int S_STATE = 0;
+    private static final int S_FLAGS = 1;
+    private static final int S_CRC = 4;
+    private static final int S_MSB = 8;
+    private static final int S_LSB = 16;
+    private static final int S_LENGTH = 24;
+    private static final int S_OVERFLOW = 28;
+    private static final int S_PAYLOAD = 36;
+    static final int INLINE_CAPACITY = SLOT_SIZE - S_PAYLOAD;
+
+    private static final byte STATE_EMPTY = 0;
+    private static final byte STATE_USED = 1;
+    private static final byte STATE_DELETED = 2;
+    private static final byte FLAG_OVERFLOW = 1;
+
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_CAPACITY = 1 << 22;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    private static final double TARGET_LOAD_FACTOR = 0.5;
+    private static final long COMPACT_MIN_GARBAGE_BYTES = 1 << 20;
+    private static final int MAX_RECORD_BYTES = 64 << 20;
+
+    private static final String PLAYERS_PREFIX = "players-";
+    private static final String OVERFLOW_PREFIX = "overflow-";
+    private static final String FILE_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final Logger logger;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int initialCapacity;
+
+    private final ScheduledExecutorService writer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private @Nullable Generation current;
+    private final Map<UUID, String> usernames = new HashMap<>();
+    private final Map<String, UUID> byName = new HashMap<>();
+    private boolean unsynced;
+    private long compactions;
+
+    /**
+     * The files of one generation and what is in them.
+     */
+    private static final class Generation {
+        final long number;
+        final int capacity;
+        final FileChannel channel;
+        final MappedByteBuffer slots;
+        final FileChannel overflow;
+        int live;
+        int deleted;
+        long overflowEnd;
+        long overflowGarbage;
+
+        Generation(long number, int capacity, FileChannel channel, MappedByteBuffer slots, FileChannel overflow) {
+            this.number = number;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.slots = slots;
+            this.overflow = overflow;
+        }
+    }
+
+    public MmapStorage(Afflictions plugin) {
+        this(plugin.getDataFolder().toPath().resolve("mmap"), plugin.getLogger(),
+                fsyncPolicy(plugin),
+                plugin.getConfigManager().getMainConfig().getLong("storage.mmap.fsync-interval-ms", 1000L),
+                plugin.getConfigManager().getMainConfig().getInt("storage.mmap.initial-capacity", 1024));
+    }
+
+    /**
+     * @param directory           Directory holding the data files
+     * @param logger              Logger for warnings
+     * @param fsyncPolicy         When writes are forced to disk
+     * @param fsyncIntervalMillis Interval for {@link FsyncPolicy#INTERVAL}
+     * @param initialCapacity     Slots in a new file; rounded up to a power of two
+     */
+    public MmapStorage(@NotNull Path directory, @NotNull Logger logger, @NotNull FsyncPolicy fsyncPolicy,
+                       long fsyncIntervalMillis, int initialCapacity) {
+        this.directory = directory;
+        this.logger = logger;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+        this.initialCapacity = roundCapacity(initialCapacity);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Afflictions-Mmap-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static FsyncPolicy fsyncPolicy(Afflictions plugin) {
+        String value = plugin.getConfigManager().getMainConfig().getString("storage.mmap.fsync", "interval");
+        try {
+            return FsyncPolicy.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid storage.mmap.fsync '" + value + "' in config, using interval");
+            return FsyncPolicy.INTERVAL;
+        }
+    }
+
+    // ============================================================
+    // Storage
+    // ============================================================
+
+    @Override
+    public CompletableFuture<Boolean> init() {
+        return CompletableFuture.supplyAsync(() -> {
+            lock.writeLock().lock();
+            try {
+                Files.createDirectories(directory);
+                current = openLatest();
+                if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                    writer.scheduleWithFixedDelay(this::syncIfNeeded, fsyncIntervalMillis, fsyncIntervalMillis,
+                            TimeUnit.MILLISECONDS);
+                }
+
+                logger.info("Mmap storage initialized: " + directory.toAbsolutePath() + " (" + current.live
+                        + " player(s), " + current.capacity + " slots, fsync " + fsyncPolicy.name().toLowerCase(Locale.ROOT)
+                        + ")");
+                return true;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to initialize mmap storage", e);
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, writer);
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        if (writer.isShutdown()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(() -> {
+            lock.writeLock().lock();
+            try {
+                if (current != null) {
+                    force(current);
+                    close(current);
+                    current = null;
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, writer);
+        // Already queued writes run first; the periodic sync is cancelled
+        writer.shutdown();
+        return closed;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Served from mapped memory on the calling thread.</p>
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> load(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return CompletableFuture.completedFuture(loadLocked(uuid));
+        } catch (IOException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByName(String username) {
+        lock.readLock().lock();
+        try {
+            UUID uuid = byName.get(username.toLowerCase(Locale.ROOT));
+            return CompletableFuture.completedFuture(uuid != null ? loadLocked(uuid) : Optional.empty());
+        } catch (IOException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(@NotNull String username,
+                                                                              @NotNull UUID uuid) {
+        lock.readLock().lock();
+        try {
+            UUID named = byName.get(username.toLowerCase(Locale.ROOT));
+            return CompletableFuture.completedFuture(loadLocked(named != null ? named : uuid));
+        } catch (IOException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Players are returned in slot order and the cursor is the generation and slot
+     * to continue from. If the files were rewritten since the cursor was issued, paging
+     * starts again from the first slot, so a caller may see a player twice but never
+     * misses one that was stored throughout.</p>
+     */
+    @Override
+    public @NotNull PlayerPage loadPage(@Nullable String cursor, int limit) throws SQLException {
+        int pageSize = Math.max(1, limit);
+        lock.readLock().lock();
+        try {
+            Generation generation = requireOpen();
+            int slot = cursorSlot(cursor, generation);
+            List<PlayerAfflictionData> players = new ArrayList<>(Math.min(pageSize, generation.live));
+            for (; slot < generation.capacity && players.size() < pageSize; slot++) {
+                int offset = slotOffset(slot);
+                if (generation.slots.get(offset + S_STATE) != STATE_USED) {
+                    continue;
+                }
+                UUID uuid = new UUID(generation.slots.getLong(offset + S_MSB), generation.slots.getLong(offset + S_LSB));
+                byte[] payload = readPayload(generation, slot);
+                players.add(BinaryPlayerCodec.readPlayer(new DataInputStream(new ByteArrayInputStream(payload)), uuid));
+            }
+            String next = slot < generation.capacity ? generation.number + ":" + slot : null;
+            return new PlayerPage(players, next);
+        } catch (IOException | IllegalStateException e) {
+            throw new SQLException("Failed to read a page from mmap storage", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int cursorSlot(@Nullable String cursor, Generation generation) throws SQLException {
+        if (cursor == null) {
+            return 0;
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            long number = Long.parseLong(cursor.substring(0, Math.max(0, separator)));
+            int slot = Integer.parseInt(cursor.substring(separator + 1));
+            return number == generation.number ? Math.max(0, slot) : 0;
+        } catch (NumberFormatException e) {
+            throw new SQLException("Invalid page cursor '" + cursor + "'", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return CompletableFuture.completedFuture(indexOf(requireOpen(), uuid) >= 0);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> save(PlayerAfflictionData data) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                saveBatch(List.of(data));
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(UUID uuid) {
+        return CompletableFuture.runAsync(() -> {
+            lock.writeLock().lock();
+            try {
+                Generation generation = requireOpen();
+                int slot = indexOf(generation, uuid);
+                if (slot < 0) {
+                    return;
+                }
+                release(generation, slot);
+                generation.slots.put(slotOffset(slot) + S_STATE, STATE_DELETED);
+                generation.live--;
+                generation.deleted++;
+                forgetName(uuid);
+                afterWrite();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>I/O failures are reported as an {@link SQLException} wrapping the cause, as
+     * the write-behind queue expects.</p>
+     */
+    @Override
+    public void saveBatch(@NotNull Collection<PlayerAfflictionData> batch) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Generation generation = requireOpen();
+            for (PlayerAfflictionData data : batch) {
+                generation = write(generation, data);
+            }
+            afterWrite();
+        } catch (IOException | IllegalStateException e) {
+            throw new SQLException("Failed to write " + batch.size() + " player(s) to mmap storage", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String getType() {
+        return "mmap";
+    }
+
+    /**
+     * Rewrite the data files without deleted slots and overwritten overflow records.
+     * Also runs automatically once enough space is wasted.
+     *
+     * @return A future completed when compaction finishes
+     */
+    public @NotNull CompletableFuture<Void> compact() {
+        return CompletableFuture.runAsync(() -> {
+            lock.writeLock().lock();
+            try {
+                Generation generation = requireOpen();
+                rebuild(generation, capacityFor(generation.live));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, writer);
+    }
+
+    // ============================================================
+    // Reading and writing slots (lock held)
+    // ============================================================
+
+    private Generation requireOpen() {
+        if (current == null) {
+            throw new IllegalStateException("Mmap storage is not open");
+        }
+        return current;
+    }
+
+    private Optional<PlayerAfflictionData> loadLocked(UUID uuid) throws IOException {
+        Generation generation = requireOpen();
+        int slot = indexOf(generation, uuid);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        byte[] payload = readPayload(generation, slot);
+        return Optional.of(BinaryPlayerCodec.readPlayer(new DataInputStream(new ByteArrayInputStream(payload)), uuid));
+    }
+
+    /**
+     * Write a player, growing or compacting the table first if needed.
+     *
+     * @return The generation now in use
+     */
+    private Generation write(Generation generation, PlayerAfflictionData data) throws IOException {
+        byte[] payload = encode(data);
+        UUID uuid = data.uuid();
+
+        int slot = indexOf(generation, uuid);
+        if (slot >= 0) {
+            release(generation, slot);
+        } else {
+            if (generation.live + generation.deleted + 1 > generation.capacity * MAX_LOAD_FACTOR) {
+                generation = rebuild(generation, capacityFor(generation.live + 1));
+            }
+            slot = insertionSlot(generation, uuid);
+            if (generation.slots.get(slotOffset(slot) + S_STATE) == STATE_DELETED) {
+                generation.deleted--;
+            }
+            generation.live++;
+        }
+        writeSlot(generation, slot, uuid, payload);
+
+        String previous = usernames.put(uuid, data.username());
+        if (previous != null && !previous.equalsIgnoreCase(data.username())) {
+            byName.remove(previous.toLowerCase(Locale.ROOT), uuid);
+        }
+        byName.put(data.username().toLowerCase(Locale.ROOT), uuid);
+        return generation;
+    }
+
+    private void writeSlot(Generation generation, int slot, UUID uuid, byte[] payload) throws IOException {
+        MappedByteBuffer slots = generation.slots;
+        int offset = slotOffset(slot);
+
+        if (payload.length <= INLINE_CAPACITY) {
+            slots.put(offset + S_FLAGS, (byte) 0);
+            slots.putLong(offset + S_OVERFLOW, 0L);
+            slots.put(offset + S_PAYLOAD, payload);
+        } else {
+            long position = generation.overflowEnd;
+            ByteBuffer bytes = ByteBuffer.wrap(payload);
+            while (bytes.hasRemaining()) {
+                generation.overflow.write(bytes, position + bytes.position());
+            }
+            generation.overflowEnd += payload.length;
+            slots.put(offset + S_FLAGS, FLAG_OVERFLOW);
+            slots.putLong(offset + S_OVERFLOW, position);
+        }
+        slots.putInt(offset + S_LENGTH, payload.length);
+        slots.putInt(offset + S_CRC, checksum(payload));
+        slots.putLong(offset + S_MSB, uuid.getMostSignificantBits());
+        slots.putLong(offset + S_LSB, uuid.getLeastSignificantBits());
+        // Written last so a new slot is never visible half-written
+        slots.put(offset + S_STATE, STATE_USED);
+    }
+
+    /**
+     * Count the overflow record of a slot that is about to be replaced or deleted as garbage.
+     */
+    private static void release(Generation generation, int slot) {
+        int offset = slotOffset(slot);
+        if ((generation.slots.get(offset + S_FLAGS) & FLAG_OVERFLOW) != 0) {
+            generation.overflowGarbage += generation.slots.getInt(offset + S_LENGTH);
+        }
+    }
+
+    private static byte[] readPayload(Generation generation, int slot) throws IOException {
+        MappedByteBuffer slots = generation.slots;
+        int offset = slotOffset(slot);
+        int length = slots.getInt(offset + S_LENGTH);
+        if (length < 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Invalid record length " + length + " in slot " + slot);
+        }
+
+        byte[] payload = new byte[length];
+        if ((slots.get(offset + S_FLAGS) & FLAG_OVERFLOW) == 0) {
+            if (length > INLINE_CAPACITY) {
+                throw new IOException("Invalid inline record length " + length + " in slot " + slot);
+            }
+            slots.get(offset + S_PAYLOAD, payload);
+        } else {
+            long position = slots.getLong(offset + S_OVERFLOW);
+            if (position < 0 || position + length > generation.overflowEnd) {
+                throw new IOException("Overflow record of slot " + slot + " is outside the overflow file");
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(payload);
+            while (bytes.hasRemaining()) {
+                if (generation.overflow.read(bytes, position + bytes.position()) < 0) {
+                    throw new IOException("Overflow record of slot " + slot + " is truncated");
+                }
+            }
+        }
+
+        if (checksum(payload) != slots.getInt(offset + S_CRC)) {
+            throw new IOException("Checksum mismatch in slot " + slot);
+        }
+        return payload;
+    }
+
+    /**
+     * Find the slot holding a player.
+     *
+     * @return The slot, or -1 if the player is not stored
+     */
+    private static int indexOf(Generation generation, UUID uuid) {
+        MappedByteBuffer slots = generation.slots;
+        int mask = generation.capacity - 1;
+        int slot = hash(uuid) & mask;
+        for (int probes = 0; probes < generation.capacity; probes++) {
+            int offset = slotOffset(slot);
+            byte state = slots.get(offset + S_STATE);
+            if (state == STATE_EMPTY) {
+                return -1;
+            }
+            if (state == STATE_USED
+                    && slots.getLong(offset + S_MSB) == uuid.getMostSignificantBits()
+                    && slots.getLong(offset + S_LSB) == uuid.getLeastSignificantBits()) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the slot to insert a player that is not stored: the first deleted or empty
+     * slot on its probe sequence.
+     */
+    private static int insertionSlot(Generation generation, UUID uuid) {
+        MappedByteBuffer slots = generation.slots;
+        int mask = generation.capacity - 1;
+        int slot = hash(uuid) & mask;
+        for (int probes = 0; probes < generation.capacity; probes++) {
+            if (slots.get(slotOffset(slot) + S_STATE) != STATE_USED) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Unreachable while the load factor is bounded
+        throw new IllegalStateException("Mmap storage slot table is full");
+    }
+
+    private void afterWrite() throws IOException {
+        Generation generation = requireOpen();
+        if (generation.deleted > generation.capacity / 4
+                || (generation.overflowGarbage > COMPACT_MIN_GARBAGE_BYTES
+                && generation.overflowGarbage * 2 > generation.overflowEnd)) {
+            generation = rebuild(generation, capacityFor(generation.live));
+        }
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            force(generation);
+        } else {
+            unsynced = true;
+        }
+    }
+
+    private void syncIfNeeded() {
+        lock.readLock().lock();
+        try {
+            if (unsynced && current != null) {
+                force(current);
+                // Writers are excluded while the read lock is held
+                unsynced = false;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to sync mmap storage", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================================================
+    // Generations
+    // ============================================================
+
+    /**
+     * Open the newest complete generation, or create the first one, and remove any
+     * files left by older or unfinished generations.
+     */
+    private Generation openLatest() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> generationOf(path, PLAYERS_PREFIX)).filter(number -> number > 0).forEach(numbers::add);
+        }
+        numbers.sort(null);
+
+        Generation opened = null;
+        for (int i = numbers.size() - 1; i >= 0 && opened == null; i--) {
+            try {
+                opened = openGeneration(numbers.get(i));
+            } catch (IOException e) {
+                logger.warning("Skipping unusable mmap storage generation " + numbers.get(i) + ": " + e.getMessage());
+            }
+        }
+        if (opened == null) {
+            if (!numbers.isEmpty()) {
+                throw new IOException("No usable data file in " + directory);
+            }
+            opened = createGeneration(1, initialCapacity);
+            markComplete(opened);
+        }
+
+        deleteOtherGenerations(opened.number);
+        return opened;
+    }
+
+    private Generation openGeneration(long number) throws IOException {
+        FileChannel channel = FileChannel.open(playersFile(number), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel overflow = null;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(H_MAGIC) != MAGIC) {
+                throw new IOException("Not a data file");
+            }
+            if (header.getInt(H_VERSION) != FORMAT_VERSION || header.getInt(H_SLOT_SIZE) != SLOT_SIZE) {
+                throw new IOException("Unsupported format version " + header.getInt(H_VERSION));
+            }
+            int capacity = header.getInt(H_CAPACITY);
+            if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY
+                    || channel.size() != HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+                throw new IOException("Invalid capacity " + capacity);
+            }
+            if (header.getLong(H_GENERATION) != number || header.getInt(H_COMPLETE) != 1) {
+                throw new IOException("Generation was not completed");
+            }
+
+            overflow = FileChannel.open(overflowFile(number), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            Generation generation = new Generation(number, capacity, channel, slots, overflow);
+            generation.overflowEnd = overflow.size();
+            scan(generation);
+            return generation;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            closeQuietly(overflow);
+            throw e;
+        }
+    }
+
+    /**
+     * Count slots, index usernames and drop records that fail their checksum.
+     */
+    private void scan(Generation generation) {
+        long liveOverflow = 0;
+        for (int slot = 0; slot < generation.capacity; slot++) {
+            int offset = slotOffset(slot);
+            byte state = generation.slots.get(offset + S_STATE);
+            if (state == STATE_DELETED) {
+                generation.deleted++;
+                continue;
+            }
+            if (state != STATE_USED) {
+                continue;
+            }
+
+            UUID uuid = new UUID(generation.slots.getLong(offset + S_MSB), generation.slots.getLong(offset + S_LSB));
+            try {
+                byte[] payload = readPayload(generation, slot);
+                String username = new DataInputStream(new ByteArrayInputStream(payload)).readUTF();
+                usernames.put(uuid, username);
+                byName.put(username.toLowerCase(Locale.ROOT), uuid);
+                generation.live++;
+                if ((generation.slots.get(offset + S_FLAGS) & FLAG_OVERFLOW) != 0) {
+                    liveOverflow += payload.length;
+                }
+            } catch (IOException e) {
+                logger.warning("Dropping unreadable mmap storage record for " + uuid + ": " + e.getMessage());
+                generation.slots.put(offset + S_STATE, STATE_DELETED);
+                generation.deleted++;
+            }
+        }
+        generation.overflowGarbage = generation.overflowEnd - liveOverflow;
+    }
+
+    private Generation createGeneration(long number, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(playersFile(number), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel overflow = null;
+        try {
+            overflow = FileChannel.open(overflowFile(number), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer slots = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            slots.putInt(H_MAGIC, MAGIC);
+            slots.putInt(H_VERSION, FORMAT_VERSION);
+            slots.putInt(H_SLOT_SIZE, SLOT_SIZE);
+            slots.putInt(H_CAPACITY, capacity);
+            slots.putLong(H_GENERATION, number);
+            slots.putInt(H_COMPLETE, 0);
+            return new Generation(number, capacity, channel, slots, overflow);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            closeQuietly(overflow);
+            throw e;
+        }
+    }
+
+    private static void markComplete(Generation generation) throws IOException {
+        force(generation);
+        generation.slots.putInt(H_COMPLETE, 1);
+        generation.slots.force();
+    }
+
+    /**
+     * Copy every live record into a new generation with the given capacity, switch to
+     * it and delete the old one.
+     *
+     * @return The new generation
+     */
+    private Generation rebuild(Generation old, int capacity) throws IOException {
+        if (old.live + 1 > capacity * MAX_LOAD_FACTOR && capacity >= MAX_CAPACITY) {
+            throw new IOException("Mmap storage is full (" + old.live + " players)");
+        }
+
+        Generation next = createGeneration(old.number + 1, capacity);
+        try {
+            for (int slot = 0; slot < old.capacity; slot++) {
+                int offset = slotOffset(slot);
+                if (old.slots.get(offset + S_STATE) != STATE_USED) {
+                    continue;
+                }
+                UUID uuid = new UUID(old.slots.getLong(offset + S_MSB), old.slots.getLong(offset + S_LSB));
+                byte[] payload;
+                try {
+                    payload = readPayload(old, slot);
+                } catch (IOException e) {
+                    logger.warning("Dropping unreadable mmap storage record for " + uuid + ": " + e.getMessage());
+                    forgetName(uuid);
+                    continue;
+                }
+                writeSlot(next, insertionSlot(next, uuid), uuid, payload);
+                next.live++;
+            }
+            markComplete(next);
+        } catch (IOException | RuntimeException e) {
+            close(next);
+            deleteGeneration(next.number);
+            throw e;
+        }
+
+        close(old);
+        deleteGeneration(old.number);
+        current = next;
+        compactions++;
+        logger.fine("Rewrote mmap storage: " + next.live + " player(s) in " + next.capacity + " slots");
+        return next;
+    }
+
+    private void deleteOtherGenerations(long keep) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                long number = Math.max(generationOf(path, PLAYERS_PREFIX), generationOf(path, OVERFLOW_PREFIX));
+                if (number > 0 && number != keep) {
+                    deleteQuietly(path);
+                }
+            }
+        }
+    }
+
+    private void deleteGeneration(long number) {
+        deleteQuietly(playersFile(number));
+        deleteQuietly(overflowFile(number));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Retried on the next startup
+            logger.fine("Could not delete " + path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void forgetName(UUID uuid) {
+        String username = usernames.remove(uuid);
+        if (username != null) {
+            byName.remove(username.toLowerCase(Locale.ROOT), uuid);
+        }
+    }
+
+    private static void force(Generation generation) throws IOException {
+        generation.slots.force();
+        generation.overflow.force(false);
+    }
+
+    private static void close(Generation generation) {
+        closeQuietly(generation.channel);
+        closeQuietly(generation.overflow);
+    }
+
+    private static void closeQuietly(@Nullable FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do
+        }
+    }
+
+    // ============================================================
+    // Helpers
+    // ============================================================
+
+    private Path playersFile(long number) {
+        return directory.resolve(PLAYERS_PREFIX + number + FILE_SUFFIX);
+    }
+
+    private Path overflowFile(long number) {
+        return directory.resolve(OVERFLOW_PREFIX + number + FILE_SUFFIX);
+    }
+
+    private static long generationOf(Path path, String prefix) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int hash(UUID uuid) {
+        long h = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(PlayerAfflictionData data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        BinaryPlayerCodec.writePlayer(new DataOutputStream(bytes), data);
+        return bytes.toByteArray();
+    }
+
+    private static int roundCapacity(int requested) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < requested && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private int capacityFor(int players) {
+        int capacity = initialCapacity;
+        while (capacity * TARGET_LOAD_FACTOR < players && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // ============================================================
+    // Statistics
+    // ============================================================
+
+    /**
+     * Get the number of stored players.
+     */
+    public int getPlayerCount() {
+        lock.readLock().lock();
+        try {
+            return current != null ? current.live : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of slots in the data file.
+     */
+    public int getCapacity() {
+        lock.readLock().lock();
+        try {
+            return current != null ? current.capacity : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the size of the overflow file in bytes.
+     */
+    public long getOverflowBytes() {
+        lock.readLock().lock();
+        try {
+            return current != null ? current.overflowEnd : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of times the data files have been rewritten to grow or compact.
+     */
+    public long getCompactions() {
+        lock.readLock().lock();
+        try {
+            return compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
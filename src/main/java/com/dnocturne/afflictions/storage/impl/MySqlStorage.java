@@ -0,0 +1,397 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.storage.AfflictionMatchPage;
+import com.dnocturne.afflictions.storage.AfflictionQuery;
+import com.dnocturne.afflictions.storage.PlayerPage;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MySQL/MariaDB storage implementation backed by a HikariCP connection pool.
+ *
+ * <p>Unlike SQLite, calls do not share one connection. Each load, save or delete
+ * borrows a connection from the pool on a worker thread, so several players can be
+ * loaded and saved at the same time. The worker count matches the pool size.</p>
+ */
+public class MySqlStorage extends AbstractSqlStorage {
+
+    private static final String POOL_NAME = "Afflictions-MySQL";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final HikariConfig poolConfig;
+    private final ExecutorService executor;
+    private volatile @Nullable HikariDataSource dataSource;
+
+    /**
+     * Create storage using the {@code storage.mysql} section of the main config.
+     */
+    public MySqlStorage(@NotNull Afflictions plugin) {
+        this(plugin, createPoolConfig(plugin));
+    }
+
+    /**
+     * Create storage with an explicit pool configuration.
+     *
+     * @param plugin     The owning plugin
+     * @param poolConfig The pool configuration, including the JDBC URL and credentials
+     */
+    public MySqlStorage(@NotNull Plugin plugin, @NotNull HikariConfig poolConfig) {
+        super(plugin);
+        this.poolConfig = poolConfig;
+        if (poolConfig.getPoolName() == null) {
+            poolConfig.setPoolName(POOL_NAME);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolConfig.getMaximumPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, POOL_NAME + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Build a pool configuration from the {@code storage.mysql} config section.
+     */
+    private static HikariConfig createPoolConfig(Afflictions plugin) {
+        var config = plugin.getConfigManager().getMainConfig();
+        String host = config.getString("storage.mysql.host", "localhost");
+        int port = config.getInt("storage.mysql.port", 3306);
+        String database = config.getString("storage.mysql.database", "afflictions");
+
+        HikariConfig poolConfig = new HikariConfig();
+        poolConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database);
+        poolConfig.setUsername(config.getString("storage.mysql.username", "root"));
+        poolConfig.setPassword(config.getString("storage.mysql.password", ""));
+        poolConfig.setMaximumPoolSize(Math.max(1, config.getInt("storage.mysql.pool.maximum-pool-size", 10)));
+        poolConfig.setMinimumIdle(Math.max(0, config.getInt("storage.mysql.pool.minimum-idle", 2)));
+        poolConfig.setConnectionTimeout(config.getLong("storage.mysql.pool.connection-timeout", 30000L));
+
+        poolConfig.addDataSourceProperty("characterEncoding", "utf8");
+        poolConfig.addDataSourceProperty("useUnicode", "true");
+        // Lets the driver send batched inserts and upserts as a single statement
+        poolConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+        poolConfig.addDataSourceProperty("cachePrepStmts", "true");
+        poolConfig.addDataSourceProperty("prepStmtCacheSize", "64");
+        poolConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        return poolConfig;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> init() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                dataSource = new HikariDataSource(poolConfig);
+                withConnection(() -> {
+                    createTables();
+                    migrateDatabase();
+                    return null;
+                });
+
+                logger.info("MySQL storage initialized: " + poolConfig.getJdbcUrl()
+                        + " (pool size " + poolConfig.getMaximumPoolSize() + ")");
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                logger.severe("Failed to initialize MySQL storage: " + e.getMessage());
+                if (e instanceof SQLException sqlException) {
+                    logger.severe("SQL State: " + sqlException.getSQLState()
+                            + ", Error Code: " + sqlException.getErrorCode());
+                }
+                closeDataSource();
+                return false;
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return CompletableFuture.runAsync(() -> {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warning("MySQL storage tasks did not finish within "
+                            + SHUTDOWN_TIMEOUT_SECONDS + " seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeDataSource();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> load(UUID uuid) {
+        return supply(() -> loadSync(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByName(String username) {
+        return supply(() -> loadByNameSync(username));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(@NotNull String username,
+                                                                              @NotNull UUID uuid) {
+        return supply(() -> loadByNameOrUuidSync(username, uuid));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(PlayerAfflictionData data) {
+        return supply(() -> {
+            saveSync(data);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(UUID uuid) {
+        return supply(() -> {
+            deleteSync(uuid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(UUID uuid) {
+        return supply(() -> existsSync(uuid));
+    }
+
+    @Override
+    public void saveBatch(@NotNull Collection<PlayerAfflictionData> batch) throws SQLException {
+        // Called directly by the storage writer thread, so borrow a connection here too
+        withConnection(() -> {
+            super.saveBatch(batch);
+            return null;
+        });
+    }
+
+    @Override
+    public @NotNull PlayerPage loadPage(@Nullable String cursor, int limit) throws SQLException {
+        return withConnection(() -> loadPageSync(cursor, limit));
+    }
+
+    @Override
+    public @NotNull AfflictionMatchPage query(@NotNull AfflictionQuery query, @Nullable String cursor)
+            throws SQLException {
+        return withConnection(() -> querySync(query, cursor));
+    }
+
+    @Override
+    public long count(@NotNull AfflictionQuery query) throws SQLException {
+        return withConnection(() -> countSync(query));
+    }
+
+    @Override
+    public String getType() {
+        return "mysql";
+    }
+
+    // ============================================================
+    // Pool handling
+    // ============================================================
+
+    private <R> CompletableFuture<R> supply(SqlSupplier<R> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return withConnection(work);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Run work with a pooled connection bound to the calling thread.
+     * Reuses the bound connection when called from within another call.
+     */
+    private <R> R withConnection(SqlSupplier<R> work) throws SQLException {
+        if (hasBoundConnection()) {
+            return work.get();
+        }
+
+        HikariDataSource source = dataSource;
+        if (source == null || source.isClosed()) {
+            throw new SQLException("MySQL connection pool is not available");
+        }
+
+        try (Connection pooled = source.getConnection()) {
+            bindConnection(pooled);
+            try {
+                return work.get();
+            } finally {
+                bindConnection(null);
+            }
+        }
+    }
+
+    @Override
+    protected boolean cachesStatements() {
+        // Pooled connections close their statements when returned; the driver caches them instead
+        return false;
+    }
+
+    @Override
+    protected boolean savesDeltas() {
+        // Other servers may share this database, so the rows last seen here can be stale
+        return false;
+    }
+
+    @Override
+    protected void runInTransaction(@NotNull SqlAction action) throws SQLException {
+        Connection current = connection();
+        boolean autoCommit = current.getAutoCommit();
+        current.setAutoCommit(false);
+        try {
+            action.run();
+            current.commit();
+        } catch (SQLException | RuntimeException e) {
+            current.rollback();
+            throw e;
+        } finally {
+            current.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void closeDataSource() {
+        HikariDataSource source = dataSource;
+        dataSource = null;
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    /**
+     * Get the number of pooled connections currently in use, or 0 if the pool is closed.
+     */
+    public int getActiveConnections() {
+        HikariDataSource source = dataSource;
+        return source != null && source.getHikariPoolMXBean() != null
+                ? source.getHikariPoolMXBean().getActiveConnections()
+                : 0;
+    }
+
+    // ============================================================
+    // MySQL-specific SQL
+    // ============================================================
+
+    @Override
+    protected void onConnectionEstablished() throws SQLException {
+        // Pooled connections need no per-connection setup
+    }
+
+    @Override
+    protected void migrateDatabase() throws SQLException {
+        // Tables created before the affliction index existed need it added
+        if (hasIndex("player_afflictions", "idx_player_afflictions_affliction_level")) {
+            return;
+        }
+        logger.info("Migrating database: adding affliction level index...");
+        try (var stmt = connection().createStatement()) {
+            stmt.execute("ALTER TABLE player_afflictions ADD INDEX idx_player_afflictions_affliction_level "
+                    + "(affliction_id, level, player_uuid)");
+        }
+        logger.info("Database migration complete");
+    }
+
+    /**
+     * Check whether a table has an index, through JDBC metadata so it works on any
+     * MySQL-compatible database.
+     */
+    private boolean hasIndex(String table, String index) throws SQLException {
+        Connection current = connection();
+        try (ResultSet rs = current.getMetaData()
+                .getIndexInfo(current.getCatalog(), current.getSchema(), table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected String getCreatePlayersTableSql() {
+        // The default collation compares case-insensitively, which username lookups rely on
+        return """
+                CREATE TABLE IF NOT EXISTS afflicted_players (
+                    uuid CHAR(36) NOT NULL PRIMARY KEY,
+                    username VARCHAR(64) NOT NULL,
+                    last_seen BIGINT NOT NULL,
+                    INDEX idx_afflicted_players_username (username)
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                """;
+    }
+
+    @Override
+    protected String getCreateAfflictionsTableSql() {
+        return """
+                CREATE TABLE IF NOT EXISTS player_afflictions (
+                    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                    player_uuid CHAR(36) NOT NULL,
+                    affliction_id VARCHAR(64) NOT NULL,
+                    level INT NOT NULL DEFAULT 1,
+                    duration BIGINT NOT NULL DEFAULT -1,
+                    contracted_at BIGINT NOT NULL,
+                    data TEXT,
+                    UNIQUE KEY uk_player_afflictions_player_affliction (player_uuid, affliction_id),
+                    INDEX idx_player_afflictions_affliction_level (affliction_id, level, player_uuid),
+                    CONSTRAINT fk_player_afflictions_player FOREIGN KEY (player_uuid)
+                        REFERENCES afflicted_players(uuid) ON DELETE CASCADE
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                """;
+    }
+
+    @Override
+    protected String[] getCreateIndexesSql() {
+        // Indexes are declared inline since MySQL has no CREATE INDEX IF NOT EXISTS;
+        // the unique key also serves lookups by player_uuid
+        return new String[0];
+    }
+
+    @Override
+    protected String getUpsertPlayerSql() {
+        return """
+                INSERT INTO afflicted_players (uuid, username, last_seen)
+                VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE username = VALUES(username), last_seen = VALUES(last_seen)
+                """;
+    }
+
+    @Override
+    protected String getUpsertAfflictionSql() {
+        return """
+                INSERT INTO player_afflictions (player_uuid, affliction_id, level, duration, contracted_at, data)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE
+                    level = VALUES(level),
+                    duration = VALUES(duration),
+                    contracted_at = VALUES(contracted_at),
+                    data = VALUES(data)
+                """;
+    }
+
+    @Override
+    protected String getUsernameMatchSql() {
+        // Relies on the table's case-insensitive default collation
+        return "p.username = ?";
+    }
+}
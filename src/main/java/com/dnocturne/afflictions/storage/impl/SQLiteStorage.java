@@ -1,20 +1,116 @@
 package com.dnocturne.afflictions.storage.impl;
 
 import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.storage.AfflictionMatchPage;
+import com.dnocturne.afflictions.storage.AfflictionQuery;
+import com.dnocturne.afflictions.storage.PlayerPage;
+import com.dnocturne.afflictions.storage.data.BinaryDataCodec;
+import com.dnocturne.afflictions.storage.data.InstanceDataCodec;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * SQLite storage implementation.
+ *
+ * <p>The database runs in WAL mode with one writer and a small pool of read-only
+ * connections. All writes go through a single writer thread on the shared connection;
+ * loads run on reader threads, each with its own connection, so they read the last
+ * committed state without waiting behind a save.</p>
+ *
+ * <p>Player UUIDs are stored as 16-byte blobs and affliction data in the
+ * {@link BinaryDataCodec} format. Databases created with text keys or JSON data are
+ * converted in place on startup; see {@link #migrateDatabase()}.</p>
  */
 public class SQLiteStorage extends AbstractSqlStorage {
 
+    private static final Set<String> SYNCHRONOUS_LEVELS = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    /**
+     * Schema version kept in {@code PRAGMA user_version}.
+     * <ul>
+     *   <li>1 - UUID keys as 36-character text, data as JSON</li>
+     *   <li>2 - UUID keys as 16-byte blobs</li>
+     *   <li>3 - data in the binary format</li>
+     * </ul>
+     */
+    private static final int SCHEMA_VERSION = 3;
+    private static final int BINARY_KEYS_VERSION = 2;
+    private static final int BINARY_DATA_VERSION = 3;
+
+    /**
+     * Rows copied per transaction while migrating, so no single write holds the lock for long.
+     */
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final String synchronous;
+    private final long mmapSizeBytes;
+    private final long cacheSizeKib;
+    private final int readConnectionCount;
+
+    private final ExecutorService writer;
+    private volatile Thread writerThread;
+    private final ExecutorService readers;
+    private final BlockingQueue<Connection> readConnections;
+    private String url;
+
     public SQLiteStorage(Afflictions plugin) {
         super(plugin);
+
+        var config = plugin.getConfigManager().getMainConfig();
+        String level = config.getString("storage.sqlite.synchronous", "NORMAL").toUpperCase(Locale.ROOT);
+        if (!SYNCHRONOUS_LEVELS.contains(level)) {
+            logger.warning("Invalid storage.sqlite.synchronous '" + level + "' in config, using NORMAL");
+            level = "NORMAL";
+        }
+        this.synchronous = level;
+        this.mmapSizeBytes = Math.max(0, config.getLong("storage.sqlite.mmap-size-mb", 64L)) * 1024 * 1024;
+        this.cacheSizeKib = Math.max(0, config.getLong("storage.sqlite.cache-size-mb", 16L)) * 1024;
+        this.readConnectionCount = Math.max(1, config.getInt("storage.sqlite.read-connections", 2));
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Afflictions-SQLite-Writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+        AtomicInteger readerCount = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(readConnectionCount, runnable -> {
+            Thread thread = new Thread(runnable, "Afflictions-SQLite-Reader-" + readerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readConnections = new ArrayBlockingQueue<>(readConnectionCount);
     }
 
     @Override
@@ -27,21 +123,155 @@ public class SQLiteStorage extends AbstractSqlStorage {
                 }
 
                 File dbFile = new File(dataFolder, "afflictions.db");
-                String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+                url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
 
                 connection = DriverManager.getConnection(url);
                 onConnectionEstablished();
                 createTables();
                 migrateDatabase();
 
-                logger.info("SQLite storage initialized: " + dbFile.getAbsolutePath());
+                // Readers are opened after the schema exists and WAL is enabled
+                for (int i = 0; i < readConnectionCount; i++) {
+                    readConnections.add(openReadConnection());
+                }
+
+                logger.info("SQLite storage initialized: " + dbFile.getAbsolutePath()
+                        + " (synchronous " + synchronous + ", " + readConnectionCount + " read connection(s))");
                 return true;
             } catch (SQLException e) {
                 logger.severe("Failed to initialize SQLite storage: " + e.getMessage());
                 logger.severe("SQL State: " + e.getSQLState() + ", Error Code: " + e.getErrorCode());
                 return false;
             }
+        }, writer);
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        if (writer.isShutdown()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            readers.shutdown();
+            awaitTermination(readers, "reader");
+            for (Connection reader : drainReadConnections()) {
+                closeStatements(reader);
+                closeQuietly(reader);
+            }
+
+            // Queued writes finish before the checkpoint
+            writer.submit(() -> {
+                checkpoint();
+                if (connection != null) {
+                    closeStatements(connection);
+                }
+            });
+            writer.shutdown();
+            awaitTermination(writer, "writer");
+        }).thenCompose(ignored -> super.shutdown());
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> load(UUID uuid) {
+        return read(() -> loadSync(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByName(String username) {
+        return read(() -> loadByNameSync(username));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PlayerAfflictionData>> loadByNameOrUuid(@NotNull String username,
+                                                                              @NotNull UUID uuid) {
+        return read(() -> loadByNameOrUuidSync(username, uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(UUID uuid) {
+        return read(() -> existsSync(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(PlayerAfflictionData data) {
+        return write(() -> {
+            saveSync(data);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(UUID uuid) {
+        return write(() -> {
+            deleteSync(uuid);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveBatch(@NotNull Collection<PlayerAfflictionData> batch) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            super.saveBatch(batch);
+            return;
+        }
+
+        // Hand the batch to the writer thread so the shared connection only ever has one writer
+        Future<Void> result = writer.submit(() -> {
+            super.saveBatch(batch);
+            return null;
         });
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Batched save failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for batched save", e);
+        }
+    }
+
+    @Override
+    public @NotNull PlayerPage loadPage(@Nullable String cursor, int limit) throws SQLException {
+        return readAndWait(() -> loadPageSync(cursor, limit));
+    }
+
+    @Override
+    public @NotNull AfflictionMatchPage query(@NotNull AfflictionQuery query, @Nullable String cursor)
+            throws SQLException {
+        return readAndWait(() -> querySync(query, cursor));
+    }
+
+    @Override
+    public long count(@NotNull AfflictionQuery query) throws SQLException {
+        return readAndWait(() -> countSync(query));
+    }
+
+    /**
+     * Run a read on a reader thread and wait for it, for the blocking read methods.
+     */
+    private <R> R readAndWait(SqlSupplier<R> work) throws SQLException {
+        try {
+            return read(work).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Read failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for read", e);
+        }
     }
 
     @Override
@@ -49,6 +279,100 @@ public class SQLiteStorage extends AbstractSqlStorage {
         return "sqlite";
     }
 
+    // ============================================================
+    // Connection handling
+    // ============================================================
+
+    private <R> CompletableFuture<R> write(SqlSupplier<R> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.get();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    /**
+     * Run a read on a reader thread with one of the read-only connections bound to it.
+     */
+    private <R> CompletableFuture<R> read(SqlSupplier<R> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            // There is one reader thread per connection, so none is free only before init or after shutdown.
+            // The writer's connection must not be used from here: it belongs to the writer thread.
+            Connection reader = readConnections.poll();
+            if (reader == null) {
+                throw new CompletionException(new SQLException("SQLite storage is not initialized"));
+            }
+
+            bindConnection(reader);
+            try {
+                return work.get();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                bindConnection(null);
+                readConnections.add(reader);
+            }
+        }, readers);
+    }
+
+    private Connection openReadConnection() throws SQLException {
+        Connection reader = DriverManager.getConnection(url);
+        try (var stmt = reader.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+            applyTuning(stmt);
+        } catch (SQLException e) {
+            closeQuietly(reader);
+            throw e;
+        }
+        return reader;
+    }
+
+    /**
+     * Apply the per-connection cache settings.
+     */
+    private void applyTuning(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA synchronous = " + synchronous);
+        stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+        // A negative cache_size is a size in KiB rather than a page count
+        stmt.execute("PRAGMA cache_size = -" + cacheSizeKib);
+        stmt.execute("PRAGMA temp_store = MEMORY");
+    }
+
+    private void checkpoint() {
+        try (var stmt = requireConnection().createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        } catch (SQLException e) {
+            logger.warning("Failed to checkpoint SQLite WAL on shutdown: " + e.getMessage());
+        }
+    }
+
+    private List<Connection> drainReadConnections() {
+        List<Connection> drained = new ArrayList<>();
+        readConnections.drainTo(drained);
+        return drained;
+    }
+
+    private void awaitTermination(ExecutorService executor, String name) {
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("SQLite " + name + " tasks did not finish within "
+                        + SHUTDOWN_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warning("Failed to close SQLite read connection: " + e.getMessage());
+        }
+    }
+
     // ============================================================
     // SQLite-specific SQL
     // ============================================================
@@ -57,35 +381,46 @@ public class SQLiteStorage extends AbstractSqlStorage {
     protected void onConnectionEstablished() throws SQLException {
         try (var stmt = connection.createStatement()) {
             stmt.execute("PRAGMA foreign_keys = ON");
+            // WAL lets the read connections see committed data while a write is in progress
+            stmt.execute("PRAGMA journal_mode = WAL");
+            applyTuning(stmt);
         }
     }
 
     @Override
     protected String getCreatePlayersTableSql() {
+        return createPlayersTableSql("afflicted_players");
+    }
+
+    @Override
+    protected String getCreateAfflictionsTableSql() {
+        return createAfflictionsTableSql("player_afflictions", "afflicted_players");
+    }
+
+    private static String createPlayersTableSql(String table) {
         return """
-                CREATE TABLE IF NOT EXISTS afflicted_players (
-                    uuid TEXT PRIMARY KEY,
+                CREATE TABLE IF NOT EXISTS %s (
+                    uuid BLOB PRIMARY KEY,
                     username TEXT NOT NULL,
                     last_seen INTEGER NOT NULL
                 )
-                """;
+                """.formatted(table);
     }
 
-    @Override
-    protected String getCreateAfflictionsTableSql() {
+    private static String createAfflictionsTableSql(String table, String playersTable) {
         return """
-                CREATE TABLE IF NOT EXISTS player_afflictions (
+                CREATE TABLE IF NOT EXISTS %s (
                     id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    player_uuid TEXT NOT NULL,
+                    player_uuid BLOB NOT NULL,
                     affliction_id TEXT NOT NULL,
                     level INTEGER NOT NULL DEFAULT 1,
                     duration INTEGER NOT NULL DEFAULT -1,
                     contracted_at INTEGER NOT NULL,
-                    data TEXT,
-                    FOREIGN KEY (player_uuid) REFERENCES afflicted_players(uuid) ON DELETE CASCADE,
+                    data BLOB,
+                    FOREIGN KEY (player_uuid) REFERENCES %s(uuid) ON DELETE CASCADE,
                     UNIQUE(player_uuid, affliction_id)
                 )
-                """;
+                """.formatted(table, playersTable);
     }
 
     @Override
@@ -98,6 +433,11 @@ public class SQLiteStorage extends AbstractSqlStorage {
                 """
                 CREATE INDEX IF NOT EXISTS idx_afflicted_players_username
                 ON afflicted_players(username COLLATE NOCASE)
+                """,
+                // Serves queries by affliction and level; the player column keeps pages in index order
+                """
+                CREATE INDEX IF NOT EXISTS idx_player_afflictions_affliction_level
+                ON player_afflictions(affliction_id, level, player_uuid)
                 """
         };
     }
@@ -112,12 +452,74 @@ public class SQLiteStorage extends AbstractSqlStorage {
     }
 
     @Override
-    protected String getFindPlayerByNameSql() {
-        return "SELECT uuid, username FROM afflicted_players WHERE username = ? COLLATE NOCASE";
+    protected String getUpsertAfflictionSql() {
+        return """
+                INSERT INTO player_afflictions (player_uuid, affliction_id, level, duration, contracted_at, data)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT(player_uuid, affliction_id) DO UPDATE SET
+                    level = excluded.level,
+                    duration = excluded.duration,
+                    contracted_at = excluded.contracted_at,
+                    data = excluded.data
+                """;
+    }
+
+    @Override
+    protected String getUsernameMatchSql() {
+        return "p.username = ? COLLATE NOCASE";
     }
 
+    @Override
+    protected void setUuid(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        stmt.setBytes(index, UuidBytes.toBytes(uuid));
+    }
+
+    @Override
+    protected @Nullable UUID getUuid(ResultSet rs, String column) throws SQLException {
+        return UuidBytes.fromBytes(rs.getBytes(column));
+    }
+
+    @Override
+    protected void setData(PreparedStatement stmt, int index, Map<String, String> data) throws SQLException {
+        if (data.isEmpty()) {
+            stmt.setNull(index, Types.BLOB);
+        } else {
+            stmt.setBytes(index, BinaryDataCodec.encode(data));
+        }
+    }
+
+    @Override
+    protected Map<String, String> getData(ResultSet rs, String column) throws SQLException, IOException {
+        byte[] stored = rs.getBytes(column);
+        if (stored == null || BinaryDataCodec.isEncoded(stored)) {
+            return BinaryDataCodec.decode(stored);
+        }
+        // Not yet converted, or written by an older version
+        return InstanceDataCodec.fromJson(new String(stored, StandardCharsets.UTF_8));
+    }
+
+    // ============================================================
+    // Migrations
+    // ============================================================
+
+    /**
+     * Bring an older database up to {@link #SCHEMA_VERSION}.
+     *
+     * <p>Text UUID keys are converted by copying into new tables in batches of
+     * {@link #MIGRATION_BATCH_SIZE} rows, each in its own short transaction, then
+     * swapping the tables in one final transaction. JSON data is then rewritten in
+     * place, also in batches. This runs during {@link #init()}, before any load or
+     * save is accepted, so nothing writes to the tables while they are converted.
+     * An interrupted key copy is started over on the next startup; interrupted data
+     * conversion carries on from the rows that are still JSON.</p>
+     */
     @Override
     protected void migrateDatabase() throws SQLException {
+        int version = getSchemaVersion();
+        if (version >= SCHEMA_VERSION) {
+            return;
+        }
+
         try (ResultSet columns = connection.getMetaData().getColumns(null, null, "afflicted_players", "username")) {
             if (!columns.next()) {
                 // Column doesn't exist, add it
@@ -128,5 +530,189 @@ public class SQLiteStorage extends AbstractSqlStorage {
                 logger.info("Database migration complete");
             }
         }
+
+        if (hasTextKeys()) {
+            migrateToBinaryKeys();
+        }
+        if (version < BINARY_DATA_VERSION) {
+            migrateDataColumn();
+        }
+        try (var stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+        }
+    }
+
+    private int getSchemaVersion() throws SQLException {
+        try (var stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private boolean hasTextKeys() throws SQLException {
+        try (var stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(afflicted_players)")) {
+            while (rs.next()) {
+                if ("uuid".equalsIgnoreCase(rs.getString("name"))) {
+                    return !"BLOB".equalsIgnoreCase(rs.getString("type"));
+                }
+            }
+        }
+        return false;
+    }
+
+    private void migrateToBinaryKeys() throws SQLException {
+        logger.info("Migrating database: converting UUID keys to binary...");
+        long start = System.nanoTime();
+
+        try (var stmt = connection.createStatement()) {
+            // Left over from an interrupted migration
+            stmt.execute("DROP TABLE IF EXISTS player_afflictions_v2");
+            stmt.execute("DROP TABLE IF EXISTS afflicted_players_v2");
+            stmt.execute(createPlayersTableSql("afflicted_players_v2"));
+            stmt.execute(createAfflictionsTableSql("player_afflictions_v2", "afflicted_players_v2"));
+        }
+
+        int players = copyInBatches("""
+                        SELECT rowid, uuid, username, last_seen FROM afflicted_players
+                        WHERE rowid > ? ORDER BY rowid LIMIT ?
+                        """,
+                "INSERT OR IGNORE INTO afflicted_players_v2 (uuid, username, last_seen) VALUES (?, ?, ?)",
+                (row, insert) -> {
+                    UUID uuid = parseTextUuid(row.getString("uuid"));
+                    if (uuid == null) {
+                        return false;
+                    }
+                    setUuid(insert, 1, uuid);
+                    insert.setString(2, row.getString("username"));
+                    insert.setLong(3, row.getLong("last_seen"));
+                    return true;
+                });
+
+        // The join leaves out rows whose player is missing, which would fail the foreign key
+        int afflictions = copyInBatches("""
+                        SELECT a.id, a.player_uuid, a.affliction_id, a.level, a.duration, a.contracted_at, a.data
+                        FROM player_afflictions a
+                        JOIN afflicted_players p ON p.uuid = a.player_uuid
+                        WHERE a.id > ? ORDER BY a.id LIMIT ?
+                        """,
+                """
+                        INSERT OR REPLACE INTO player_afflictions_v2
+                        (player_uuid, affliction_id, level, duration, contracted_at, data)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        """,
+                (row, insert) -> {
+                    UUID uuid = parseTextUuid(row.getString("player_uuid"));
+                    if (uuid == null) {
+                        return false;
+                    }
+                    setUuid(insert, 1, uuid);
+                    insert.setString(2, row.getString("affliction_id"));
+                    insert.setInt(3, row.getInt("level"));
+                    insert.setLong(4, row.getLong("duration"));
+                    insert.setLong(5, row.getLong("contracted_at"));
+                    insert.setString(6, row.getString("data"));
+                    return true;
+                });
+
+        runInTransaction(() -> {
+            try (var stmt = connection.createStatement()) {
+                stmt.execute("DROP TABLE player_afflictions");
+                stmt.execute("DROP TABLE afflicted_players");
+                stmt.execute("ALTER TABLE afflicted_players_v2 RENAME TO afflicted_players");
+                stmt.execute("ALTER TABLE player_afflictions_v2 RENAME TO player_afflictions");
+                for (String indexSql : getCreateIndexesSql()) {
+                    stmt.execute(indexSql);
+                }
+                stmt.execute("PRAGMA user_version = " + BINARY_KEYS_VERSION);
+            }
+        });
+
+        logger.info("Database migration complete: " + players + " player(s) and " + afflictions
+                + " affliction(s) converted in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+    }
+
+    private void migrateDataColumn() throws SQLException {
+        long start = System.nanoTime();
+        int converted = copyInBatches("""
+                        SELECT id, data FROM player_afflictions
+                        WHERE id > ? AND typeof(data) = 'text' ORDER BY id LIMIT ?
+                        """,
+                "UPDATE player_afflictions SET data = ? WHERE id = ?",
+                (row, update) -> {
+                    Map<String, String> data;
+                    try {
+                        data = InstanceDataCodec.fromJson(row.getString("data"));
+                    } catch (IOException | IllegalStateException e) {
+                        // Left as JSON; loading it reports the error
+                        logger.warning("Skipping malformed data in affliction row " + row.getLong("id")
+                                + " during migration: " + e.getMessage());
+                        return false;
+                    }
+                    setData(update, 1, data);
+                    update.setLong(2, row.getLong("id"));
+                    return true;
+                });
+        if (converted > 0) {
+            logger.info("Database migration complete: " + converted + " affliction data value(s) converted"
+                    + " to binary in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        }
+    }
+
+    /**
+     * Copies one source row into a bound insert or update.
+     */
+    @FunctionalInterface
+    private interface RowCopier {
+        /**
+         * @return false to skip the row
+         */
+        boolean copy(ResultSet row, PreparedStatement insert) throws SQLException;
+    }
+
+    /**
+     * Copy rows in key order, one transaction per batch. The select takes the last
+     * key copied and a batch size, and returns the key as its first column.
+     *
+     * @return The number of rows copied
+     */
+    private int copyInBatches(String selectSql, String insertSql, RowCopier copier) throws SQLException {
+        long lastKey = Long.MIN_VALUE;
+        int copied = 0;
+        try (PreparedStatement select = connection.prepareStatement(selectSql);
+             PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            while (true) {
+                select.setLong(1, lastKey);
+                select.setInt(2, MIGRATION_BATCH_SIZE);
+                int read = 0;
+                int batched = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastKey = rs.getLong(1);
+                        if (copier.copy(rs, insert)) {
+                            insert.addBatch();
+                            batched++;
+                        }
+                    }
+                }
+                if (batched > 0) {
+                    runInTransaction(insert::executeBatch);
+                    copied += batched;
+                }
+                if (read < MIGRATION_BATCH_SIZE) {
+                    return copied;
+                }
+            }
+        }
+    }
+
+    private @Nullable UUID parseTextUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warning("Skipping row with invalid UUID during migration: " + value);
+            return null;
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prepared statements for one connection, kept open and reused across calls.
+ *
+ * <p>Not thread-safe. A connection is only used by one thread at a time, and so is
+ * its cache.</p>
+ */
+final class StatementCache {
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    /**
+     * A prepared statement handed out for one use. Closing it returns a cached
+     * statement for reuse, and closes an uncached one.
+     */
+    record Lease(@NotNull PreparedStatement statement, boolean cached) implements AutoCloseable {
+
+        @Override
+        public void close() throws SQLException {
+            if (cached) {
+                // Drop anything left over from a failed batch
+                statement.clearBatch();
+            } else {
+                statement.close();
+            }
+        }
+    }
+
+    StatementCache(@NotNull Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Get the cached statement for some SQL, preparing it on first use.
+     */
+    @NotNull Lease lease(@NotNull String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return new Lease(statement, true);
+    }
+
+    /**
+     * Prepare a statement that is closed after use.
+     */
+    static @NotNull Lease uncached(@NotNull Connection connection, @NotNull String sql) throws SQLException {
+        return new Lease(connection.prepareStatement(sql), false);
+    }
+
+    /**
+     * Close every cached statement.
+     */
+    void close() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The connection is going away anyway
+            }
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to and from their 16-byte big-endian form, as stored in binary key columns.
+ */
+final class UuidBytes {
+
+    static final int LENGTH = 16;
+
+    private UuidBytes() {
+    }
+
+    static byte @NotNull [] toBytes(@NotNull UUID uuid) {
+        return ByteBuffer.allocate(LENGTH)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * @return The UUID, or null if the value is not exactly 16 bytes
+     */
+    static @Nullable UUID fromBytes(byte @Nullable [] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
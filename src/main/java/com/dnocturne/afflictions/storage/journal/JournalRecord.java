@@ -0,0 +1,258 @@
+package com.dnocturne.afflictions.storage.journal;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.BinaryPlayerCodec;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A single change to a player's afflictions, as written to the {@link MutationJournal}.
+ *
+ * <p>Each record holds the new value rather than an increment, so replaying a record
+ * that is already reflected in storage is harmless.</p>
+ */
+sealed interface JournalRecord {
+
+    byte TYPE_SNAPSHOT = 1;
+    byte TYPE_APPLY = 2;
+    byte TYPE_REMOVE = 3;
+    byte TYPE_LEVEL = 4;
+    byte TYPE_STATE = 5;
+
+    /**
+     * Username used for a player whose first journaled change is not a snapshot.
+     */
+    String UNKNOWN_USERNAME = "unknown";
+
+    @NotNull UUID playerUuid();
+
+    /**
+     * Apply this change to a player's state.
+     *
+     * @param current The state before the change, or null if nothing is known
+     * @return The state after the change
+     */
+    @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current);
+
+    void write(@NotNull DataOutputStream out) throws IOException;
+
+    /**
+     * The full state of a player. Replaces anything recorded before it.
+     */
+    record Snapshot(@NotNull PlayerAfflictionData data) implements JournalRecord {
+
+        @Override
+        public @NotNull UUID playerUuid() {
+            return data.uuid();
+        }
+
+        @Override
+        public @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current) {
+            return data;
+        }
+
+        @Override
+        public void write(@NotNull DataOutputStream out) throws IOException {
+            writeHeader(out, TYPE_SNAPSHOT, data.uuid());
+            BinaryPlayerCodec.writePlayer(out, data);
+        }
+    }
+
+    /**
+     * An affliction was applied, or replaced as a whole.
+     */
+    record Apply(@NotNull UUID playerUuid, @NotNull AfflictionData affliction) implements JournalRecord {
+
+        @Override
+        public @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current) {
+            Map<String, AfflictionData> rows = rows(current);
+            rows.put(affliction.afflictionId(), affliction);
+            return withRows(playerUuid, current, rows);
+        }
+
+        @Override
+        public void write(@NotNull DataOutputStream out) throws IOException {
+            writeHeader(out, TYPE_APPLY, playerUuid);
+            BinaryPlayerCodec.writeAffliction(out, affliction);
+        }
+    }
+
+    /**
+     * An affliction was removed.
+     */
+    record Remove(@NotNull UUID playerUuid, @NotNull String afflictionId) implements JournalRecord {
+
+        @Override
+        public @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current) {
+            Map<String, AfflictionData> rows = rows(current);
+            rows.remove(afflictionId);
+            return withRows(playerUuid, current, rows);
+        }
+
+        @Override
+        public void write(@NotNull DataOutputStream out) throws IOException {
+            writeHeader(out, TYPE_REMOVE, playerUuid);
+            out.writeUTF(afflictionId);
+        }
+    }
+
+    /**
+     * An affliction's level or duration changed.
+     */
+    record LevelChange(@NotNull UUID playerUuid, @NotNull String afflictionId, int level, long duration)
+            implements JournalRecord {
+
+        @Override
+        public @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current) {
+            Map<String, AfflictionData> rows = rows(current);
+            AfflictionData row = rows.get(afflictionId);
+            if (row != null) {
+                rows.put(afflictionId, new AfflictionData(afflictionId, level, duration,
+                        row.contractedAt(), row.data()));
+            }
+            return withRows(playerUuid, current, rows);
+        }
+
+        @Override
+        public void write(@NotNull DataOutputStream out) throws IOException {
+            writeHeader(out, TYPE_LEVEL, playerUuid);
+            out.writeUTF(afflictionId);
+            out.writeInt(level);
+            out.writeLong(duration);
+        }
+    }
+
+    /**
+     * A state value of an affliction was set, or cleared when the value is null.
+     */
+    record StateChange(@NotNull UUID playerUuid, @NotNull String afflictionId, @NotNull String key,
+                       @Nullable String value) implements JournalRecord {
+
+        @Override
+        public @NotNull PlayerAfflictionData applyTo(@Nullable PlayerAfflictionData current) {
+            Map<String, AfflictionData> rows = rows(current);
+            AfflictionData row = rows.get(afflictionId);
+            if (row != null) {
+                Map<String, String> data = new HashMap<>(row.data());
+                if (value != null) {
+                    data.put(key, value);
+                } else {
+                    data.remove(key);
+                }
+                rows.put(afflictionId, new AfflictionData(afflictionId, row.level(), row.duration(),
+                        row.contractedAt(), data));
+            }
+            return withRows(playerUuid, current, rows);
+        }
+
+        @Override
+        public void write(@NotNull DataOutputStream out) throws IOException {
+            writeHeader(out, TYPE_STATE, playerUuid);
+            out.writeUTF(afflictionId);
+            out.writeUTF(key);
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    /**
+     * Compute the records that turn one state of a player into another.
+     *
+     * @param before The last journaled state
+     * @param after  The current state
+     * @return The changes, empty if nothing changed
+     */
+    static @NotNull List<JournalRecord> diff(@NotNull PlayerAfflictionData before,
+                                             @NotNull PlayerAfflictionData after) {
+        if (!before.username().equals(after.username())) {
+            return List.of(new Snapshot(after));
+        }
+
+        UUID uuid = after.uuid();
+        List<JournalRecord> records = new ArrayList<>();
+        Map<String, AfflictionData> previous = rows(before);
+        for (AfflictionData row : after.afflictions()) {
+            AfflictionData old = previous.remove(row.afflictionId());
+            if (old == null || old.contractedAt() != row.contractedAt()) {
+                records.add(new Apply(uuid, row));
+                continue;
+            }
+            if (old.level() != row.level() || old.duration() != row.duration()) {
+                records.add(new LevelChange(uuid, row.afflictionId(), row.level(), row.duration()));
+            }
+            if (!old.data().equals(row.data())) {
+                for (Map.Entry<String, String> entry : row.data().entrySet()) {
+                    if (!entry.getValue().equals(old.data().get(entry.getKey()))) {
+                        records.add(new StateChange(uuid, row.afflictionId(), entry.getKey(), entry.getValue()));
+                    }
+                }
+                for (String key : old.data().keySet()) {
+                    if (!row.data().containsKey(key)) {
+                        records.add(new StateChange(uuid, row.afflictionId(), key, null));
+                    }
+                }
+            }
+        }
+        for (String removed : previous.keySet()) {
+            records.add(new Remove(uuid, removed));
+        }
+        return records;
+    }
+
+    /**
+     * Read a record written by {@link #write}.
+     *
+     * @throws IOException if the record is malformed
+     */
+    static @NotNull JournalRecord read(@NotNull DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        UUID uuid = new UUID(in.readLong(), in.readLong());
+        return switch (type) {
+            case TYPE_SNAPSHOT -> new Snapshot(BinaryPlayerCodec.readPlayer(in, uuid));
+            case TYPE_APPLY -> new Apply(uuid, BinaryPlayerCodec.readAffliction(in));
+            case TYPE_REMOVE -> new Remove(uuid, in.readUTF());
+            case TYPE_LEVEL -> new LevelChange(uuid, in.readUTF(), in.readInt(), in.readLong());
+            case TYPE_STATE -> {
+                String afflictionId = in.readUTF();
+                String key = in.readUTF();
+                yield new StateChange(uuid, afflictionId, key, in.readBoolean() ? in.readUTF() : null);
+            }
+            default -> throw new IOException("Unknown journal record type " + type);
+        };
+    }
+
+    private static void writeHeader(DataOutputStream out, byte type, UUID uuid) throws IOException {
+        out.writeByte(type);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static Map<String, AfflictionData> rows(@Nullable PlayerAfflictionData data) {
+        Map<String, AfflictionData> rows = new LinkedHashMap<>();
+        if (data != null) {
+            for (AfflictionData row : data.afflictions()) {
+                rows.put(row.afflictionId(), row);
+            }
+        }
+        return rows;
+    }
+
+    private static PlayerAfflictionData withRows(UUID uuid, @Nullable PlayerAfflictionData current,
+                                                 Map<String, AfflictionData> rows) {
+        String username = current != null ? current.username() : UNKNOWN_USERNAME;
+        return new PlayerAfflictionData(uuid, username, new ArrayList<>(rows.values()));
+    }
+}
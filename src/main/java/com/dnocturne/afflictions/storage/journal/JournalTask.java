@@ -0,0 +1,118 @@
+package com.dnocturne.afflictions.storage.journal;
+
+import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.manager.AfflictionManager;
+import com.dnocturne.afflictions.manager.tick.RegionTickScheduler;
+import com.dnocturne.afflictions.player.AfflictedPlayer;
+import com.dnocturne.afflictions.storage.data.InstanceDataCodec;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.basalt.util.TaskUtil;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically records the affliction changes of online players in the {@link MutationJournal}.
+ *
+ * <p>Players whose version has not moved since the last capture are skipped, so a
+ * capture only snapshots players that actually changed. The journal turns each
+ * snapshot into the individual apply, remove, level and state records that differ
+ * from what it already holds.</p>
+ *
+ * <p>On Folia each player is captured on their own entity scheduler instead.</p>
+ */
+public class JournalTask {
+
+    private final Afflictions plugin;
+    private final AfflictionManager afflictionManager;
+    private final MutationJournal journal;
+
+    // Player version at the last capture
+    private final Map<UUID, Long> capturedVersions = new ConcurrentHashMap<>();
+
+    private @Nullable BukkitTask task;
+    private @Nullable ScheduledTask regionTask;
+
+    public JournalTask(@NotNull Afflictions plugin, @NotNull AfflictionManager afflictionManager,
+                       @NotNull MutationJournal journal) {
+        this.plugin = plugin;
+        this.afflictionManager = afflictionManager;
+        this.journal = journal;
+    }
+
+    /**
+     * Start capturing periodically.
+     *
+     * @param intervalTicks Ticks between captures
+     */
+    public void start(long intervalTicks) {
+        stop();
+        long interval = Math.max(1L, intervalTicks);
+
+        if (RegionTickScheduler.isFolia()) {
+            regionTask = plugin.getServer().getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, scheduled -> captureRegions(), interval, interval);
+        } else {
+            task = TaskUtil.runTimer(this::captureAll, interval, interval);
+        }
+    }
+
+    /**
+     * Stop capturing.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (regionTask != null) {
+            regionTask.cancel();
+            regionTask = null;
+        }
+        capturedVersions.clear();
+    }
+
+    private void captureAll() {
+        forgetOffline();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            capture(player);
+        }
+    }
+
+    private void captureRegions() {
+        forgetOffline();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            player.getScheduler().run(plugin, scheduled -> capture(player), null);
+        }
+    }
+
+    private void forgetOffline() {
+        capturedVersions.keySet().removeIf(uuid -> afflictionManager.getOnlinePlayers().get(uuid) == null);
+    }
+
+    private void capture(Player player) {
+        UUID uuid = player.getUniqueId();
+        Optional<AfflictedPlayer> afflictedOpt = afflictionManager.getPlayerManager().get(uuid);
+        if (afflictedOpt.isEmpty()) {
+            return;
+        }
+
+        AfflictedPlayer afflicted = afflictedOpt.get();
+        long version = afflicted.getVersion();
+        Long captured = capturedVersions.put(uuid, version);
+        if (captured != null && captured == version) {
+            return;
+        }
+
+        PlayerAfflictionData current = InstanceDataCodec.encodePlayer(
+                uuid, player.getName(), afflicted.getAfflictions());
+        journal.capture(current, afflicted.isDirty());
+    }
+}
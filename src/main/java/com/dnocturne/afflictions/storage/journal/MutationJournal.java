@@ -0,0 +1,503 @@
+package com.dnocturne.afflictions.storage.journal;
+
+import com.dnocturne.afflictions.storage.AfflictionStorage;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of affliction changes made between saves.
+ *
+ * <p>Records are buffered in memory and group-committed: a background thread writes
+ * the buffer through a {@link FileChannel} and syncs it once per commit interval, so a
+ * crash loses at most that interval. Every save is journaled as a snapshot before it
+ * is queued, and {@link #sync()} runs before each storage write, so storage is never
+ * ahead of the journal.</p>
+ *
+ * <p>The journal is split into numbered segment files. A checkpoint starts a new
+ * segment holding a snapshot of every player whose journaled state has not been
+ * written to storage yet, then deletes the older segments. On startup
+ * {@link #recover(AfflictionStorage)} replays the segments on top of storage and
+ * deletes them once the result is saved.</p>
+ *
+ * <p>Each record is framed by its length and a CRC32, so a record torn by a crash is
+ * detected and replay stops there.</p>
+ */
+public final class MutationJournal {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String THREAD_NAME = "Afflictions-Journal";
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final Logger logger;
+    private final long commitIntervalMillis;
+    private final long checkpointIntervalMillis;
+
+    // Guards the buffer, the latest states and the segment id
+    private final Object lock = new Object();
+    // Guards the channel; always taken before lock
+    private final Object ioLock = new Object();
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private final DataOutputStream bufferOut = new DataOutputStream(buffer);
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+    private final CRC32 crc = new CRC32();
+
+    // Journaled state of players with changes that are not in storage yet
+    private final Map<UUID, PlayerAfflictionData> latest = new HashMap<>();
+
+    private long segmentId;
+    private @Nullable FileChannel channel;
+    private @Nullable ScheduledExecutorService committer;
+
+    // Statistics
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+
+    /**
+     * @param directory                Directory holding the segment files
+     * @param logger                   Logger for write failures and recovery
+     * @param commitIntervalMillis     How often buffered records are written and synced
+     * @param checkpointIntervalMillis How often older segments are compacted away; 0 disables
+     */
+    public MutationJournal(@NotNull Path directory, @NotNull Logger logger,
+                           long commitIntervalMillis, long checkpointIntervalMillis) {
+        this.directory = directory;
+        this.logger = logger;
+        this.commitIntervalMillis = Math.max(1, commitIntervalMillis);
+        this.checkpointIntervalMillis = Math.max(0, checkpointIntervalMillis);
+    }
+
+    // ============================================================
+    // Lifecycle
+    // ============================================================
+
+    /**
+     * Replay segments left by a previous run on top of storage, save the result and
+     * delete the segments. Must be called before {@link #start()}.
+     *
+     * @param storage The storage to replay into
+     * @return The number of players restored
+     * @throws IOException  if the segments cannot be read or deleted
+     * @throws SQLException if the replayed players cannot be saved; the segments are kept
+     */
+    public int recover(@NotNull AfflictionStorage storage) throws IOException, SQLException {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, PlayerAfflictionData> replayed = new LinkedHashMap<>();
+        int count = 0;
+        for (Path segment : segments) {
+            for (JournalRecord record : readSegment(segment)) {
+                UUID uuid = record.playerUuid();
+                PlayerAfflictionData current = replayed.get(uuid);
+                if (current == null && !(record instanceof JournalRecord.Snapshot)) {
+                    current = loadStored(storage, uuid);
+                }
+                replayed.put(uuid, record.applyTo(current));
+                count++;
+            }
+        }
+
+        if (!replayed.isEmpty()) {
+            storage.saveBatch(replayed.values());
+            logger.warning("Recovered " + replayed.size() + " player(s) from " + count
+                    + " journal record(s) left by an unclean shutdown");
+        }
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+        return replayed.size();
+    }
+
+    /**
+     * Open a new segment and start committing in the background.
+     *
+     * @throws IOException if the segment cannot be created
+     */
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        long last = 0;
+        for (Path segment : listSegments()) {
+            last = Math.max(last, segmentNumber(segment));
+        }
+        synchronized (ioLock) {
+            synchronized (lock) {
+                segmentId = last + 1;
+            }
+            channel = openSegment(segmentId);
+        }
+
+        committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::sync, commitIntervalMillis, commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        if (checkpointIntervalMillis > 0) {
+            committer.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMillis, checkpointIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop committing, write what is buffered and close the current segment. If every
+     * journaled change has been written to storage, the segments are deleted.
+     */
+    public void close() {
+        if (committer != null) {
+            committer.shutdown();
+            try {
+                committer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            committer = null;
+        }
+
+        sync();
+        boolean clean;
+        synchronized (ioLock) {
+            closeChannel();
+            synchronized (lock) {
+                clean = latest.isEmpty();
+            }
+        }
+
+        if (clean) {
+            try {
+                for (Path segment : listSegments()) {
+                    Files.deleteIfExists(segment);
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to delete journal segments: " + e.getMessage());
+            }
+        } else {
+            logger.warning("Journal kept with unsaved changes for " + getUnsavedPlayerCount()
+                    + " player(s); they are restored on the next startup");
+        }
+    }
+
+    // ============================================================
+    // Recording
+    // ============================================================
+
+    /**
+     * Journal the full state of a player that is about to be saved.
+     *
+     * @param data The snapshot being saved
+     */
+    public void appendSnapshot(@NotNull PlayerAfflictionData data) {
+        synchronized (lock) {
+            appendLocked(new JournalRecord.Snapshot(data));
+        }
+    }
+
+    /**
+     * Journal the changes between a player's last journaled state and their current state.
+     *
+     * @param current The current state
+     * @param dirty   Whether the current state differs from storage; a clean player
+     *                with nothing journaled needs no record
+     * @return The number of records written
+     */
+    public int capture(@NotNull PlayerAfflictionData current, boolean dirty) {
+        synchronized (lock) {
+            PlayerAfflictionData previous = latest.get(current.uuid());
+            if (previous == null) {
+                if (!dirty) {
+                    return 0;
+                }
+                appendLocked(new JournalRecord.Snapshot(current));
+                return 1;
+            }
+
+            List<JournalRecord> changes = JournalRecord.diff(previous, current);
+            for (JournalRecord record : changes) {
+                appendLocked(record);
+            }
+            return changes.size();
+        }
+    }
+
+    /**
+     * Record that a snapshot has been written to storage. If it is still the latest
+     * journaled state of the player, the player no longer needs replaying.
+     *
+     * @param data The snapshot that was written
+     */
+    public void markWritten(@NotNull PlayerAfflictionData data) {
+        synchronized (lock) {
+            latest.remove(data.uuid(), data);
+        }
+    }
+
+    /**
+     * Get the journaled state of a player whose changes are not in storage yet.
+     */
+    @Nullable PlayerAfflictionData getLatest(@NotNull UUID uuid) {
+        synchronized (lock) {
+            return latest.get(uuid);
+        }
+    }
+
+    private void appendLocked(JournalRecord record) {
+        try {
+            scratch.reset();
+            record.write(scratchOut);
+            byte[] payload = scratch.toByteArray();
+            crc.reset();
+            crc.update(payload);
+            bufferOut.writeInt(payload.length);
+            bufferOut.writeInt((int) crc.getValue());
+            bufferOut.write(payload);
+        } catch (IOException e) {
+            // Writing to memory does not throw
+            throw new UncheckedIOException(e);
+        }
+        latest.put(record.playerUuid(), record.applyTo(latest.get(record.playerUuid())));
+        records.increment();
+    }
+
+    // ============================================================
+    // Committing
+    // ============================================================
+
+    /**
+     * Write buffered records to the current segment and sync it to disk.
+     * Failures are logged; the records stay in memory until the next checkpoint.
+     */
+    public void sync() {
+        synchronized (ioLock) {
+            try {
+                writeBuffered();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write the affliction journal", e);
+            }
+        }
+    }
+
+    /**
+     * Start a new segment with a snapshot of every player whose changes are not in
+     * storage yet, then delete the older segments.
+     */
+    public void checkpoint() {
+        synchronized (ioLock) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                writeBuffered();
+                FileChannel next;
+                long current;
+                synchronized (lock) {
+                    current = segmentId + 1;
+                }
+                next = openSegment(current);
+
+                synchronized (lock) {
+                    segmentId = current;
+                    for (PlayerAfflictionData data : List.copyOf(latest.values())) {
+                        appendLocked(new JournalRecord.Snapshot(data));
+                    }
+                }
+                closeChannel();
+                channel = next;
+                writeBuffered();
+
+                for (Path segment : listSegments()) {
+                    if (segmentNumber(segment) < current) {
+                        Files.deleteIfExists(segment);
+                    }
+                }
+                checkpoints.increment();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to checkpoint the affliction journal", e);
+            }
+        }
+    }
+
+    /**
+     * Must hold ioLock.
+     */
+    private void writeBuffered() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        byte[] pending;
+        synchronized (lock) {
+            if (buffer.size() == 0) {
+                return;
+            }
+            pending = buffer.toByteArray();
+            buffer.reset();
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(pending);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        bytesWritten.add(pending.length);
+        commits.increment();
+    }
+
+    private FileChannel openSegment(long id) throws IOException {
+        return FileChannel.open(directory.resolve(String.format("%016d%s", id, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close journal segment: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    // ============================================================
+    // Reading
+    // ============================================================
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .filter(path -> segmentNumber(path) >= 0)
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Read the intact records of a segment, stopping at the first torn or corrupt one.
+     */
+    private List<JournalRecord> readSegment(Path segment) throws IOException {
+        List<JournalRecord> read = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return read;
+                }
+                try {
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("Invalid record length " + length);
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    CRC32 check = new CRC32();
+                    check.update(payload);
+                    if ((int) check.getValue() != checksum) {
+                        throw new IOException("Checksum mismatch");
+                    }
+                    read.add(JournalRecord.read(new DataInputStream(new ByteArrayInputStream(payload))));
+                } catch (IOException e) {
+                    // Expected for a record cut short by a crash; anything after it is unusable
+                    String reason = e instanceof EOFException ? "record is truncated" : e.getMessage();
+                    logger.warning("Journal segment " + segment.getFileName() + " ends with an unreadable record after "
+                            + read.size() + " record(s): " + reason);
+                    return read;
+                }
+            }
+        }
+    }
+
+    private static @Nullable PlayerAfflictionData loadStored(AfflictionStorage storage, UUID uuid)
+            throws SQLException {
+        try {
+            Optional<PlayerAfflictionData> stored = storage.load(uuid).get();
+            return stored.orElse(null);
+        } catch (ExecutionException e) {
+            throw new SQLException("Failed to load player " + uuid + " for journal replay", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading player " + uuid + " for journal replay", e);
+        }
+    }
+
+    // ============================================================
+    // Statistics
+    // ============================================================
+
+    public long getRecords() {
+        return records.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getCheckpoints() {
+        return checkpoints.sum();
+    }
+
+    /**
+     * Get the number of players with journaled changes that are not in storage yet.
+     */
+    public int getUnsavedPlayerCount() {
+        synchronized (lock) {
+            return latest.size();
+        }
+    }
+}
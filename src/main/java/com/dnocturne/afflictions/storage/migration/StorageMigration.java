@@ -0,0 +1,152 @@
+package com.dnocturne.afflictions.storage.migration;
+
+import com.dnocturne.afflictions.storage.AfflictionStorage;
+import com.dnocturne.afflictions.storage.PlayerPage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Copies every player from one storage backend to another, one page at a time.
+ *
+ * <p>Only one page is held in memory. After each page is written to the target, the
+ * source cursor is saved to a checkpoint file, so a migration that fails part-way
+ * continues from the last written page when run again. Pages are written with
+ * {@link AfflictionStorage#saveBatch}, which replaces existing players, so writing a
+ * page twice is harmless.</p>
+ */
+public final class StorageMigration {
+
+    private static final String KEY_SOURCE = "source";
+    private static final String KEY_TARGET = "target";
+    private static final String KEY_CURSOR = "cursor";
+    private static final String KEY_MIGRATED = "migrated";
+
+    private final AfflictionStorage source;
+    private final AfflictionStorage target;
+    private final Path checkpointFile;
+    private final int batchSize;
+    private final Logger logger;
+
+    /**
+     * The outcome of a finished migration.
+     *
+     * @param migrated      Players copied, including those copied before a resume
+     * @param resumed       Whether the migration continued from a checkpoint
+     * @param elapsedMillis Time taken by this run
+     */
+    public record Result(long migrated, boolean resumed, long elapsedMillis) {
+    }
+
+    /**
+     * @param source         The backend to read from
+     * @param target         The backend to write to
+     * @param checkpointFile Where to keep the resume checkpoint
+     * @param batchSize      Players per page
+     * @param logger         Logger for progress and checkpoint problems
+     */
+    public StorageMigration(@NotNull AfflictionStorage source, @NotNull AfflictionStorage target,
+                            @NotNull Path checkpointFile, int batchSize, @NotNull Logger logger) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.source = source;
+        this.target = target;
+        this.checkpointFile = checkpointFile;
+        this.batchSize = batchSize;
+        this.logger = logger;
+    }
+
+    /**
+     * Run the migration on the calling thread, resuming from a checkpoint if one
+     * exists for the same pair of backends.
+     *
+     * @param progress Called with the running total after each page, or null
+     * @return The result
+     * @throws SQLException if a page cannot be read or written; the checkpoint is kept
+     * @throws IOException  if the checkpoint cannot be written
+     */
+    public @NotNull Result run(@Nullable LongConsumer progress) throws SQLException, IOException {
+        long start = System.nanoTime();
+        Properties checkpoint = readCheckpoint();
+        boolean resumed = checkpoint != null;
+        String cursor = resumed ? checkpoint.getProperty(KEY_CURSOR) : null;
+        long migrated = resumed ? Long.parseLong(checkpoint.getProperty(KEY_MIGRATED, "0")) : 0;
+        if (resumed) {
+            logger.info("Resuming storage migration from " + source.getType() + " to " + target.getType()
+                    + " after " + migrated + " player(s)");
+        }
+
+        while (true) {
+            PlayerPage page = source.loadPage(cursor, batchSize);
+            if (!page.players().isEmpty()) {
+                target.saveBatch(page.players());
+                migrated += page.players().size();
+            }
+            if (page.isLast()) {
+                break;
+            }
+            cursor = page.nextCursor();
+            writeCheckpoint(cursor, migrated);
+            if (progress != null) {
+                progress.accept(migrated);
+            }
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        return new Result(migrated, resumed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Read the checkpoint if it belongs to this source and target.
+     */
+    private @Nullable Properties readCheckpoint() {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warning("Ignoring unreadable migration checkpoint " + checkpointFile + ": " + e.getMessage());
+            return null;
+        }
+        if (!source.getType().equals(properties.getProperty(KEY_SOURCE))
+                || !target.getType().equals(properties.getProperty(KEY_TARGET))
+                || properties.getProperty(KEY_CURSOR) == null) {
+            logger.warning("Ignoring migration checkpoint " + checkpointFile + " for a different migration");
+            return null;
+        }
+        return properties;
+    }
+
+    private void writeCheckpoint(@NotNull String cursor, long migrated) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY_SOURCE, source.getType());
+        properties.setProperty(KEY_TARGET, target.getType());
+        properties.setProperty(KEY_CURSOR, cursor);
+        properties.setProperty(KEY_MIGRATED, Long.toString(migrated));
+
+        // Write beside the checkpoint and swap it in, so a crash never leaves half a file
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Afflictions storage migration checkpoint");
+        }
+        try {
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -309,6 +309,98 @@ class AfflictionInstanceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Typed State")
+    class TypedState {
+
+        private static final StateKey DOUBLE_KEY = StateKey.ofDouble("test_state_double");
+        private static final StateKey LONG_KEY = StateKey.ofLong("test_state_long");
+        private static final StateKey BOOLEAN_KEY = StateKey.ofBoolean("test_state_boolean");
+
+        @Test
+        @DisplayName("typed accessors return defaults when unset")
+        void typed_unset_returnsDefaults() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+
+            assertFalse(instance.has(DOUBLE_KEY));
+            assertEquals(1.5, instance.getDouble(DOUBLE_KEY, 1.5));
+            assertEquals(7L, instance.getLong(LONG_KEY, 7L));
+            assertFalse(instance.getBoolean(BOOLEAN_KEY));
+        }
+
+        @Test
+        @DisplayName("typed writes are visible through getData")
+        void typed_visibleThroughGetData() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+            instance.setDouble(DOUBLE_KEY, 42.5);
+            instance.setLong(LONG_KEY, 123L);
+            instance.setBoolean(BOOLEAN_KEY, true);
+
+            assertEquals(42.5, instance.getData("test_state_double"));
+            assertEquals(123L, instance.getData("test_state_long"));
+            assertTrue(instance.getData("test_state_boolean", Boolean.class));
+            assertEquals(3, instance.getAllData().size());
+        }
+
+        @Test
+        @DisplayName("setData converts values for declared keys")
+        void setData_declaredKey_convertsValue() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+            instance.setData("test_state_double", "12.5");
+            instance.setData("test_state_long", 5);
+            instance.setData("test_state_boolean", "true");
+
+            assertEquals(12.5, instance.getDouble(DOUBLE_KEY, 0.0));
+            assertEquals(5L, instance.getLong(LONG_KEY, 0L));
+            assertTrue(instance.getBoolean(BOOLEAN_KEY));
+        }
+
+        @Test
+        @DisplayName("setData keeps unconvertible values for declared keys")
+        void setData_declaredKey_unconvertible_keepsValue() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+            instance.setData("test_state_double", "not a number");
+
+            assertFalse(instance.has(DOUBLE_KEY));
+            assertEquals("not a number", instance.getData("test_state_double"));
+        }
+
+        @Test
+        @DisplayName("null and removeData clear declared slots")
+        void nullAndRemove_clearSlots() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+            instance.setLong(LONG_KEY, 10L);
+            instance.setData("test_state_long", null);
+            assertFalse(instance.hasData("test_state_long"));
+
+            instance.setBoolean(BOOLEAN_KEY, false);
+            instance.removeData("test_state_boolean");
+            assertFalse(instance.has(BOOLEAN_KEY));
+        }
+
+        @Test
+        @DisplayName("getDataMap writes through to typed state")
+        void getDataMap_writesThrough() {
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), testAffliction);
+            instance.getDataMap().put("test_state_boolean", true);
+            instance.getDataMap().put("custom", "value");
+
+            assertTrue(instance.getBoolean(BOOLEAN_KEY));
+            assertEquals("value", instance.getData("custom"));
+            assertEquals(2, instance.getDataMap().size());
+
+            instance.getDataMap().clear();
+            assertTrue(instance.getAllData().isEmpty());
+        }
+
+        @Test
+        @DisplayName("redeclaring a key with another type fails")
+        void redeclare_differentType_throws() {
+            assertSame(DOUBLE_KEY, StateKey.ofDouble("test_state_double"));
+            assertThrows(IllegalArgumentException.class, () -> StateKey.ofLong("test_state_double"));
+        }
+    }
+
     @Nested
     @DisplayName("Player Reference")
     class PlayerReference {
@@ -0,0 +1,95 @@
+package com.dnocturne.afflictions.environment;
+
+import com.dnocturne.basalt.util.TimeUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for EnvironmentTracker.
+ */
+@DisplayName("EnvironmentTracker")
+class EnvironmentTrackerTest {
+
+    private ServerMock server;
+    private WorldMock world;
+    private EnvironmentTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        world = server.addSimpleWorld("test_world");
+        tracker = new EnvironmentTracker();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Nested
+    @DisplayName("During a pass")
+    class DuringPass {
+
+        @Test
+        @DisplayName("shares one snapshot per world")
+        void sharesSnapshot() {
+            tracker.beginPass();
+
+            assertSame(tracker.get(world), tracker.get(world));
+
+            tracker.endPass();
+        }
+
+        @Test
+        @DisplayName("captures a new snapshot on the next pass")
+        void newSnapshotNextPass() {
+            world.setTime(TimeUtil.NOON);
+            tracker.beginPass();
+            assertTrue(tracker.get(world).isDay());
+            tracker.endPass();
+
+            world.setTime(TimeUtil.MIDNIGHT);
+            tracker.beginPass();
+            assertTrue(tracker.get(world).isNight());
+            tracker.endPass();
+        }
+    }
+
+    @Nested
+    @DisplayName("Outside a pass")
+    class OutsidePass {
+
+        @Test
+        @DisplayName("always reflects the live world")
+        void reflectsLiveWorld() {
+            world.setStorm(false);
+            assertTrue(tracker.get(world).isClearWeather());
+
+            world.setStorm(true);
+            assertTrue(tracker.get(world).hasStorm());
+        }
+
+        @Test
+        @DisplayName("does not share snapshots with other threads")
+        void otherThreadsGetFreshSnapshots() throws InterruptedException {
+            tracker.beginPass();
+            EnvironmentSnapshot passSnapshot = tracker.get(world);
+
+            EnvironmentSnapshot[] fromOtherThread = new EnvironmentSnapshot[1];
+            Thread thread = new Thread(() -> fromOtherThread[0] = tracker.get(world));
+            thread.start();
+            thread.join();
+
+            assertNotSame(passSnapshot, fromOtherThread[0]);
+            tracker.endPass();
+        }
+    }
+}
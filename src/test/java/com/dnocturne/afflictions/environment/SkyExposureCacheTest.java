@@ -0,0 +1,99 @@
+package com.dnocturne.afflictions.environment;
+
+import org.bukkit.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SkyExposureCache.
+ */
+@DisplayName("SkyExposureCache")
+class SkyExposureCacheTest {
+
+    private ServerMock server;
+    private WorldMock world;
+    private PlayerMock player;
+    private SkyExposureCache cache;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        world = server.addSimpleWorld("test_world");
+        player = server.addPlayer("TestPlayer");
+        player.teleport(world.getSpawnLocation());
+        cache = new SkyExposureCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    @DisplayName("repeated lookups in the same spot are cache hits")
+    void repeatedLookup_hits() {
+        boolean first = cache.hasSkyAccess(player);
+        boolean second = cache.hasSkyAccess(player);
+
+        assertEquals(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("moving to a different height recomputes the column")
+    void differentHeight_misses() {
+        cache.hasSkyAccess(player);
+        player.teleport(player.getLocation().add(0, 5, 0));
+        cache.hasSkyAccess(player);
+
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("block changes in the column invalidate the entry")
+    void invalidate_forcesRecompute() {
+        cache.hasSkyAccess(player);
+        Location location = player.getLocation();
+
+        cache.invalidate(world, location.getBlockX(), location.getBlockZ());
+        cache.hasSkyAccess(player);
+
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("block changes in other columns keep the entry")
+    void invalidateOtherColumn_keepsEntry() {
+        cache.hasSkyAccess(player);
+        Location location = player.getLocation();
+
+        cache.invalidate(world, location.getBlockX() + 1, location.getBlockZ());
+        cache.hasSkyAccess(player);
+
+        assertEquals(0, cache.getInvalidations());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("unloading a world drops its entries")
+    void invalidateWorld_dropsEntries() {
+        cache.hasSkyAccess(player);
+        assertEquals(1, cache.size());
+
+        cache.invalidateWorld(world);
+
+        assertEquals(0, cache.size());
+    }
+}
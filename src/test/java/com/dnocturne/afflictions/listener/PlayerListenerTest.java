@@ -7,6 +7,7 @@ import com.dnocturne.afflictions.manager.AfflictionManager;
 import com.dnocturne.afflictions.storage.data.AfflictionData;
 import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
 import com.dnocturne.basalt.storage.Storage;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,11 +17,14 @@ import org.mockbukkit.mockbukkit.MockBukkit;
 import org.mockbukkit.mockbukkit.ServerMock;
 import org.mockbukkit.mockbukkit.entity.PlayerMock;
 
+import java.net.InetAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,6 +101,64 @@ class PlayerListenerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Pre-Login Preload")
+    class PreLoginPreload {
+
+        private void preLogin(String name, UUID uuid) throws Exception {
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
+                    name, InetAddress.getLoopbackAddress(), uuid);
+            // Async events must not be called from the main thread
+            CompletableFuture.runAsync(() -> server.getPluginManager().callEvent(event))
+                    .get(10, TimeUnit.SECONDS);
+        }
+
+        @Test
+        @DisplayName("preloaded afflictions are applied at join without waiting")
+        void preloadedAppliedAtJoin() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "EarlyBird",
+                    List.of(new AfflictionData("test_curse", 2, -1, System.currentTimeMillis())))).get();
+
+            preLogin("EarlyBird", uuid);
+            PlayerMock player = new PlayerMock(server, "EarlyBird", uuid);
+            server.addPlayer(player);
+
+            // No ticks performed: the data must already be attached
+            assertTrue(afflictionManager.hasAffliction(uuid, "test_curse"));
+        }
+
+        @Test
+        @DisplayName("player without saved data joins normally after preload")
+        void preloadWithoutData() throws Exception {
+            UUID uuid = UUID.randomUUID();
+
+            preLogin("Newcomer", uuid);
+            server.addPlayer(new PlayerMock(server, "Newcomer", uuid));
+            server.getScheduler().performTicks(40);
+
+            assertFalse(afflictionManager.hasAffliction(uuid, "test_curse"));
+        }
+
+        @Test
+        @DisplayName("duplicate login does not stage data from before the old session's save")
+        void duplicateLogin_notStaged() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            PlayerMock first = new PlayerMock(server, "Twice", uuid);
+            server.addPlayer(first);
+            server.getScheduler().performTicks(40);
+            afflictionManager.applyAffliction(first, "test_curse");
+
+            // Storage has nothing yet; the affliction only exists in the online session
+            preLogin("Twice", uuid);
+            first.disconnect();
+            server.addPlayer(new PlayerMock(server, "Twice", uuid));
+            server.getScheduler().performTicks(40);
+
+            assertTrue(afflictionManager.hasAffliction(uuid, "test_curse"));
+        }
+    }
+
     @Nested
     @DisplayName("Player Quit")
     class PlayerQuit {
@@ -4,6 +4,7 @@ import com.dnocturne.afflictions.Afflictions;
 import com.dnocturne.afflictions.TestAffliction;
 import com.dnocturne.afflictions.api.affliction.Affliction;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.manager.tick.TickStats;
 import com.dnocturne.afflictions.player.AfflictedPlayer;
 import com.dnocturne.basalt.component.Component;
 import com.dnocturne.basalt.component.Tickable;
@@ -17,6 +18,9 @@ import org.mockbukkit.mockbukkit.MockBukkit;
 import org.mockbukkit.mockbukkit.ServerMock;
 import org.mockbukkit.mockbukkit.entity.PlayerMock;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -382,6 +386,93 @@ class AfflictionManagerTest {
             }
             assertTrue(tickCount.get() > beforeStart, "Should tick after starting");
         }
+
+        @Test
+        @DisplayName("staggered mode spreads players over the tick rate")
+        void staggered_spreadsPlayers() {
+            PlayerMock first = server.addPlayer("First");
+            PlayerMock second = server.addPlayer("Second");
+            Map<UUID, Integer> ticksPerPlayer = new HashMap<>();
+            AtomicInteger ticksThisServerTick = new AtomicInteger(0);
+
+            Tickable<Player, AfflictionInstance> tickable = new Tickable<>() {
+                @Override
+                public String getId() {
+                    return "test_tickable_staggered";
+                }
+
+                @Override
+                public void onTick(Player p, AfflictionInstance instance) {
+                    ticksPerPlayer.merge(p.getUniqueId(), 1, Integer::sum);
+                    ticksThisServerTick.incrementAndGet();
+                }
+            };
+
+            Affliction affliction = TestAffliction.builder("test_curse")
+                    .component(tickable)
+                    .build();
+            manager.getRegistry().register(affliction);
+
+            manager.setTickMode(AfflictionManager.TickMode.STAGGERED);
+            manager.start();
+            manager.applyAffliction(first, "test_curse");
+            manager.applyAffliction(second, "test_curse");
+
+            for (int i = 0; i < 60; i++) {
+                ticksThisServerTick.set(0);
+                server.getScheduler().performOneTick();
+                assertTrue(ticksThisServerTick.get() <= 1, "Players should not tick on the same server tick");
+            }
+
+            assertEquals(3, ticksPerPlayer.get(first.getUniqueId()));
+            assertEquals(3, ticksPerPlayer.get(second.getUniqueId()));
+        }
+
+        @Test
+        @DisplayName("tick budget defers leftover players to the next pass")
+        void tickBudget_defersLeftoverPlayers() {
+            List<PlayerMock> players = List.of(
+                    server.addPlayer("First"), server.addPlayer("Second"), server.addPlayer("Third"));
+            Map<UUID, Integer> ticksPerPlayer = new HashMap<>();
+
+            Tickable<Player, AfflictionInstance> tickable = new Tickable<>() {
+                @Override
+                public String getId() {
+                    return "test_tickable_budget";
+                }
+
+                @Override
+                public void onTick(Player p, AfflictionInstance instance) {
+                    ticksPerPlayer.merge(p.getUniqueId(), 1, Integer::sum);
+                    long until = System.nanoTime() + 100_000;
+                    while (System.nanoTime() < until) {
+                        Thread.onSpinWait();
+                    }
+                }
+            };
+
+            Affliction affliction = TestAffliction.builder("test_curse")
+                    .component(tickable)
+                    .build();
+            manager.getRegistry().register(affliction);
+            manager.setTickBudget(1);
+            for (PlayerMock player : players) {
+                manager.applyAffliction(player, "test_curse");
+            }
+
+            for (int i = 0; i < 120; i++) {
+                server.getScheduler().performOneTick();
+            }
+
+            TickStats stats = manager.getTickStats();
+            assertTrue(stats.getOverruns() > 0, "Budget should have been exceeded");
+            assertTrue(stats.getDeferred() > 0, "Players should have been deferred");
+            assertTrue(stats.getMaxDeferralTicks() > 0, "Deferral latency should be recorded");
+            for (PlayerMock player : players) {
+                assertTrue(ticksPerPlayer.getOrDefault(player.getUniqueId(), 0) > 0,
+                        "Every player should eventually tick");
+            }
+        }
     }
 
     @Nested
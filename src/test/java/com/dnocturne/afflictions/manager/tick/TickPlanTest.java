@@ -0,0 +1,86 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import com.dnocturne.afflictions.TestAffliction;
+import com.dnocturne.afflictions.api.affliction.Affliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.basalt.component.Component;
+import com.dnocturne.basalt.component.Tickable;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickPlan.
+ */
+@DisplayName("TickPlan")
+class TickPlanTest {
+
+    private static Tickable<Player, AfflictionInstance> tickable(String id, int interval) {
+        return new Tickable<>() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public void onTick(Player player, AfflictionInstance instance) {
+            }
+
+            @Override
+            public int getTickInterval() {
+                return interval;
+            }
+        };
+    }
+
+    private static Component<Player, AfflictionInstance> component(String id) {
+        return new Component<>() {
+            @Override
+            public String getId() {
+                return id;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("groups tickables by interval in ascending order")
+    void compile_groupsByInterval() {
+        Affliction affliction = TestAffliction.builder("test")
+                .component(tickable("a", 40))
+                .component(component("plain"))
+                .component(tickable("b", 20))
+                .component(tickable("c", 40))
+                .build();
+
+        TickPlan plan = TickPlan.compile(affliction);
+
+        assertEquals(4, plan.getComponents().length);
+        assertEquals(2, plan.getGroupCount());
+        assertEquals(20, plan.getGroupInterval(0));
+        assertEquals(40, plan.getGroupInterval(1));
+        assertEquals(1, plan.getGroupTickables(0).length);
+        assertEquals(2, plan.getGroupTickables(1).length);
+    }
+
+    @Test
+    @DisplayName("base interval is the greatest common divisor of all intervals")
+    void compile_baseIntervalIsGcd() {
+        Affliction affliction = TestAffliction.builder("test")
+                .component(tickable("a", 20))
+                .component(tickable("b", 30))
+                .build();
+
+        assertEquals(10, TickPlan.compile(affliction).getBaseInterval());
+    }
+
+    @Test
+    @DisplayName("affliction without tickables has an empty plan")
+    void compile_noTickables() {
+        TickPlan plan = TickPlan.compile(TestAffliction.builder("test").component(component("plain")).build());
+
+        assertFalse(plan.hasTickables());
+        assertEquals(1, plan.getBaseInterval());
+    }
+}
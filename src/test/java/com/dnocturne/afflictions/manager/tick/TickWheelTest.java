@@ -0,0 +1,132 @@
+package com.dnocturne.afflictions.manager.tick;
+
+import com.dnocturne.afflictions.TestAffliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickWheel.
+ */
+@DisplayName("TickWheel")
+class TickWheelTest {
+
+    private TickWheel wheel;
+    private AfflictionInstance instance;
+    private TickPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TickWheel();
+        instance = new AfflictionInstance(UUID.randomUUID(), TestAffliction.create(), 1, -1);
+        plan = TickPlan.compile(instance.getAffliction());
+    }
+
+    /**
+     * Advance the wheel, rescheduling every due entry by its interval, and record the due ticks.
+     */
+    private List<Long> run(long ticks) {
+        List<Long> fired = new ArrayList<>();
+        for (long i = 0; i < ticks; i++) {
+            wheel.advance(entry -> {
+                fired.add(wheel.getCurrentTick());
+                wheel.schedule(entry, entry.getDueTick() + entry.getInterval());
+            });
+        }
+        return fired;
+    }
+
+    @Nested
+    @DisplayName("Scheduling")
+    class Scheduling {
+
+        @Test
+        @DisplayName("aligned entries fire on multiples of their interval")
+        void scheduleAligned_firesOnMultiples() {
+            wheel.scheduleAligned(new ScheduledTick(instance, plan, 3, 0));
+
+            assertEquals(List.of(3L, 6L, 9L, 12L), run(12));
+        }
+
+        @Test
+        @DisplayName("phased entries fire on their offset within the interval")
+        void scheduleAligned_honoursPhase() {
+            wheel.scheduleAligned(new ScheduledTick(instance, plan, 20, 7));
+
+            assertEquals(List.of(7L, 27L, 47L), run(50));
+        }
+
+        @Test
+        @DisplayName("entries beyond the inner wheel cascade at the right tick")
+        void schedule_cascadesFromOuterWheel() {
+            wheel.schedule(new ScheduledTick(instance, plan, 1000, 0), 1000);
+
+            List<Long> fired = run(2100);
+
+            assertEquals(List.of(1000L, 2000L), fired);
+        }
+
+        @Test
+        @DisplayName("entries beyond the outer wheel fire from overflow")
+        void schedule_firesFromOverflow() {
+            ScheduledTick entry = new ScheduledTick(instance, plan, 100_000, 0);
+            wheel.schedule(entry, 100_000);
+
+            List<Long> fired = run(100_000);
+
+            assertEquals(List.of(100_000L), fired);
+        }
+
+        @Test
+        @DisplayName("past due ticks are moved to the next tick")
+        void schedule_pastTickRunsNext() {
+            run(5);
+            wheel.schedule(new ScheduledTick(instance, plan, 10, 0), 2);
+
+            assertEquals(List.of(6L), run(1));
+        }
+
+        @Test
+        @DisplayName("interval is clamped to at least one")
+        void interval_clamped() {
+            assertEquals(1, new ScheduledTick(instance, plan, 0, 0).getInterval());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancellation")
+    class Cancellation {
+
+        @Test
+        @DisplayName("cancelled entries never fire")
+        void cancel_preventsFiring() {
+            ScheduledTick entry = new ScheduledTick(instance, plan, 2, 0);
+            wheel.scheduleAligned(entry);
+            entry.cancel();
+
+            assertTrue(run(10).isEmpty());
+            assertEquals(0, wheel.size());
+        }
+
+        @Test
+        @DisplayName("cancelled entries in the outer wheel are dropped on cascade")
+        void cancel_droppedOnCascade() {
+            ScheduledTick entry = new ScheduledTick(instance, plan, 600, 0);
+            wheel.scheduleAligned(entry);
+            assertEquals(1, wheel.size());
+
+            entry.cancel();
+            run(600);
+
+            assertEquals(0, wheel.size());
+        }
+    }
+}
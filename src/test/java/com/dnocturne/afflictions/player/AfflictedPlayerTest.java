@@ -3,6 +3,7 @@ package com.dnocturne.afflictions.player;
 import com.dnocturne.afflictions.TestAffliction;
 import com.dnocturne.afflictions.api.affliction.Affliction;
 import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -305,4 +306,101 @@ class AfflictedPlayerTest {
             assertEquals(0, afflicted.getAfflictionCount());
         }
     }
+
+    @Nested
+    @DisplayName("Dirty Tracking")
+    class DirtyTracking {
+
+        @Test
+        @DisplayName("new player is not dirty")
+        void newPlayer_notDirty() {
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+
+            assertFalse(afflicted.isDirty());
+        }
+
+        @Test
+        @DisplayName("adding an affliction marks dirty until saved")
+        void addAffliction_marksDirty() {
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+            afflicted.addAffliction(new AfflictionInstance(player.getUniqueId(), vampirism));
+            assertTrue(afflicted.isDirty());
+
+            afflicted.markSaved(afflicted.getVersion());
+            assertFalse(afflicted.isDirty());
+        }
+
+        @Test
+        @DisplayName("instance changes mark dirty")
+        void instanceChange_marksDirty() {
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), vampirism);
+            afflicted.addAffliction(instance);
+            afflicted.markSaved(afflicted.getVersion());
+
+            instance.setData("blood", 50.0);
+            assertTrue(afflicted.isDirty());
+
+            afflicted.markSaved(afflicted.getVersion());
+            instance.setLevel(2);
+            assertTrue(afflicted.isDirty());
+        }
+
+        @Test
+        @DisplayName("removing a changed affliction still marks dirty")
+        void removeAffliction_marksDirty() {
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), vampirism);
+            instance.setData("counter", 1);
+            afflicted.addAffliction(instance);
+            afflicted.markSaved(afflicted.getVersion());
+
+            afflicted.removeAffliction("vampirism");
+            assertTrue(afflicted.isDirty());
+        }
+
+        @Test
+        @DisplayName("writing values that are already stored does not mark dirty")
+        void identicalWrites_notDirty() {
+            StateKey burning = StateKey.ofBoolean("test_dirty_burning");
+            StateKey since = StateKey.ofLong("test_dirty_since");
+            StateKey blood = StateKey.ofDouble("test_dirty_blood");
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), vampirism);
+            instance.setBoolean(burning, false);
+            instance.setDouble(blood, 75.0);
+            instance.setData("note", "calm");
+            afflicted.addAffliction(instance);
+            afflicted.markSaved(afflicted.getVersion());
+
+            for (int tick = 0; tick < 3; tick++) {
+                instance.setBoolean(burning, false);
+                instance.setDouble(blood, 75.0);
+                instance.clear(since);
+                instance.setData("note", "calm");
+                instance.setLevel(instance.getLevel());
+                instance.setDuration(instance.getDuration());
+            }
+            assertFalse(afflicted.isDirty());
+
+            instance.setBoolean(burning, true);
+            assertTrue(afflicted.isDirty());
+        }
+
+        @Test
+        @DisplayName("older saved version does not clear newer changes")
+        void markSaved_olderVersionIgnored() {
+            AfflictedPlayer afflicted = new AfflictedPlayer(player.getUniqueId());
+            AfflictionInstance instance = new AfflictionInstance(player.getUniqueId(), vampirism);
+            afflicted.addAffliction(instance);
+            long snapshot = afflicted.getVersion();
+
+            instance.setData("blood", 10.0);
+            long newer = afflicted.getVersion();
+            afflicted.markSaved(newer);
+            afflicted.markSaved(snapshot);
+
+            assertFalse(afflicted.isDirty());
+        }
+    }
 }
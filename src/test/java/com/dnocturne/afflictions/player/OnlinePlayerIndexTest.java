@@ -0,0 +1,98 @@
+package com.dnocturne.afflictions.player;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OnlinePlayerIndex.
+ */
+@DisplayName("OnlinePlayerIndex")
+class OnlinePlayerIndexTest {
+
+    private ServerMock server;
+    private OnlinePlayerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        index = new OnlinePlayerIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    @DisplayName("returns the indexed handle")
+    void get_returnsIndexedPlayer() {
+        PlayerMock player = server.addPlayer("TestPlayer");
+        index.add(player);
+
+        assertSame(player, index.get(player.getUniqueId()));
+    }
+
+    @Test
+    @DisplayName("falls back to Bukkit and indexes the result")
+    void get_fallsBackToBukkit() {
+        PlayerMock player = server.addPlayer("TestPlayer");
+
+        assertSame(player, index.get(player.getUniqueId()));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("returns null for offline players")
+    void get_offlinePlayer() {
+        assertNull(index.get(UUID.randomUUID()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("a handle whose player went offline is not returned")
+    void get_staleHandle_dropped() {
+        PlayerMock player = server.addPlayer("TestPlayer");
+        index.add(player);
+
+        // Quit without the index being told
+        player.disconnect();
+
+        assertNull(index.get(player.getUniqueId()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("an offline result is reused until the player joins")
+    void get_offlineResultCached() {
+        UUID uuid = UUID.randomUUID();
+        assertNull(index.get(uuid));
+
+        PlayerMock player = new PlayerMock(server, "Latecomer", uuid);
+        server.addPlayer(player);
+        // Not indexed yet, so the cached offline result still applies
+        assertNull(index.get(uuid));
+
+        index.add(player);
+        assertSame(player, index.get(uuid));
+    }
+
+    @Test
+    @DisplayName("remove drops the handle")
+    void remove_dropsHandle() {
+        PlayerMock player = server.addPlayer("TestPlayer");
+        index.add(player);
+
+        index.remove(player.getUniqueId());
+
+        assertEquals(0, index.size());
+    }
+}
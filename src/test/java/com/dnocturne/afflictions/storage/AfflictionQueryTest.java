@@ -0,0 +1,125 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.api.affliction.AfflictionCategory;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AfflictionQuery.
+ */
+@DisplayName("AfflictionQuery")
+class AfflictionQueryTest {
+
+    private static AfflictionData affliction(String id, int level, long contractedAt) {
+        return new AfflictionData(id, level, -1, contractedAt);
+    }
+
+    @Nested
+    @DisplayName("Matching")
+    class Matching {
+
+        @Test
+        @DisplayName("an empty query matches everything")
+        void noFilters_matchesAll() {
+            AfflictionQuery query = AfflictionQuery.builder().build();
+
+            assertTrue(query.matches(affliction("vampirism", 1, 0L)));
+            assertTrue(query.matches(affliction("curse_of_frailty", 5, Long.MIN_VALUE)));
+            assertFalse(query.isEmpty());
+        }
+
+        @Test
+        @DisplayName("ID, level range and contraction range must all match")
+        void filters_allMustMatch() {
+            AfflictionQuery query = AfflictionQuery.builder()
+                    .afflictionId("vampirism", "lycanthropy")
+                    .minLevel(3)
+                    .maxLevel(4)
+                    .contractedAfter(1000L)
+                    .contractedBefore(2000L)
+                    .build();
+
+            assertTrue(query.matches(affliction("vampirism", 3, 1000L)));
+            assertTrue(query.matches(affliction("lycanthropy", 4, 1999L)));
+            assertFalse(query.matches(affliction("curse", 3, 1500L)));
+            assertFalse(query.matches(affliction("vampirism", 2, 1500L)));
+            assertFalse(query.matches(affliction("vampirism", 5, 1500L)));
+            assertFalse(query.matches(affliction("vampirism", 3, 999L)));
+            assertFalse(query.matches(affliction("vampirism", 3, 2000L)));
+        }
+
+        @Test
+        @DisplayName("impossible ranges are empty")
+        void impossibleRanges_empty() {
+            assertTrue(AfflictionQuery.builder().minLevel(4).maxLevel(3).build().isEmpty());
+            assertTrue(AfflictionQuery.builder().contractedAfter(10L).contractedBefore(10L).build().isEmpty());
+            assertTrue(AfflictionQuery.builder().afflictionIds(List.of()).build().isEmpty());
+        }
+
+        @Test
+        @DisplayName("limit must be positive")
+        void limit_mustBePositive() {
+            assertThrows(IllegalArgumentException.class, () -> AfflictionQuery.builder().limit(0));
+            assertEquals(AfflictionQuery.DEFAULT_LIMIT, AfflictionQuery.builder().build().getLimit());
+        }
+    }
+
+    @Nested
+    @DisplayName("Category Resolution")
+    class CategoryResolution {
+
+        @Test
+        @DisplayName("a category becomes the IDs in that category")
+        void category_resolvesToIds() {
+            AfflictionQuery query = AfflictionQuery.builder()
+                    .category(AfflictionCategory.CURSE)
+                    .minLevel(2)
+                    .build();
+
+            AfflictionQuery resolved = query.resolveCategory(category ->
+                    category == AfflictionCategory.CURSE ? List.of("curse_a", "curse_b") : List.of("vampirism"));
+
+            assertNull(resolved.getCategory());
+            assertEquals(Set.of("curse_a", "curse_b"), resolved.getAfflictionIds());
+            assertEquals(2, resolved.getMinLevel());
+        }
+
+        @Test
+        @DisplayName("a category is intersected with explicit IDs")
+        void category_intersectsIds() {
+            AfflictionQuery resolved = AfflictionQuery.builder()
+                    .category(AfflictionCategory.SUPERNATURAL)
+                    .afflictionId("vampirism", "curse_a")
+                    .build()
+                    .resolveCategory(category -> List.of("vampirism", "lycanthropy"));
+
+            assertEquals(Set.of("vampirism"), resolved.getAfflictionIds());
+        }
+
+        @Test
+        @DisplayName("a category with no afflictions matches nothing")
+        void emptyCategory_isEmpty() {
+            AfflictionQuery resolved = AfflictionQuery.builder()
+                    .category(AfflictionCategory.MENTAL)
+                    .build()
+                    .resolveCategory(category -> List.of());
+
+            assertTrue(resolved.isEmpty());
+        }
+
+        @Test
+        @DisplayName("a query without a category is returned unchanged")
+        void noCategory_unchanged() {
+            AfflictionQuery query = AfflictionQuery.builder().afflictionId("vampirism").build();
+
+            assertSame(query, query.resolveCategory(category -> List.of("other")));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.dnocturne.afflictions.storage;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RecentlyQuitCache.
+ */
+@DisplayName("RecentlyQuitCache")
+class RecentlyQuitCacheTest {
+
+    private static PlayerAfflictionData snapshot(UUID uuid, String username, int level) {
+        return new PlayerAfflictionData(uuid, username,
+                List.of(new AfflictionData("vampirism", level, -1, 1000L)));
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+
+        @Test
+        @DisplayName("take returns the snapshot once")
+        void take_removesEntry() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(16, 60_000);
+            UUID uuid = UUID.randomUUID();
+            cache.put(snapshot(uuid, "Relog", 2));
+
+            PlayerAfflictionData first = cache.take(uuid);
+            PlayerAfflictionData second = cache.take(uuid);
+
+            assertNotNull(first);
+            assertEquals(2, first.afflictions().get(0).level());
+            assertNull(second);
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        }
+
+        @Test
+        @DisplayName("takeByName is case-insensitive")
+        void takeByName_caseInsensitive() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(16, 60_000);
+            UUID uuid = UUID.randomUUID();
+            cache.put(snapshot(uuid, "Relog", 1));
+
+            PlayerAfflictionData found = cache.takeByName("rELOG");
+
+            assertNotNull(found);
+            assertEquals(uuid, found.uuid());
+        }
+
+        @Test
+        @DisplayName("takeByNameOrUuid falls back to the UUID and counts one lookup")
+        void takeByNameOrUuid_fallsBack() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(16, 60_000);
+            UUID uuid = UUID.randomUUID();
+            cache.put(snapshot(uuid, "OldName", 1));
+
+            PlayerAfflictionData found = cache.takeByNameOrUuid("NewName", uuid);
+
+            assertNotNull(found);
+            assertEquals(1, cache.getHits());
+            assertEquals(0, cache.getMisses());
+        }
+
+        @Test
+        @DisplayName("update replaces a cached snapshot but does not add new players")
+        void update_onlyCachedPlayers() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(16, 60_000);
+            UUID cached = UUID.randomUUID();
+            UUID other = UUID.randomUUID();
+            cache.put(snapshot(cached, "Cached", 1));
+
+            cache.update(snapshot(cached, "Cached", 4));
+            cache.update(snapshot(other, "Other", 1));
+
+            assertEquals(4, cache.take(cached).afflictions().get(0).level());
+            assertNull(cache.take(other));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bounds")
+    class Bounds {
+
+        @Test
+        @DisplayName("expired snapshots are not returned")
+        void expiredEntries() throws InterruptedException {
+            RecentlyQuitCache cache = new RecentlyQuitCache(16, 1);
+            UUID uuid = UUID.randomUUID();
+            cache.put(snapshot(uuid, "Slow", 1));
+
+            Thread.sleep(10);
+
+            assertNull(cache.take(uuid));
+        }
+
+        @Test
+        @DisplayName("oldest snapshots are dropped when full")
+        void capacity_dropsOldest() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(2, 60_000);
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            UUID third = UUID.randomUUID();
+
+            cache.put(snapshot(first, "First", 1));
+            cache.put(snapshot(second, "Second", 1));
+            cache.put(snapshot(third, "Third", 1));
+
+            assertEquals(2, cache.size());
+            assertNull(cache.take(first));
+            assertNotNull(cache.take(third));
+        }
+
+        @Test
+        @DisplayName("size 0 disables the cache")
+        void disabled() {
+            RecentlyQuitCache cache = new RecentlyQuitCache(0, 60_000);
+            UUID uuid = UUID.randomUUID();
+
+            cache.put(snapshot(uuid, "Nobody", 1));
+
+            assertEquals(0, cache.size());
+            assertNull(cache.take(uuid));
+        }
+    }
+}
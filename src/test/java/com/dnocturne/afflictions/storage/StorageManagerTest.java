@@ -1,7 +1,10 @@
 package com.dnocturne.afflictions.storage;
 
 import com.dnocturne.afflictions.Afflictions;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
 import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.afflictions.storage.impl.AbstractSqlStorage;
+import com.dnocturne.afflictions.storage.impl.SQLiteStorage;
 import com.dnocturne.basalt.storage.Storage;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +13,20 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockbukkit.mockbukkit.MockBukkit;
 
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -77,6 +94,548 @@ class StorageManagerTest {
             assertNotNull(type);
             assertFalse(type.isEmpty());
         }
+
+        @Test
+        @DisplayName("SQLite reads fail before init instead of using the writer's connection")
+        void sqliteRead_beforeInit_fails() {
+            SQLiteStorage uninitialized = new SQLiteStorage(plugin);
+
+            CompletableFuture<Optional<PlayerAfflictionData>> load = uninitialized.load(UUID.randomUUID());
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> load.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, error.getCause());
+        }
+    }
+
+    @Nested
+    @DisplayName("Write-Behind Queue")
+    class WriteBehind {
+
+        @Test
+        @DisplayName("queued save is persisted")
+        void save_isPersisted() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            PlayerAfflictionData data = new PlayerAfflictionData(uuid, "Queued",
+                    List.of(new AfflictionData("vampirism", 2, -1, 1000L)));
+
+            storageManager.save(data).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.getStorage().load(uuid).get();
+            assertTrue(loaded.isPresent());
+            assertEquals(2, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("repeated saves for a player keep the newest snapshot")
+        void save_coalescesToNewest() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            CompletableFuture<Void> first = storageManager.save(new PlayerAfflictionData(uuid, "Merge",
+                    List.of(new AfflictionData("vampirism", 1, -1, 1000L))));
+            CompletableFuture<Void> second = storageManager.save(new PlayerAfflictionData(uuid, "Merge",
+                    List.of(new AfflictionData("vampirism", 4, -1, 1000L))));
+
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.getStorage().load(uuid).get();
+            assertTrue(loaded.isPresent());
+            assertEquals(4, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("load sees a save that is still queued")
+        void load_seesPendingSave() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storageManager.save(new PlayerAfflictionData(uuid, "Pending",
+                    List.of(new AfflictionData("vampirism", 3, -1, 1000L))));
+
+            Optional<PlayerAfflictionData> loaded = storageManager.load(uuid).get(5, TimeUnit.SECONDS);
+            assertTrue(loaded.isPresent());
+            assertEquals(3, loaded.get().afflictions().get(0).level());
+
+            Optional<PlayerAfflictionData> byName = storageManager.loadByName("pending").get(5, TimeUnit.SECONDS);
+            assertTrue(byName.isPresent());
+            assertEquals(uuid, byName.get().uuid());
+        }
+
+        @Test
+        @DisplayName("shutdown writes queued saves")
+        void shutdown_drainsQueue() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            CompletableFuture<Void> future = storageManager.save(new PlayerAfflictionData(uuid, "Drain",
+                    List.of(new AfflictionData("vampirism", 1, -1, 1000L))));
+
+            assertTrue(storageManager.getWriteQueue().shutdown(5000));
+            assertTrue(future.isDone());
+            assertFalse(future.isCompletedExceptionally());
+            assertEquals(0, storageManager.getWriteQueue().getQueueDepth());
+        }
+    }
+
+    @Nested
+    @DisplayName("Delta Saves")
+    class DeltaSaves {
+
+        private AbstractSqlStorage sqlStorage() {
+            return (AbstractSqlStorage) storageManager.getStorage();
+        }
+
+        @Test
+        @DisplayName("saving unchanged data writes nothing")
+        void save_unchangedIsSkipped() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            PlayerAfflictionData data = new PlayerAfflictionData(uuid, "Same",
+                    List.of(new AfflictionData("vampirism", 2, -1, 1000L)));
+            AbstractSqlStorage storage = sqlStorage();
+
+            storage.saveBatch(List.of(data));
+            long skipped = storage.getUnchangedSaves();
+            long upserted = storage.getRowsUpserted();
+            storage.saveBatch(List.of(data));
+
+            assertEquals(skipped + 1, storage.getUnchangedSaves());
+            assertEquals(upserted, storage.getRowsUpserted());
+        }
+
+        @Test
+        @DisplayName("only changed and removed rows are written")
+        void save_writesOnlyChangedRows() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            AbstractSqlStorage storage = sqlStorage();
+            storage.saveBatch(List.of(new PlayerAfflictionData(uuid, "Delta", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L),
+                    new AfflictionData("lycanthropy", 1, -1, 1000L),
+                    new AfflictionData("curse", 1, -1, 1000L)))));
+
+            long upserted = storage.getRowsUpserted();
+            long deleted = storage.getRowsDeleted();
+            storage.saveBatch(List.of(new PlayerAfflictionData(uuid, "Delta", List.of(
+                    new AfflictionData("vampirism", 3, -1, 1000L),
+                    new AfflictionData("lycanthropy", 1, -1, 1000L)))));
+
+            assertEquals(upserted + 1, storage.getRowsUpserted());
+            assertEquals(deleted + 1, storage.getRowsDeleted());
+
+            Optional<PlayerAfflictionData> loaded = storage.load(uuid).get();
+            assertTrue(loaded.isPresent());
+            assertEquals(2, loaded.get().afflictions().size());
+            assertFalse(loaded.get().hasAffliction("curse"));
+            assertEquals(3, loaded.get().afflictions().stream()
+                    .filter(a -> a.afflictionId().equals("vampirism"))
+                    .findFirst().orElseThrow().level());
+        }
+    }
+
+    @Nested
+    @DisplayName("SQLite Profile")
+    class SQLiteProfile {
+
+        @Test
+        @DisplayName("read connections see committed saves")
+        void load_seesCommittedSave() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            Storage<PlayerAfflictionData> storage = storageManager.getStorage();
+
+            storage.save(new PlayerAfflictionData(uuid, "Reader",
+                    List.of(new AfflictionData("vampirism", 2, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storage.load(uuid).get(5, TimeUnit.SECONDS);
+            assertTrue(loaded.isPresent());
+            assertEquals(2, loaded.get().afflictions().get(0).level());
+            assertTrue(storage.exists(uuid).get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("prepared statements are reused across calls")
+        void statements_reused() throws Exception {
+            AbstractSqlStorage storage = (AbstractSqlStorage) storageManager.getStorage();
+            UUID uuid = UUID.randomUUID();
+            PlayerAfflictionData data = new PlayerAfflictionData(uuid, "Cached",
+                    List.of(new AfflictionData("vampirism", 1, -1, 1000L)));
+
+            storage.save(data).get(5, TimeUnit.SECONDS);
+            storage.load(uuid).get(5, TimeUnit.SECONDS);
+            assertTrue(storage.getCachedStatementCount() > 0);
+
+            for (int i = 0; i < 50; i++) {
+                storage.save(new PlayerAfflictionData(uuid, "Cached",
+                        List.of(new AfflictionData("vampirism", 1 + i % 5, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+                storage.load(uuid).get(5, TimeUnit.SECONDS);
+            }
+
+            // Bounded by distinct SQL per connection, not by the number of calls
+            assertTrue(storage.getCachedStatementCount() < 20);
+        }
+
+        @Test
+        @DisplayName("loads complete while saves are running")
+        void loadsDuringSaves() throws Exception {
+            Storage<PlayerAfflictionData> storage = storageManager.getStorage();
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                UUID uuid = UUID.randomUUID();
+                futures.add(storage.save(new PlayerAfflictionData(uuid, "Busy" + i,
+                        List.of(new AfflictionData("vampirism", 1, -1, 1000L)))));
+                futures.add(storage.load(UUID.randomUUID()));
+            }
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            for (CompletableFuture<?> future : futures) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+        }
+
+        @Test
+        @DisplayName("text UUID keys and JSON data are migrated to the binary schema")
+        void migration_textToBinaryKeys() throws Exception {
+            storageManager.getStorage().shutdown().get(5, TimeUnit.SECONDS);
+            File dbFile = new File(plugin.getDataFolder(), "afflictions.db");
+            for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                new File(dbFile.getPath() + suffix).delete();
+            }
+
+            // More players than one migration batch, in the original text-keyed schema
+            List<UUID> uuids = new ArrayList<>();
+            try (Connection legacy = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+                try (var stmt = legacy.createStatement()) {
+                    stmt.execute("""
+                            CREATE TABLE afflicted_players (
+                                uuid TEXT PRIMARY KEY,
+                                username TEXT NOT NULL,
+                                last_seen INTEGER NOT NULL
+                            )
+                            """);
+                    stmt.execute("""
+                            CREATE TABLE player_afflictions (
+                                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                                player_uuid TEXT NOT NULL,
+                                affliction_id TEXT NOT NULL,
+                                level INTEGER NOT NULL DEFAULT 1,
+                                duration INTEGER NOT NULL DEFAULT -1,
+                                contracted_at INTEGER NOT NULL,
+                                data TEXT,
+                                FOREIGN KEY (player_uuid) REFERENCES afflicted_players(uuid) ON DELETE CASCADE,
+                                UNIQUE(player_uuid, affliction_id)
+                            )
+                            """);
+                }
+                legacy.setAutoCommit(false);
+                try (PreparedStatement players = legacy.prepareStatement(
+                        "INSERT INTO afflicted_players (uuid, username, last_seen) VALUES (?, ?, 0)");
+                     PreparedStatement afflictions = legacy.prepareStatement(
+                             "INSERT INTO player_afflictions (player_uuid, affliction_id, level, contracted_at, data)"
+                                     + " VALUES (?, 'vampirism', ?, 1000, '{\"blood\":\"50.0\"}')")) {
+                    for (int i = 0; i < 1200; i++) {
+                        UUID uuid = UUID.randomUUID();
+                        uuids.add(uuid);
+                        players.setString(1, uuid.toString());
+                        players.setString(2, "Legacy" + i);
+                        players.addBatch();
+                        afflictions.setString(1, uuid.toString());
+                        afflictions.setInt(2, 1 + i % 5);
+                        afflictions.addBatch();
+                    }
+                    players.executeBatch();
+                    afflictions.executeBatch();
+                }
+                legacy.commit();
+            }
+
+            SQLiteStorage migrated = new SQLiteStorage(plugin);
+            try {
+                assertTrue(migrated.init().get(30, TimeUnit.SECONDS));
+
+                for (int i : new int[]{0, 599, 1199}) {
+                    Optional<PlayerAfflictionData> loaded = migrated.load(uuids.get(i)).get(5, TimeUnit.SECONDS);
+                    assertTrue(loaded.isPresent());
+                    assertEquals("Legacy" + i, loaded.get().username());
+                    assertEquals(1 + i % 5, loaded.get().afflictions().get(0).level());
+                    assertEquals("50.0", loaded.get().afflictions().get(0).getData("blood"));
+                }
+                assertTrue(migrated.loadByName("legacy42").get(5, TimeUnit.SECONDS).isPresent());
+            } finally {
+                migrated.shutdown().get(5, TimeUnit.SECONDS);
+            }
+
+            try (Connection check = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+                 var stmt = check.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                    assertEquals(3, rs.getInt(1));
+                }
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM player_afflictions"
+                                + " WHERE typeof(player_uuid) = 'blob' AND typeof(data) = 'blob'")) {
+                    assertEquals(1200, rs.getInt(1));
+                }
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT type FROM pragma_table_info('player_afflictions') WHERE name = 'data'")) {
+                    assertEquals("BLOB", rs.getString(1));
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Joined Lookup")
+    class JoinedLookup {
+
+        @Test
+        @DisplayName("loadByNameOrUuid prefers a username match")
+        void loadByNameOrUuid_prefersName() throws Exception {
+            UUID byName = UUID.randomUUID();
+            UUID byUuid = UUID.randomUUID();
+            storageManager.getStorage().save(new PlayerAfflictionData(byName, "Offline", List.of(
+                    new AfflictionData("vampirism", 2, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+            storageManager.getStorage().save(new PlayerAfflictionData(byUuid, "Other")).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.loadByNameOrUuid("offline", byUuid).get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(byName, loaded.get().uuid());
+            assertEquals(1, loaded.get().afflictions().size());
+        }
+
+        @Test
+        @DisplayName("a username match wins over a UUID match that sorts first")
+        void loadByNameOrUuid_nameBeatsUuid() throws Exception {
+            // The UUID match has the lower UUID, so only the name ordering puts the name match first
+            UUID byName = new UUID(Long.MAX_VALUE, UUID.randomUUID().getLeastSignificantBits());
+            UUID byUuid = new UUID(1L, UUID.randomUUID().getLeastSignificantBits());
+            storageManager.getStorage().save(new PlayerAfflictionData(byName, "Nomad", List.of(
+                    new AfflictionData("vampirism", 4, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+            storageManager.getStorage().save(new PlayerAfflictionData(byUuid, "Settler")).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.loadByNameOrUuid("nomad", byUuid).get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(byName, loaded.get().uuid());
+            assertEquals(4, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("loadByNameOrUuid falls back to the UUID")
+        void loadByNameOrUuid_fallsBackToUuid() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storageManager.getStorage().save(new PlayerAfflictionData(uuid, "Renamed", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L),
+                    new AfflictionData("curse", 1, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.loadByNameOrUuid("NewName", uuid).get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(uuid, loaded.get().uuid());
+            assertEquals(2, loaded.get().afflictions().size());
+        }
+
+        @Test
+        @DisplayName("loads a player without afflictions")
+        void load_noAfflictions() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storageManager.getStorage().save(new PlayerAfflictionData(uuid, "Clean")).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.getStorage().load(uuid).get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertTrue(loaded.get().afflictions().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Recently Quit")
+    class RecentlyQuit {
+
+        @Test
+        @DisplayName("rejoin is served from memory")
+        void load_servedFromRecentlyQuit() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storageManager.rememberQuit(new PlayerAfflictionData(uuid, "Relog",
+                    List.of(new AfflictionData("vampirism", 3, -1, 1000L))));
+
+            Optional<PlayerAfflictionData> loaded = storageManager.load(uuid).get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(3, loaded.get().afflictions().get(0).level());
+            assertEquals(1, storageManager.getRecentlyQuitCache().getHits());
+            // Never written, so storage itself has nothing
+            assertTrue(storageManager.getStorage().load(uuid).get(5, TimeUnit.SECONDS).isEmpty());
+        }
+
+        @Test
+        @DisplayName("a later save refreshes the cached snapshot")
+        void save_refreshesRecentlyQuit() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storageManager.rememberQuit(new PlayerAfflictionData(uuid, "Refresh",
+                    List.of(new AfflictionData("vampirism", 1, -1, 1000L))));
+            storageManager.save(new PlayerAfflictionData(uuid, "Refresh",
+                    List.of(new AfflictionData("vampirism", 5, -1, 1000L)))).get(5, TimeUnit.SECONDS);
+
+            Optional<PlayerAfflictionData> loaded = storageManager.loadByName("refresh").get(5, TimeUnit.SECONDS);
+
+            assertTrue(loaded.isPresent());
+            assertEquals(5, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("only shared backends bypass the cache")
+        void isShared_onlyMysql() {
+            assertTrue(StorageManager.isShared("mysql"));
+            assertFalse(StorageManager.isShared("sqlite"));
+            assertFalse(StorageManager.isShared("mmap"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Migration")
+    class Migration {
+
+        private List<PlayerAfflictionData> populate(int count) throws Exception {
+            AbstractSqlStorage storage = (AbstractSqlStorage) storageManager.getStorage();
+            List<PlayerAfflictionData> players = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                players.add(new PlayerAfflictionData(UUID.randomUUID(), "Paged" + i,
+                        i % 2 == 0 ? List.of() : List.of(
+                                new AfflictionData("vampirism", 1 + i % 5, -1, 1000L),
+                                new AfflictionData("lycanthropy", 1, 6000L, 2000L))));
+            }
+            storage.saveBatch(players);
+            return players;
+        }
+
+        @Test
+        @DisplayName("SQL pages return every player once with all afflictions")
+        void loadPage_visitsAll() throws Exception {
+            AbstractSqlStorage storage = (AbstractSqlStorage) storageManager.getStorage();
+            List<PlayerAfflictionData> players = populate(23);
+
+            List<PlayerAfflictionData> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                PlayerPage page = storage.loadPage(cursor, 5);
+                assertTrue(page.players().size() <= 5);
+                paged.addAll(page.players());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(players.size(), paged.size());
+            for (PlayerAfflictionData data : players) {
+                PlayerAfflictionData copy = paged.stream()
+                        .filter(p -> p.uuid().equals(data.uuid()))
+                        .findFirst()
+                        .orElseThrow();
+                assertEquals(data.afflictions().size(), copy.afflictions().size());
+            }
+        }
+
+        @Test
+        @DisplayName("migrate copies players to another backend")
+        void migrate_copiesToMmap() throws Exception {
+            List<PlayerAfflictionData> players = populate(12);
+
+            var result = storageManager.migrate("sqlite", "mmap", null).get(30, TimeUnit.SECONDS);
+
+            assertEquals(players.size(), result.migrated());
+            assertFalse(storageManager.isMigrating());
+            assertFalse(new File(plugin.getDataFolder(), "migration-sqlite-to-mmap.checkpoint").exists());
+        }
+
+        @Test
+        @DisplayName("migrate rejects unknown or identical backends")
+        void migrate_rejectsInvalidTypes() {
+            assertTrue(storageManager.migrate("sqlite", "sqlite", null).isCompletedExceptionally());
+            assertTrue(storageManager.migrate("sqlite", "postgres", null).isCompletedExceptionally());
+            assertEquals("mysql", StorageManager.normalizeType("MariaDB"));
+        }
+
+        @Test
+        @DisplayName("migrating into the active backend is refused while players are online")
+        void migrate_intoActiveWithPlayersOnline_refused() {
+            assertTrue(storageManager.canMigrateInto("sqlite"));
+
+            MockBukkit.getMock().addPlayer("Online");
+
+            assertFalse(storageManager.canMigrateInto("sqlite"));
+            assertTrue(storageManager.canMigrateInto("mmap"));
+            assertTrue(storageManager.migrate("mmap", "sqlite", null).isCompletedExceptionally());
+            assertFalse(storageManager.isMigrating());
+        }
+    }
+
+    @Nested
+    @DisplayName("Affliction Query")
+    class AfflictionQueries {
+
+        @BeforeEach
+        void populate() throws Exception {
+            AbstractSqlStorage storage = (AbstractSqlStorage) storageManager.getStorage();
+            List<PlayerAfflictionData> players = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                List<AfflictionData> afflictions = new ArrayList<>();
+                afflictions.add(new AfflictionData("vampirism", i % 5 + 1, -1, 1000L * i));
+                if (i % 3 == 0) {
+                    afflictions.add(new AfflictionData("curse_of_frailty", 1, 6000L, 500L));
+                }
+                players.add(new PlayerAfflictionData(UUID.randomUUID(), "Queried" + i, afflictions));
+            }
+            storage.saveBatch(players);
+        }
+
+        @Test
+        @DisplayName("query pages through matches in level order")
+        void query_pagesInLevelOrder() throws Exception {
+            AfflictionQuery query = AfflictionQuery.builder()
+                    .afflictionId("vampirism")
+                    .minLevel(3)
+                    .limit(4)
+                    .build();
+
+            List<AfflictionMatch> matches = new ArrayList<>();
+            String cursor = null;
+            do {
+                AfflictionMatchPage page = storageManager.query(query, cursor).get(5, TimeUnit.SECONDS);
+                assertTrue(page.matches().size() <= 4);
+                matches.addAll(page.matches());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(18, matches.size());
+            assertEquals(18, matches.stream().map(AfflictionMatch::playerUuid).distinct().count());
+            for (int i = 1; i < matches.size(); i++) {
+                assertTrue(matches.get(i - 1).affliction().level() <= matches.get(i).affliction().level());
+            }
+        }
+
+        @Test
+        @DisplayName("count and stream apply every filter")
+        void countAndStream_applyFilters() throws Exception {
+            AfflictionQuery query = AfflictionQuery.builder()
+                    .afflictionId("vampirism")
+                    .maxLevel(2)
+                    .contractedAfter(10_000L)
+                    .contractedBefore(20_000L)
+                    .build();
+
+            List<AfflictionMatch> streamed = new ArrayList<>();
+            long total = storageManager.stream(query, streamed::add).get(5, TimeUnit.SECONDS);
+
+            assertEquals(4, storageManager.count(query).get(5, TimeUnit.SECONDS));
+            assertEquals(4, total);
+            assertEquals(4, streamed.size());
+            assertEquals(10, storageManager.count(AfflictionQuery.builder()
+                    .afflictionId("curse_of_frailty").build()).get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("the affliction level index is created")
+        void index_created() throws Exception {
+            File dbFile = new File(plugin.getDataFolder(), "afflictions.db");
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+                 PreparedStatement stmt = connection.prepareStatement(
+                         "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+                stmt.setString(1, "idx_player_afflictions_affliction_level");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+        }
     }
 
     @Nested
@@ -0,0 +1,104 @@
+package com.dnocturne.afflictions.storage.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BinaryDataCodec.
+ */
+@DisplayName("BinaryDataCodec")
+class BinaryDataCodecTest {
+
+    private static Map<String, String> roundTrip(Map<String, String> data) throws IOException {
+        return BinaryDataCodec.decode(BinaryDataCodec.encode(data));
+    }
+
+    @Nested
+    @DisplayName("Round Trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("keeps dictionary and literal keys")
+        void roundTrip_keys() throws IOException {
+            Map<String, String> data = Map.of("blood", "50.0", "custom_key", "value", "burning", "true");
+
+            assertEquals(data, roundTrip(data));
+        }
+
+        @Test
+        @DisplayName("keeps every value string exactly")
+        void roundTrip_exactValues() throws IOException {
+            Map<String, String> data = new HashMap<>();
+            data.put("long", "1700000000000");
+            data.put("negative", "-42");
+            data.put("double", "42.5");
+            data.put("not_canonical_double", "42.50");
+            data.put("leading_zero", "007");
+            data.put("negative_zero", "-0");
+            data.put("infinity", "-Infinity");
+            data.put("false", "false");
+            data.put("tagged", "\u0001i42");
+            data.put("empty", "");
+            data.put("unicode", "Blüt ☃");
+
+            assertEquals(data, roundTrip(data));
+        }
+
+        @Test
+        @DisplayName("empty data decodes to an empty map")
+        void roundTrip_empty() throws IOException {
+            assertTrue(roundTrip(Map.of()).isEmpty());
+            assertTrue(BinaryDataCodec.decode(null).isEmpty());
+        }
+
+        @Test
+        @DisplayName("is smaller than JSON")
+        void smallerThanJson() {
+            Map<String, String> data = Map.of("blood", "87.5", "sun_exposure_start", "1700000000000",
+                    "burning", "false");
+
+            int binary = BinaryDataCodec.encode(data).length;
+            int json = InstanceDataCodec.toJson(data).getBytes(StandardCharsets.UTF_8).length;
+
+            assertTrue(binary * 2 < json, "binary " + binary + " bytes, JSON " + json + " bytes");
+        }
+    }
+
+    @Nested
+    @DisplayName("Format Detection")
+    class FormatDetection {
+
+        @Test
+        @DisplayName("JSON text is not mistaken for the binary format")
+        void json_notEncoded() {
+            assertFalse(BinaryDataCodec.isEncoded("{\"blood\":\"50.0\"}".getBytes(StandardCharsets.UTF_8)));
+            assertTrue(BinaryDataCodec.isEncoded(BinaryDataCodec.encode(Map.of("blood", "1.0"))));
+        }
+
+        @Test
+        @DisplayName("truncated values are rejected")
+        void truncated_throws() {
+            byte[] encoded = BinaryDataCodec.encode(Map.of("custom_key", "some value"));
+
+            assertThrows(IOException.class, () -> BinaryDataCodec.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        }
+
+        @Test
+        @DisplayName("unknown format versions are rejected")
+        void unknownVersion_throws() {
+            byte[] encoded = BinaryDataCodec.encode(Map.of("blood", "1.0"));
+            encoded[1] = (byte) (BinaryDataCodec.VERSION + 1);
+
+            assertThrows(IOException.class, () -> BinaryDataCodec.decode(encoded));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dnocturne.afflictions.storage.data;
+
+import com.dnocturne.afflictions.TestAffliction;
+import com.dnocturne.afflictions.api.affliction.Affliction;
+import com.dnocturne.afflictions.api.affliction.AfflictionInstance;
+import com.dnocturne.afflictions.api.affliction.StateKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for InstanceDataCodec.
+ */
+@DisplayName("InstanceDataCodec")
+class InstanceDataCodecTest {
+
+    private static final StateKey DOUBLE_KEY = StateKey.ofDouble("codec_test_double");
+    private static final StateKey LONG_KEY = StateKey.ofLong("codec_test_long");
+    private static final StateKey BOOLEAN_KEY = StateKey.ofBoolean("codec_test_boolean");
+
+    private final UUID playerUuid = UUID.randomUUID();
+    private Affliction affliction;
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        affliction = TestAffliction.builder("codec_test")
+                .maxLevel(5)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    private AfflictionInstance roundTrip(AfflictionInstance instance) throws IOException {
+        AfflictionData encoded = InstanceDataCodec.encode(instance);
+        String json = InstanceDataCodec.toJson(encoded.data());
+        AfflictionData stored = new AfflictionData(encoded.afflictionId(), encoded.level(),
+                encoded.duration(), encoded.contractedAt(), InstanceDataCodec.fromJson(json));
+        return InstanceDataCodec.decode(playerUuid, affliction, stored);
+    }
+
+    @Nested
+    @DisplayName("Round Trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("keeps instance fields")
+        void roundTrip_keepsFields() throws IOException {
+            AfflictionInstance instance = new AfflictionInstance(playerUuid, affliction, 3, 5000L, 1234L);
+
+            AfflictionInstance restored = roundTrip(instance);
+
+            assertEquals(3, restored.getLevel());
+            assertEquals(5000L, restored.getDuration());
+            assertEquals(1234L, restored.getContractedAt());
+        }
+
+        @Test
+        @DisplayName("restores declared keys into typed slots")
+        void roundTrip_declaredKeys() throws IOException {
+            AfflictionInstance instance = new AfflictionInstance(playerUuid, affliction);
+            instance.setDouble(DOUBLE_KEY, 42.5);
+            instance.setLong(LONG_KEY, 1_700_000_000_000L);
+            instance.setBoolean(BOOLEAN_KEY, true);
+
+            AfflictionInstance restored = roundTrip(instance);
+
+            assertEquals(42.5, restored.getDouble(DOUBLE_KEY, 0.0));
+            assertEquals(1_700_000_000_000L, restored.getLong(LONG_KEY, 0L));
+            assertTrue(restored.getBoolean(BOOLEAN_KEY));
+        }
+
+        @Test
+        @DisplayName("keeps the type of undeclared values")
+        void roundTrip_undeclaredTypes() throws IOException {
+            AfflictionInstance instance = new AfflictionInstance(playerUuid, affliction);
+            instance.setData("text", "hello");
+            instance.setData("count", 42);
+            instance.setData("timestamp", 99L);
+            instance.setData("flag", true);
+            instance.setData("ratio", 0.25);
+
+            AfflictionInstance restored = roundTrip(instance);
+
+            assertEquals("hello", restored.getData("text"));
+            assertEquals(42, restored.getData("count"));
+            assertEquals(99L, restored.getData("timestamp"));
+            assertEquals(true, restored.getData("flag"));
+            assertEquals(0.25, restored.getData("ratio"));
+        }
+
+        @Test
+        @DisplayName("keeps strings that look like tags")
+        void roundTrip_tagLikeString() throws IOException {
+            AfflictionInstance instance = new AfflictionInstance(playerUuid, affliction);
+            instance.setData("odd", "\u0001i42");
+
+            AfflictionInstance restored = roundTrip(instance);
+
+            assertEquals("\u0001i42", restored.getData("odd"));
+        }
+
+        @Test
+        @DisplayName("keeps special characters")
+        void roundTrip_specialCharacters() throws IOException {
+            AfflictionInstance instance = new AfflictionInstance(playerUuid, affliction);
+            instance.setData("message", "Hello \"World\"!\nline2 é");
+
+            AfflictionInstance restored = roundTrip(instance);
+
+            assertEquals("Hello \"World\"!\nline2 é", restored.getData("message"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Legacy Data")
+    class LegacyData {
+
+        @Test
+        @DisplayName("parses stringified values for declared keys")
+        void legacy_declaredKeysParsed() {
+            Map<String, String> legacy = new HashMap<>();
+            legacy.put("codec_test_double", "50.0");
+            legacy.put("codec_test_boolean", "true");
+
+            AfflictionInstance instance = InstanceDataCodec.decode(playerUuid, affliction,
+                    new AfflictionData("codec_test", 1, -1, 0L, legacy));
+
+            assertEquals(50.0, instance.getDouble(DOUBLE_KEY, 0.0));
+            assertTrue(instance.getBoolean(BOOLEAN_KEY));
+        }
+
+        @Test
+        @DisplayName("decodes untagged undeclared values as strings")
+        void legacy_untaggedAsString() {
+            AfflictionInstance instance = InstanceDataCodec.decode(playerUuid, affliction,
+                    new AfflictionData("codec_test", 1, -1, 0L, Map.of("custom", "123")));
+
+            assertEquals("123", instance.getData("custom"));
+        }
+
+        @Test
+        @DisplayName("reads JSON written by the old Gson serializer")
+        void legacy_readsGsonJson() throws IOException {
+            Map<String, String> data = InstanceDataCodec.fromJson("{\"blood\":\"50.0\",\"flag\":\"true\"}");
+
+            assertEquals("50.0", data.get("blood"));
+            assertEquals("true", data.get("flag"));
+        }
+
+        @Test
+        @DisplayName("treats empty or null column as no data")
+        void legacy_emptyColumn() throws IOException {
+            assertTrue(InstanceDataCodec.fromJson(null).isEmpty());
+            assertTrue(InstanceDataCodec.fromJson("").isEmpty());
+        }
+
+        @Test
+        @DisplayName("rejects malformed JSON")
+        void legacy_malformedJson() {
+            assertThrows(IOException.class, () -> InstanceDataCodec.fromJson("{\"blood\":"));
+        }
+    }
+}
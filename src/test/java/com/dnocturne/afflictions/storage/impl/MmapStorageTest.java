@@ -0,0 +1,311 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import com.dnocturne.afflictions.storage.AfflictionMatch;
+import com.dnocturne.afflictions.storage.AfflictionMatchPage;
+import com.dnocturne.afflictions.storage.AfflictionQuery;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MmapStorage against a temporary directory.
+ */
+@DisplayName("MmapStorage")
+class MmapStorageTest {
+
+    private static final Logger LOGGER = Logger.getLogger("MmapStorageTest");
+
+    @TempDir
+    Path directory;
+
+    private MmapStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        storage.shutdown().get();
+    }
+
+    private MmapStorage open() throws Exception {
+        MmapStorage opened = new MmapStorage(directory, LOGGER, MmapStorage.FsyncPolicy.NEVER, 1000, 64);
+        assertTrue(opened.init().get());
+        return opened;
+    }
+
+    private MmapStorage reopen() throws Exception {
+        storage.shutdown().get();
+        storage = open();
+        return storage;
+    }
+
+    private static PlayerAfflictionData player(UUID uuid, String username, int level) {
+        return new PlayerAfflictionData(uuid, username,
+                List.of(new AfflictionData("vampirism", level, -1, 1000L, Map.of("blood", "50.0"))));
+    }
+
+    private static PlayerAfflictionData largePlayer(UUID uuid, String username) {
+        List<AfflictionData> afflictions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Map<String, String> data = new HashMap<>();
+            data.put("note", "a value long enough to push the record past its slot " + i);
+            afflictions.add(new AfflictionData("curse_" + i, i + 1, 6000L, 1000L + i, data));
+        }
+        return new PlayerAfflictionData(uuid, username, afflictions);
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Save and Load Player")
+    class SaveAndLoad {
+
+        @Test
+        @DisplayName("getType returns mmap")
+        void getType() {
+            assertEquals("mmap", storage.getType());
+        }
+
+        @Test
+        @DisplayName("saves and loads a player with afflictions")
+        void save_load() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(player(uuid, "Nocturne", 3)).get();
+
+            assertEquals(Optional.of(player(uuid, "Nocturne", 3)), storage.load(uuid).get());
+            assertTrue(storage.exists(uuid).get());
+            assertTrue(storage.load(UUID.randomUUID()).get().isEmpty());
+        }
+
+        @Test
+        @DisplayName("loadByName is case-insensitive and follows renames")
+        void loadByName_followsRename() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(player(uuid, "OldName", 1)).get();
+            storage.save(player(uuid, "NewName", 1)).get();
+
+            assertEquals(uuid, storage.loadByName("newname").get().orElseThrow().uuid());
+            assertTrue(storage.loadByName("OldName").get().isEmpty());
+        }
+
+        @Test
+        @DisplayName("loadByNameOrUuid prefers a username match")
+        void loadByNameOrUuid_prefersName() throws Exception {
+            UUID named = UUID.randomUUID();
+            UUID other = UUID.randomUUID();
+            storage.save(player(named, "Offline", 1)).get();
+            storage.save(player(other, "Other", 2)).get();
+
+            assertEquals(named, storage.loadByNameOrUuid("offline", other).get().orElseThrow().uuid());
+            assertEquals(other, storage.loadByNameOrUuid("Missing", other).get().orElseThrow().uuid());
+        }
+
+        @Test
+        @DisplayName("delete removes the player")
+        void delete_removesPlayer() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(player(uuid, "Gone", 1)).get();
+            storage.delete(uuid).get();
+
+            assertFalse(storage.exists(uuid).get());
+            assertTrue(storage.loadByName("Gone").get().isEmpty());
+            assertEquals(0, storage.getPlayerCount());
+        }
+
+        @Test
+        @DisplayName("records larger than a slot are stored in the overflow file")
+        void largeRecord_usesOverflow() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(largePlayer(uuid, "Large")).get();
+            storage.save(largePlayer(uuid, "Large")).get();
+
+            assertTrue(storage.getOverflowBytes() > MmapStorage.INLINE_CAPACITY);
+            assertEquals(Optional.of(largePlayer(uuid, "Large")), storage.load(uuid).get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Persistence")
+    class Persistence {
+
+        @Test
+        @DisplayName("players survive reopening")
+        void reopen_restoresPlayers() throws Exception {
+            UUID small = UUID.randomUUID();
+            UUID large = UUID.randomUUID();
+            storage.save(player(small, "Small", 2)).get();
+            storage.save(largePlayer(large, "Large")).get();
+
+            reopen();
+
+            assertEquals(Optional.of(player(small, "Small", 2)), storage.load(small).get());
+            assertEquals(Optional.of(largePlayer(large, "Large")), storage.load(large).get());
+            assertEquals(small, storage.loadByName("small").get().orElseThrow().uuid());
+        }
+
+        @Test
+        @DisplayName("the table grows past its initial capacity")
+        void grow_keepsPlayers() throws Exception {
+            List<UUID> uuids = new ArrayList<>();
+            List<PlayerAfflictionData> batch = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                UUID uuid = UUID.randomUUID();
+                uuids.add(uuid);
+                batch.add(player(uuid, "Player" + i, i % 5 + 1));
+            }
+            storage.saveBatch(batch);
+
+            assertTrue(storage.getCapacity() >= 1000);
+            reopen();
+
+            assertEquals(500, storage.getPlayerCount());
+            for (int i = 0; i < uuids.size(); i++) {
+                assertEquals(i % 5 + 1, storage.load(uuids.get(i)).get().orElseThrow().afflictions().get(0).level());
+            }
+            // Only the current generation's two files remain
+            assertEquals(2, files().size());
+        }
+
+        @Test
+        @DisplayName("compaction drops deleted players and old files")
+        void compact_dropsDeleted() throws Exception {
+            UUID kept = UUID.randomUUID();
+            storage.save(largePlayer(kept, "Kept")).get();
+            for (int i = 0; i < 20; i++) {
+                UUID uuid = UUID.randomUUID();
+                storage.save(player(uuid, "Temp" + i, 1)).get();
+                storage.delete(uuid).get();
+            }
+
+            storage.compact().get();
+
+            assertEquals(1, storage.getPlayerCount());
+            assertEquals(Optional.of(largePlayer(kept, "Kept")), storage.load(kept).get());
+            assertTrue(storage.getCompactions() >= 1);
+            assertFalse(Files.exists(directory.resolve("players-1.dat")));
+            assertEquals(2, files().size());
+        }
+
+        @Test
+        @DisplayName("a corrupt record is dropped on open")
+        void corruptRecord_dropped() throws Exception {
+            UUID intact = UUID.randomUUID();
+            UUID corrupt = UUID.randomUUID();
+            storage.save(player(intact, "Intact", 1)).get();
+            storage.save(player(corrupt, "Corrupted", 1)).get();
+            storage.shutdown().get();
+
+            Path file = directory.resolve("players-1.dat");
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] name = "Corrupted".getBytes(StandardCharsets.UTF_8);
+            int at = indexOf(bytes, name);
+            bytes[at] ^= 0x20;
+            Files.write(file, bytes);
+
+            storage = open();
+
+            assertTrue(storage.load(corrupt).get().isEmpty());
+            assertEquals(Optional.of(player(intact, "Intact", 1)), storage.load(intact).get());
+        }
+
+        @Test
+        @DisplayName("an unfinished generation is ignored")
+        void unfinishedGeneration_ignored() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(player(uuid, "Stable", 1)).get();
+            storage.shutdown().get();
+            Files.write(directory.resolve("players-2.dat"), new byte[128]);
+
+            storage = open();
+
+            assertEquals(Optional.of(player(uuid, "Stable", 1)), storage.load(uuid).get());
+            assertFalse(Files.exists(directory.resolve("players-2.dat")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Queries")
+    class Queries {
+
+        @Test
+        @DisplayName("query pages through matches by scanning")
+        void query_pagesThroughMatches() throws Exception {
+            List<PlayerAfflictionData> batch = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                batch.add(player(UUID.randomUUID(), "Player" + i, i % 5 + 1));
+            }
+            storage.saveBatch(batch);
+            AfflictionQuery query = AfflictionQuery.builder()
+                    .afflictionId("vampirism")
+                    .minLevel(4)
+                    .limit(5)
+                    .build();
+
+            Set<UUID> seen = new HashSet<>();
+            String cursor = null;
+            do {
+                AfflictionMatchPage page = storage.query(query, cursor);
+                assertTrue(page.matches().size() <= 5);
+                for (AfflictionMatch match : page.matches()) {
+                    assertTrue(match.affliction().level() >= 4);
+                    assertTrue(seen.add(match.playerUuid()));
+                }
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(16, seen.size());
+            assertEquals(16, storage.count(query));
+        }
+
+        @Test
+        @DisplayName("count is zero when nothing matches")
+        void count_noMatches() throws Exception {
+            storage.save(player(UUID.randomUUID(), "Only", 1)).get();
+
+            assertEquals(0, storage.count(AfflictionQuery.builder().afflictionId("lycanthropy").build()));
+            assertTrue(storage.query(AfflictionQuery.builder().minLevel(2).build(), null).matches().isEmpty());
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            int j = 0;
+            while (j < needle.length && haystack[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return i;
+            }
+        }
+        throw new AssertionError("pattern not found");
+    }
+}
@@ -0,0 +1,276 @@
+package com.dnocturne.afflictions.storage.impl;
+
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MySqlStorage against an in-memory H2 database in MySQL mode.
+ */
+@DisplayName("MySqlStorage")
+class MySqlStorageTest {
+
+    private MySqlStorage storage;
+    private String jdbcUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockBukkit.mock();
+
+        // IGNORECASE mirrors MySQL's default case-insensitive collation
+        jdbcUrl = "jdbc:h2:mem:afflictions_" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+        storage = openStorage();
+    }
+
+    private MySqlStorage openStorage() throws Exception {
+        HikariConfig poolConfig = new HikariConfig();
+        poolConfig.setJdbcUrl(jdbcUrl);
+        poolConfig.setMaximumPoolSize(4);
+        poolConfig.setMinimumIdle(1);
+
+        MySqlStorage opened = new MySqlStorage(MockBukkit.createMockPlugin(), poolConfig);
+        assertTrue(opened.init().get(10, TimeUnit.SECONDS));
+        return opened;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (storage != null) {
+            storage.shutdown().get(10, TimeUnit.SECONDS);
+        }
+        MockBukkit.unmock();
+    }
+
+    @Nested
+    @DisplayName("Save and Load Player")
+    class SaveAndLoadPlayer {
+
+        @Test
+        @DisplayName("getType returns mysql")
+        void getType() {
+            assertEquals("mysql", storage.getType());
+        }
+
+        @Test
+        @DisplayName("saves and loads a player with afflictions")
+        void saveAndLoad() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad", List.of(
+                    new AfflictionData("vampirism", 3, -1, 1000L, Map.of("blood", "50.0"))))).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.load(uuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals("Vlad", loaded.get().username());
+            assertEquals(1, loaded.get().afflictions().size());
+            AfflictionData affliction = loaded.get().afflictions().get(0);
+            assertEquals(3, affliction.level());
+            assertEquals("50.0", affliction.data().get("blood"));
+        }
+
+        @Test
+        @DisplayName("repeated save replaces changed and removed afflictions")
+        void save_updatesRows() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L),
+                    new AfflictionData("curse", 1, -1, 1000L)))).get();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad", List.of(
+                    new AfflictionData("vampirism", 5, -1, 1000L)))).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.load(uuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals(1, loaded.get().afflictions().size());
+            assertEquals(5, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("loadByName is case-insensitive")
+        void loadByName_caseInsensitive() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad")).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.loadByName("vLAD").get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals(uuid, loaded.get().uuid());
+        }
+
+        @Test
+        @DisplayName("delete removes the player and their afflictions")
+        void delete_cascades() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L)))).get();
+
+            storage.delete(uuid).get();
+
+            assertFalse(storage.exists(uuid).get());
+            assertTrue(storage.load(uuid).get().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Joined Lookup")
+    class JoinedLookup {
+
+        @Test
+        @DisplayName("loadByNameOrUuid prefers a username match")
+        void loadByNameOrUuid_prefersName() throws Exception {
+            UUID byName = UUID.randomUUID();
+            UUID byUuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(byName, "Offline", List.of(
+                    new AfflictionData("vampirism", 2, -1, 1000L)))).get();
+            storage.save(new PlayerAfflictionData(byUuid, "Other")).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.loadByNameOrUuid("offline", byUuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals(byName, loaded.get().uuid());
+            assertEquals(1, loaded.get().afflictions().size());
+        }
+
+        @Test
+        @DisplayName("a username match wins over a UUID match that sorts first")
+        void loadByNameOrUuid_nameBeatsUuid() throws Exception {
+            // The UUID match has the lower UUID, so only the name ordering puts the name match first
+            UUID byName = new UUID(Long.MAX_VALUE, UUID.randomUUID().getLeastSignificantBits());
+            UUID byUuid = new UUID(1L, UUID.randomUUID().getLeastSignificantBits());
+            storage.save(new PlayerAfflictionData(byName, "Nomad", List.of(
+                    new AfflictionData("vampirism", 4, -1, 1000L)))).get();
+            storage.save(new PlayerAfflictionData(byUuid, "Settler")).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.loadByNameOrUuid("nomad", byUuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals(byName, loaded.get().uuid());
+            assertEquals(4, loaded.get().afflictions().get(0).level());
+        }
+
+        @Test
+        @DisplayName("loadByNameOrUuid falls back to the UUID")
+        void loadByNameOrUuid_fallsBackToUuid() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Renamed", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L),
+                    new AfflictionData("curse", 1, -1, 1000L)))).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.loadByNameOrUuid("NewName", uuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertEquals(uuid, loaded.get().uuid());
+            assertEquals(2, loaded.get().afflictions().size());
+        }
+
+        @Test
+        @DisplayName("loads a player without afflictions")
+        void load_noAfflictions() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Clean")).get();
+
+            Optional<PlayerAfflictionData> loaded = storage.load(uuid).get();
+
+            assertTrue(loaded.isPresent());
+            assertTrue(loaded.get().afflictions().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency")
+    class Concurrency {
+
+        @Test
+        @DisplayName("concurrent saves and loads all complete")
+        void concurrentSavesAndLoads() throws Exception {
+            List<UUID> uuids = new ArrayList<>();
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                UUID uuid = UUID.randomUUID();
+                uuids.add(uuid);
+                saves.add(storage.save(new PlayerAfflictionData(uuid, "Player" + i, List.of(
+                        new AfflictionData("vampirism", 1 + i % 5, -1, 1000L)))));
+            }
+            CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            List<CompletableFuture<Optional<PlayerAfflictionData>>> loads = new ArrayList<>();
+            for (UUID uuid : uuids) {
+                loads.add(storage.load(uuid));
+            }
+            for (int i = 0; i < loads.size(); i++) {
+                Optional<PlayerAfflictionData> loaded = loads.get(i).get(30, TimeUnit.SECONDS);
+                assertTrue(loaded.isPresent());
+                assertEquals(1 + i % 5, loaded.get().afflictions().get(0).level());
+            }
+        }
+
+        @Test
+        @DisplayName("connections are returned to the pool")
+        void connectionsReturned() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            storage.save(new PlayerAfflictionData(uuid, "Vlad")).get();
+            storage.load(uuid).get();
+
+            assertEquals(0, storage.getActiveConnections());
+        }
+
+        @Test
+        @DisplayName("batched save writes every player")
+        void saveBatch_writesAll() throws Exception {
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+
+            storage.saveBatch(List.of(
+                    new PlayerAfflictionData(first, "First"),
+                    new PlayerAfflictionData(second, "Second")));
+
+            assertTrue(storage.exists(first).get());
+            assertTrue(storage.exists(second).get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Shared Database")
+    class SharedDatabase {
+
+        @Test
+        @DisplayName("a save is written even if another server changed the rows since")
+        void save_afterOtherServerWrite_isWritten() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            PlayerAfflictionData original = new PlayerAfflictionData(uuid, "Vlad", List.of(
+                    new AfflictionData("vampirism", 1, -1, 1000L)));
+            storage.save(original).get();
+            storage.load(uuid).get();
+
+            MySqlStorage otherServer = openStorage();
+            try {
+                otherServer.save(new PlayerAfflictionData(uuid, "Vlad", List.of(
+                        new AfflictionData("vampirism", 4, -1, 1000L)))).get();
+            } finally {
+                otherServer.shutdown().get(10, TimeUnit.SECONDS);
+            }
+
+            storage.save(original).get();
+
+            assertEquals(Optional.of(original), storage.load(uuid).get());
+            assertEquals(0, storage.getUnchangedSaves());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.dnocturne.afflictions.storage.journal;
+
+import com.dnocturne.afflictions.storage.AfflictionStorage;
+import com.dnocturne.afflictions.storage.PlayerPage;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MutationJournal.
+ */
+@DisplayName("MutationJournal")
+class MutationJournalTest {
+
+    private static final Logger LOGGER = Logger.getLogger("MutationJournalTest");
+
+    @TempDir
+    Path directory;
+
+    private Map<UUID, PlayerAfflictionData> stored;
+    private AfflictionStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        MemoryStorage memory = new MemoryStorage();
+        stored = memory.rows;
+        storage = memory;
+    }
+
+    private MutationJournal newJournal() {
+        // Long intervals so the tests control when records are synced
+        return new MutationJournal(directory, LOGGER, 60_000, 0);
+    }
+
+    private static PlayerAfflictionData player(UUID uuid, int level, String blood) {
+        return new PlayerAfflictionData(uuid, "Nocturne",
+                List.of(new AfflictionData("vampirism", level, -1, 1000L, Map.of("blood", blood))));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Recovery")
+    class Recovery {
+
+        @Test
+        @DisplayName("replays captured changes on top of stored data")
+        void recover_appliesChanges() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            stored.put(uuid, player(uuid, 1, "50.0"));
+
+            MutationJournal journal = newJournal();
+            journal.start();
+            journal.capture(player(uuid, 1, "50.0"), false);
+            journal.appendSnapshot(player(uuid, 1, "50.0"));
+            journal.capture(player(uuid, 2, "75.5"), true);
+            journal.sync();
+            // Simulate a crash: the journal is never closed
+
+            int restored = newJournal().recover(storage);
+
+            assertEquals(1, restored);
+            assertEquals(player(uuid, 2, "75.5"), stored.get(uuid));
+            assertEquals(0, segmentCount());
+        }
+
+        @Test
+        @DisplayName("applies changes without a snapshot to the stored row")
+        void recover_changesOverStorage() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            stored.put(uuid, player(uuid, 1, "50.0"));
+
+            MutationJournal journal = newJournal();
+            journal.start();
+            journal.appendSnapshot(player(uuid, 1, "50.0"));
+            journal.capture(player(uuid, 1, "60.0"), true);
+            journal.sync();
+
+            // Keep only the state change record, as if the snapshot was checkpointed away
+            Path segment;
+            try (Stream<Path> files = Files.list(directory)) {
+                segment = files.findFirst().orElseThrow();
+            }
+            byte[] bytes = Files.readAllBytes(segment);
+            int snapshotLength = 8 + readInt(bytes, 0);
+            Files.write(segment, Arrays.copyOfRange(bytes, snapshotLength, bytes.length));
+            stored.put(uuid, player(uuid, 3, "10.0"));
+
+            newJournal().recover(storage);
+
+            assertEquals(player(uuid, 3, "60.0"), stored.get(uuid));
+        }
+
+        @Test
+        @DisplayName("stops at a torn record")
+        void recover_ignoresTornTail() throws Exception {
+            UUID uuid = UUID.randomUUID();
+
+            MutationJournal journal = newJournal();
+            journal.start();
+            journal.appendSnapshot(player(uuid, 1, "50.0"));
+            journal.sync();
+            journal.capture(player(uuid, 4, "99.0"), true);
+            journal.sync();
+
+            Path segment;
+            try (Stream<Path> files = Files.list(directory)) {
+                segment = files.findFirst().orElseThrow();
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 3);
+            }
+
+            newJournal().recover(storage);
+
+            // The level change before the torn state change is kept
+            assertEquals(player(uuid, 4, "50.0"), stored.get(uuid));
+        }
+
+        @Test
+        @DisplayName("nothing to recover after a clean close")
+        void close_deletesWrittenJournal() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            PlayerAfflictionData data = player(uuid, 2, "20.0");
+
+            MutationJournal journal = newJournal();
+            journal.start();
+            journal.appendSnapshot(data);
+            journal.markWritten(data);
+            journal.close();
+
+            assertEquals(0, segmentCount());
+            assertEquals(0, newJournal().recover(storage));
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpoint")
+    class Checkpoint {
+
+        @Test
+        @DisplayName("keeps changes that are not in storage yet")
+        void checkpoint_keepsUnsaved() throws Exception {
+            UUID saved = UUID.randomUUID();
+            UUID unsaved = UUID.randomUUID();
+            PlayerAfflictionData savedData = player(saved, 1, "10.0");
+
+            MutationJournal journal = newJournal();
+            journal.start();
+            journal.appendSnapshot(savedData);
+            journal.capture(player(unsaved, 2, "40.0"), true);
+            journal.markWritten(savedData);
+            journal.checkpoint();
+            journal.checkpoint();
+
+            assertEquals(1, segmentCount());
+            assertEquals(1, journal.getUnsavedPlayerCount());
+
+            newJournal().recover(storage);
+
+            assertEquals(player(unsaved, 2, "40.0"), stored.get(unsaved));
+            assertFalse(stored.containsKey(saved));
+        }
+
+        @Test
+        @DisplayName("unchanged players are not journaled")
+        void capture_skipsClean() {
+            UUID uuid = UUID.randomUUID();
+            MutationJournal journal = newJournal();
+
+            assertEquals(0, journal.capture(player(uuid, 1, "10.0"), false));
+            assertEquals(1, journal.capture(player(uuid, 1, "10.0"), true));
+            assertEquals(0, journal.capture(player(uuid, 1, "10.0"), true));
+            assertEquals(2, journal.capture(player(uuid, 2, "20.0"), true));
+        }
+    }
+
+    /**
+     * Storage that keeps rows in memory.
+     */
+    private static final class MemoryStorage implements AfflictionStorage {
+
+        final Map<UUID, PlayerAfflictionData> rows = new HashMap<>();
+
+        @Override
+        public CompletableFuture<Boolean> init() {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public CompletableFuture<Void> shutdown() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Optional<PlayerAfflictionData>> load(UUID uuid) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(rows.get(uuid)));
+        }
+
+        @Override
+        public CompletableFuture<Optional<PlayerAfflictionData>> loadByName(String username) {
+            return CompletableFuture.completedFuture(rows.values().stream()
+                    .filter(data -> data.username().equalsIgnoreCase(username))
+                    .findFirst());
+        }
+
+        @Override
+        public CompletableFuture<Void> save(PlayerAfflictionData data) {
+            rows.put(data.uuid(), data);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(UUID uuid) {
+            rows.remove(uuid);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(UUID uuid) {
+            return CompletableFuture.completedFuture(rows.containsKey(uuid));
+        }
+
+        @Override
+        public void saveBatch(Collection<PlayerAfflictionData> batch) {
+            for (PlayerAfflictionData data : batch) {
+                rows.put(data.uuid(), data);
+            }
+        }
+
+        @Override
+        public PlayerPage loadPage(String cursor, int limit) {
+            return new PlayerPage(List.copyOf(rows.values()), null);
+        }
+
+        @Override
+        public String getType() {
+            return "memory";
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
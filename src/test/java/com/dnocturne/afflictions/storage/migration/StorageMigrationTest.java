@@ -0,0 +1,189 @@
+package com.dnocturne.afflictions.storage.migration;
+
+import com.dnocturne.afflictions.storage.PlayerPage;
+import com.dnocturne.afflictions.storage.data.AfflictionData;
+import com.dnocturne.afflictions.storage.data.PlayerAfflictionData;
+import com.dnocturne.afflictions.storage.impl.MmapStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StorageMigration between two mmap stores.
+ */
+@DisplayName("StorageMigration")
+class StorageMigrationTest {
+
+    private static final Logger LOGGER = Logger.getLogger("StorageMigrationTest");
+
+    @TempDir
+    Path directory;
+
+    private MmapStorage source;
+    private FailingStorage target;
+    private Path checkpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        source = new MmapStorage(directory.resolve("source"), LOGGER, MmapStorage.FsyncPolicy.NEVER, 1000, 64);
+        target = new FailingStorage(directory.resolve("target"));
+        assertTrue(source.init().get());
+        assertTrue(target.init().get());
+        checkpoint = directory.resolve("migration.checkpoint");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        source.shutdown().get();
+        target.shutdown().get();
+    }
+
+    private static PlayerAfflictionData player(UUID uuid, int index) {
+        return new PlayerAfflictionData(uuid, "Player" + index,
+                List.of(new AfflictionData("vampirism", index % 5 + 1, -1, 1000L + index, Map.of("blood", "50.0"))));
+    }
+
+    private List<PlayerAfflictionData> populate(int count) throws SQLException {
+        List<PlayerAfflictionData> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            players.add(player(UUID.randomUUID(), i));
+        }
+        source.saveBatch(players);
+        return players;
+    }
+
+    /**
+     * Mmap storage whose batched saves can be made to fail a number of times.
+     */
+    private static class FailingStorage extends MmapStorage {
+        int failuresLeft;
+        int failAfterBatches = -1;
+        int batches;
+
+        FailingStorage(Path directory) {
+            super(directory, LOGGER, FsyncPolicy.NEVER, 1000, 64);
+        }
+
+        @Override
+        public void saveBatch(Collection<PlayerAfflictionData> batch) throws SQLException {
+            if (batches++ == failAfterBatches && failuresLeft-- > 0) {
+                throw new SQLException("simulated failure");
+            }
+            super.saveBatch(batch);
+        }
+    }
+
+    @Nested
+    @DisplayName("Paging")
+    class Paging {
+
+        @Test
+        @DisplayName("pages visit every player once")
+        void loadPage_visitsAll() throws Exception {
+            List<PlayerAfflictionData> players = populate(45);
+
+            Set<UUID> seen = new HashSet<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                PlayerPage page = source.loadPage(cursor, 10);
+                assertTrue(page.players().size() <= 10);
+                for (PlayerAfflictionData data : page.players()) {
+                    assertTrue(seen.add(data.uuid()));
+                }
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(players.size(), seen.size());
+            assertTrue(pages >= 5);
+        }
+    }
+
+    @Nested
+    @DisplayName("Migration")
+    class Migration {
+
+        @Test
+        @DisplayName("copies every player and removes the checkpoint")
+        void run_copiesAll() throws Exception {
+            List<PlayerAfflictionData> players = populate(120);
+            List<Long> progress = new ArrayList<>();
+
+            StorageMigration.Result result = new StorageMigration(source, target, checkpoint, 25, LOGGER)
+                    .run(progress::add);
+
+            assertEquals(120, result.migrated());
+            assertFalse(result.resumed());
+            assertFalse(progress.isEmpty());
+            assertFalse(Files.exists(checkpoint));
+            for (PlayerAfflictionData data : players) {
+                assertEquals(Optional.of(data), target.load(data.uuid()).get());
+            }
+        }
+
+        @Test
+        @DisplayName("an empty source finishes without a checkpoint")
+        void run_emptySource() throws Exception {
+            StorageMigration.Result result = new StorageMigration(source, target, checkpoint, 25, LOGGER).run(null);
+
+            assertEquals(0, result.migrated());
+            assertFalse(Files.exists(checkpoint));
+        }
+
+        @Test
+        @DisplayName("a failed migration resumes from its checkpoint")
+        void run_resumesAfterFailure() throws Exception {
+            List<PlayerAfflictionData> players = populate(100);
+            target.failAfterBatches = 2;
+            target.failuresLeft = 1;
+
+            StorageMigration migration = new StorageMigration(source, target, checkpoint, 20, LOGGER);
+            assertThrows(SQLException.class, () -> migration.run(null));
+            assertTrue(Files.exists(checkpoint));
+            int batchesBeforeResume = target.batches;
+
+            StorageMigration.Result result = migration.run(null);
+
+            assertTrue(result.resumed());
+            assertEquals(100, result.migrated());
+            // Only the pages after the checkpoint are read again
+            assertTrue(target.batches - batchesBeforeResume < 100 / 20);
+            assertEquals(100, target.getPlayerCount());
+            for (PlayerAfflictionData data : players) {
+                assertEquals(Optional.of(data), target.load(data.uuid()).get());
+            }
+            assertFalse(Files.exists(checkpoint));
+        }
+
+        @Test
+        @DisplayName("a checkpoint for other backends is ignored")
+        void run_ignoresForeignCheckpoint() throws Exception {
+            populate(10);
+            Files.writeString(checkpoint, "source=sqlite\ntarget=mysql\ncursor=abc\nmigrated=5\n");
+
+            StorageMigration.Result result = new StorageMigration(source, target, checkpoint, 25, LOGGER).run(null);
+
+            assertFalse(result.resumed());
+            assertEquals(10, result.migrated());
+        }
+    }
+}